@@ -80,6 +80,22 @@ CREATE TABLE `cart` (
 
 -- --------------------------------------------------------
 
+--
+-- Table structure for table `catalog_changes`
+--
+-- Append-only log of book and stock changes; each client polls it by id
+-- to invalidate its cached copies of the affected books.
+--
+
+CREATE TABLE `catalog_changes` (
+  `id` bigint(20) NOT NULL,
+  `book_id` int(11) NOT NULL,
+  `change_type` enum('insert','update','delete','stock') NOT NULL,
+  `changed_at` timestamp NOT NULL DEFAULT current_timestamp()
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- --------------------------------------------------------
+
 --
 -- Table structure for table `orders`
 --
@@ -144,6 +160,40 @@ INSERT INTO `roles` (`role_id`, `role_name`) VALUES
 
 -- --------------------------------------------------------
 
+--
+-- Table structure for table `sales_daily`
+--
+
+CREATE TABLE `sales_daily` (
+  `sale_date` date NOT NULL,
+  `order_count` int(11) NOT NULL DEFAULT 0,
+  `revenue` decimal(14,2) NOT NULL DEFAULT 0.00
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- --------------------------------------------------------
+
+--
+-- Table structure for table `store_stats`
+--
+
+CREATE TABLE `store_stats` (
+  `id` tinyint(4) NOT NULL,
+  `total_books` int(11) NOT NULL DEFAULT 0,
+  `total_customers` int(11) NOT NULL DEFAULT 0,
+  `total_orders` int(11) NOT NULL DEFAULT 0,
+  `total_revenue` decimal(14,2) NOT NULL DEFAULT 0.00,
+  `rebuilt_at` timestamp NULL DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+--
+-- Dumping data for table `store_stats`
+--
+
+INSERT INTO `store_stats` (`id`, `total_books`, `total_customers`, `total_orders`, `total_revenue`, `rebuilt_at`) VALUES
+(1, 17, 0, 0, 0.00, NULL);
+
+-- --------------------------------------------------------
+
 --
 -- Table structure for table `users`
 --
@@ -183,22 +233,31 @@ CREATE TABLE `wishlist` (
 --
 ALTER TABLE `books`
   ADD PRIMARY KEY (`id`),
-  ADD UNIQUE KEY `isbn` (`isbn`);
+  ADD UNIQUE KEY `isbn` (`isbn`),
+  ADD KEY `category_id` (`category`,`id`);
 
 --
 -- Indexes for table `cart`
 --
 ALTER TABLE `cart`
   ADD PRIMARY KEY (`id`),
-  ADD KEY `user_id` (`user_id`),
+  ADD UNIQUE KEY `user_book` (`user_id`,`book_id`),
   ADD KEY `book_id` (`book_id`);
 
+--
+-- Indexes for table `catalog_changes`
+--
+ALTER TABLE `catalog_changes`
+  ADD PRIMARY KEY (`id`),
+  ADD KEY `changed_at` (`changed_at`);
+
 --
 -- Indexes for table `orders`
 --
 ALTER TABLE `orders`
   ADD PRIMARY KEY (`id`),
-  ADD KEY `user_id` (`user_id`);
+  ADD KEY `user_id` (`user_id`),
+  ADD KEY `order_date` (`order_date`);
 
 --
 -- Indexes for table `order_items`
@@ -222,6 +281,18 @@ ALTER TABLE `reviews`
 ALTER TABLE `roles`
   ADD PRIMARY KEY (`role_id`);
 
+--
+-- Indexes for table `sales_daily`
+--
+ALTER TABLE `sales_daily`
+  ADD PRIMARY KEY (`sale_date`);
+
+--
+-- Indexes for table `store_stats`
+--
+ALTER TABLE `store_stats`
+  ADD PRIMARY KEY (`id`);
+
 --
 -- Indexes for table `users`
 --
@@ -254,6 +325,12 @@ ALTER TABLE `books`
 ALTER TABLE `cart`
   MODIFY `id` int(11) NOT NULL AUTO_INCREMENT, AUTO_INCREMENT=3;
 
+--
+-- AUTO_INCREMENT for table `catalog_changes`
+--
+ALTER TABLE `catalog_changes`
+  MODIFY `id` bigint(20) NOT NULL AUTO_INCREMENT;
+
 --
 -- AUTO_INCREMENT for table `orders`
 --
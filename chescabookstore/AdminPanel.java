@@ -7,11 +7,8 @@ import java.awt.event.*;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.sql.*;
 import java.util.*;
 import java.text.SimpleDateFormat;
@@ -35,6 +32,10 @@ public class AdminPanel extends JFrame {
     private static final Font HEADING_FONT = new Font("Segoe UI", Font.BOLD, 24);
     private static final Font CARD_TITLE_FONT = new Font("Segoe UI", Font.BOLD, 16);
     private static final Font CARD_VALUE_FONT = new Font("Segoe UI", Font.BOLD, 28);
+    
+    // Rows in the dashboard's recent orders table
+    private static final int RECENT_ORDERS = 10;
+    
     private int userId;
     
     // Components
@@ -49,6 +50,17 @@ public class AdminPanel extends JFrame {
     // Current active panel for tracking
     private JPanel currentPanel;
     
+    // Table models and stat values patched in place by StoreEvents
+    private final OrderTableModel recentOrdersModel = new OrderTableModel(false);
+    private final OrderTableModel ordersModel = new OrderTableModel(true);
+    private final BookTableModel booksModel = new BookTableModel();
+    private final JLabel[] statValueLabels = new JLabel[4];
+    // Last totals read (books, users, orders, revenue), null until the first read
+    private Number[] stats;
+    // Sales chart query currently running in the background, if any
+    private DbExecutor.Job<?> salesJob;
+    private StoreEvents.Listener storeListener;
+    
     // Menu buttons
     private JButton dashboardBtn;
     private JButton booksBtn;
@@ -74,6 +86,10 @@ public class AdminPanel extends JFrame {
             return; // Important: stop initialization if authentication fails
         }
         
+        // Follow book edits and new orders from every terminal, this one included
+        CatalogChanges.startPolling();
+        CatalogChanges.followOrders();
+        
         // Main layout
         setLayout(new BorderLayout());
         
@@ -88,12 +104,51 @@ public class AdminPanel extends JFrame {
         initializeOrdersPanel();
         initializeReportsPanel();
         
+        // Keep the tables current one row at a time
+        storeListener = new StoreEvents.Listener() {
+            @Override
+            public void orderPlaced(int orderId, java.math.BigDecimal total) {
+                addOrderRow(orderId);
+                if (stats != null) {
+                    stats[2] = stats[2].intValue() + 1;
+                    stats[3] = ((java.math.BigDecimal) stats[3]).add(total);
+                    showStats();
+                }
+            }
+            
+            @Override
+            public void orderStatusChanged(int orderId, String status) {
+                recentOrdersModel.setStatus(orderId, status);
+                ordersModel.setStatus(orderId, status);
+            }
+            
+            @Override
+            public void bookChanged(int bookId) {
+                reloadBookRow(bookId);
+            }
+            
+            @Override
+            public void bookRemoved(int bookId) {
+                if (booksModel.removeBook(bookId)) {
+                    adjustBookCount(-1);
+                }
+            }
+        };
+        StoreEvents.addListener(storeListener);
+        
         // Show dashboard by default
         showPanel(dashboardPanel);
         
         setVisible(true);
     }
     
+    @Override
+    public void dispose() {
+        StoreEvents.removeListener(storeListener);
+        DbExecutor.cancelAll(this);
+        super.dispose();
+    }
+    
     private void createSidebar() {
         sidebarPanel = new JPanel();
         sidebarPanel.setLayout(new BoxLayout(sidebarPanel, BoxLayout.Y_AXIS));
@@ -115,7 +170,7 @@ public class AdminPanel extends JFrame {
         booksBtn = createMenuButton("Books", "/assets/book.png");
         usersBtn = createMenuButton("Users", "/assets/user.png");
         ordersBtn = createMenuButton("Orders", "/assets/clipboard.png");
-//        reportsBtn = createMenuButton("Reports", "/assets/report.png");
+        reportsBtn = createMenuButton("Reports", "/assets/report.png");
         logoutBtn = createMenuButton("Logout", "/assets/logout.png");
 
         // Add components to sidebar
@@ -127,7 +182,7 @@ public class AdminPanel extends JFrame {
         sidebarPanel.add(createCenteredButtonPanel(booksBtn));
         sidebarPanel.add(createCenteredButtonPanel(usersBtn));
         sidebarPanel.add(createCenteredButtonPanel(ordersBtn));
-//        sidebarPanel.add(createCenteredButtonPanel(reportsBtn));
+        sidebarPanel.add(createCenteredButtonPanel(reportsBtn));
 
         sidebarPanel.add(Box.createVerticalGlue());
         sidebarPanel.add(createCenteredButtonPanel(logoutBtn));
@@ -222,7 +277,7 @@ public class AdminPanel extends JFrame {
     }
 
     private void resetButtonStyles() {
-        for (JButton button : new JButton[]{dashboardBtn, booksBtn, usersBtn, ordersBtn, logoutBtn}) {
+        for (JButton button : new JButton[]{dashboardBtn, booksBtn, usersBtn, ordersBtn, reportsBtn, logoutBtn}) {
             button.setBackground(SIDEBAR_COLOR);
             button.setForeground(TEXT_COLOR);
         }
@@ -336,62 +391,60 @@ public class AdminPanel extends JFrame {
         JPanel statsPanel = new JPanel(new GridLayout(1, 4, 15, 0));
         statsPanel.setBackground(CONTENT_BG);
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
-            
-            // Total Books
-            String bookQuery = "SELECT COUNT(*) FROM books";
-            ResultSet bookRs = stmt.executeQuery(bookQuery);
-            int totalBooks = 0;
-            if (bookRs.next()) {
-                totalBooks = bookRs.getInt(1);
-            }
-            
-            // Total Users
-            String userQuery = "SELECT COUNT(*) FROM users WHERE role_id = 1";
-            ResultSet userRs = stmt.executeQuery(userQuery);
-            int totalUsers = 0;
-            if (userRs.next()) {
-                totalUsers = userRs.getInt(1);
-            }
-            
-            // Total Orders
-            String orderQuery = "SELECT COUNT(*) FROM orders";
-            ResultSet orderRs = stmt.executeQuery(orderQuery);
-            int totalOrders = 0;
-            if (orderRs.next()) {
-                totalOrders = orderRs.getInt(1);
-            }
-            
-            // Total Revenue
-            String revenueQuery = "SELECT SUM(total_amount) FROM orders";
-            ResultSet revenueRs = stmt.executeQuery(revenueQuery);
-            double totalRevenue = 0;
-            if (revenueRs.next() && revenueRs.getObject(1) != null) {
-                totalRevenue = revenueRs.getDouble(1);
-            }
-            
-            // Create cards
-            statsPanel.add(createStatCard("Total Books", String.valueOf(totalBooks), new Color(41, 128, 185)));
-            statsPanel.add(createStatCard("Total Users", String.valueOf(totalUsers), new Color(46, 204, 113)));
-            statsPanel.add(createStatCard("Total Orders", String.valueOf(totalOrders), new Color(155, 89, 182)));
-            statsPanel.add(createStatCard("Total Revenue", String.format("$%.2f", totalRevenue), new Color(230, 126, 34)));
-            
-        } catch (SQLException e) {
+        // Placeholder values until the counts arrive from the background query
+        statsPanel.add(createStatCard("Total Books", 0, new Color(41, 128, 185)));
+        statsPanel.add(createStatCard("Total Users", 1, new Color(46, 204, 113)));
+        statsPanel.add(createStatCard("Total Orders", 2, new Color(155, 89, 182)));
+        statsPanel.add(createStatCard("Total Revenue", 3, new Color(230, 126, 34)));
+        loadStats();
+        
+        return statsPanel;
+    }
+    
+    // Re-reads the counters and updates the card values in place
+    private void loadStats() {
+        DbExecutor.submit(this, this::queryStats, totals -> {
+            stats = totals;
+            showStats();
+        }, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error loading statistics: " + e.getMessage());
             
-            // Create default cards in case of error
-            statsPanel.add(createStatCard("Total Books", "0", new Color(41, 128, 185)));
-            statsPanel.add(createStatCard("Total Users", "0", new Color(46, 204, 113)));
-            statsPanel.add(createStatCard("Total Orders", "0", new Color(155, 89, 182)));
-            statsPanel.add(createStatCard("Total Revenue", "$0.00", new Color(230, 126, 34)));
+            // Show zeros in case of error
+            setStatValues("0", "0", "0", "$0.00");
+        });
+    }
+    
+    // Runs on a database worker thread; returns books, users, orders, revenue
+    private Number[] queryStats() throws SQLException {
+        // Maintained counters, read by primary key
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return StoreStats.read(conn);
         }
-        
-        return statsPanel;
     }
     
-    private JPanel createStatCard(String title, String value, Color accentColor) {
+    // Patches the Books card without re-reading the totals, which could
+    // overwrite an order counted in place since the read was taken
+    private void adjustBookCount(int delta) {
+        if (stats != null) {
+            stats[0] = stats[0].intValue() + delta;
+            showStats();
+        }
+    }
+    
+    private void showStats() {
+        setStatValues(String.valueOf(stats[0]), String.valueOf(stats[1]),
+                String.valueOf(stats[2]), String.format("$%.2f", stats[3]));
+    }
+    
+    private void setStatValues(String books, String users, String orders, String revenue) {
+        statValueLabels[0].setText(books);
+        statValueLabels[1].setText(users);
+        statValueLabels[2].setText(orders);
+        statValueLabels[3].setText(revenue);
+    }
+    
+    private JPanel createStatCard(String title, int index, Color accentColor) {
         JPanel card = new JPanel();
         card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
         card.setBackground(CARD_BG);
@@ -411,7 +464,8 @@ public class AdminPanel extends JFrame {
         titleLabel.setForeground(new Color(100, 100, 100));
         titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
         
-        JLabel valueLabel = new JLabel(value);
+        JLabel valueLabel = new JLabel("...");
+        statValueLabels[index] = valueLabel;
         valueLabel.setFont(CARD_VALUE_FONT);
         valueLabel.setForeground(accentColor);
         valueLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
@@ -437,41 +491,14 @@ public class AdminPanel extends JFrame {
         titleLabel.setFont(CARD_TITLE_FONT);
         panel.add(titleLabel, BorderLayout.NORTH);
         
-        // Table model
-        String[] columns = {"Order ID", "User", "Date", "Amount", "Status"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        
-        // Populate with data
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT o.id, u.username, o.order_date, o.total_amount, o.status " +
-                     "FROM orders o JOIN users u ON o.user_id = u.id " +
-                     "ORDER BY o.order_date DESC LIMIT 10")) {
-            
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                Object[] row = {
-                    rs.getInt("id"),
-                    rs.getString("username"),
-                    new SimpleDateFormat("yyyy-MM-dd HH:mm").format(rs.getTimestamp("order_date")),
-                    String.format("$%.2f", rs.getDouble("total_amount")),
-                    rs.getString("status")
-                };
-                model.addRow(row);
-            }
-            
-        } catch (SQLException e) {
+        // Populate with data once it arrives; the table starts empty
+        DbExecutor.submit(this, () -> queryOrders(" LIMIT " + RECENT_ORDERS), recentOrdersModel::setOrders, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error loading recent orders: " + e.getMessage());
-        }
+        });
         
         // Create table
-        JTable table = new JTable(model);
+        JTable table = new JTable(recentOrdersModel);
         table.setRowHeight(30);
         table.setShowGrid(false);
         table.setIntercellSpacing(new Dimension(0, 0));
@@ -510,38 +537,13 @@ public class AdminPanel extends JFrame {
         mainPanel.setBackground(CONTENT_BG);
         mainPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         
-        // Create table
-        String[] columns = {"ID", "Title", "Author", "Category", "Price", "Stock"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        
-        // Populate with data
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT id, title, author, category, price, stock_quantity FROM books")) {
-            
-            while (rs.next()) {
-                Object[] row = {
-                    rs.getInt("id"),
-                    rs.getString("title"),
-                    rs.getString("author"),
-                    rs.getString("category"),
-                    String.format("$%.2f", rs.getDouble("price")),
-                    rs.getInt("stock_quantity")
-                };
-                model.addRow(row);
-            }
-            
-        } catch (SQLException e) {
+        // Populate with data once it arrives; the table starts empty
+        DbExecutor.submit(this, () -> BookCatalog.getInstance().getAllBooks(), booksModel::setBooks, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error loading books: " + e.getMessage());
-        }
+        });
         
-        JTable table = new JTable(model);
+        JTable table = new JTable(booksModel);
         table.setRowHeight(30);
         table.setShowGrid(false);
         table.setIntercellSpacing(new Dimension(0, 0));
@@ -617,29 +619,15 @@ public class AdminPanel extends JFrame {
             }
         };
         
-        // Populate with data
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT u.id, u.username, u.email, u.first_name, u.last_name, r.role_name, u.registration_date " +
-                     "FROM users u JOIN roles r ON u.role_id = r.role_id")) {
-            
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                Object[] row = {
-                    rs.getInt("id"),
-                    rs.getString("username"),
-                    rs.getString("email"),
-                    rs.getString("first_name") + " " + rs.getString("last_name"),
-                    rs.getString("role_name"),
-                    new SimpleDateFormat("yyyy-MM-dd").format(rs.getTimestamp("registration_date"))
-                };
+        // Populate with data once it arrives; the table starts empty
+        DbExecutor.submit(this, this::queryUsers, rows -> {
+            for (Object[] row : rows) {
                 model.addRow(row);
             }
-            
-        } catch (SQLException e) {
+        }, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error loading users: " + e.getMessage());
-        }
+        });
         
         JTable table = new JTable(model);
         table.setRowHeight(30);
@@ -656,6 +644,29 @@ public class AdminPanel extends JFrame {
         contentPanel.add(usersPanel);
     }
     
+    // Runs on a database worker thread; rows are ready for the users table
+    private java.util.List<Object[]> queryUsers() throws SQLException {
+        java.util.List<Object[]> rows = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT u.id, u.username, u.email, u.first_name, u.last_name, r.role_name, u.registration_date " +
+                     "FROM users u JOIN roles r ON u.role_id = r.role_id");
+             ResultSet rs = pstmt.executeQuery()) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+            while (rs.next()) {
+                rows.add(new Object[]{
+                    rs.getInt("id"),
+                    rs.getString("username"),
+                    rs.getString("email"),
+                    rs.getString("first_name") + " " + rs.getString("last_name"),
+                    rs.getString("role_name"),
+                    dateFormat.format(rs.getTimestamp("registration_date"))
+                });
+            }
+        }
+        return rows;
+    }
+    
     private void initializeOrdersPanel() {
         ordersPanel = new JPanel(new BorderLayout());
         ordersPanel.setBackground(CONTENT_BG);
@@ -667,41 +678,13 @@ public class AdminPanel extends JFrame {
         placeholderPanel.setBackground(CONTENT_BG);
         placeholderPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         
-        // Create order table
-        String[] columns = {"Order ID", "User", "Date", "Amount", "Status", "Actions"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        
-        // Populate with data
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT o.id, u.username, o.order_date, o.total_amount, o.status " +
-                     "FROM orders o JOIN users u ON o.user_id = u.id " +
-                     "ORDER BY o.order_date DESC")) {
-            
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                Object[] row = {
-                    rs.getInt("id"),
-                    rs.getString("username"),
-                    new SimpleDateFormat("yyyy-MM-dd HH:mm").format(rs.getTimestamp("order_date")),
-                    String.format("$%.2f", rs.getDouble("total_amount")),
-                    rs.getString("status"),
-                    "View Details"
-                };
-                model.addRow(row);
-            }
-            
-        } catch (SQLException e) {
+        // Populate with data once it arrives; the table starts empty
+        DbExecutor.submit(this, () -> queryOrders(""), ordersModel::setOrders, e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Error loading orders: " + e.getMessage());
-        }
+        });
         
-        JTable table = new JTable(model);
+        JTable table = new JTable(ordersModel);
         table.setRowHeight(30);
         table.setShowGrid(false);
         table.setIntercellSpacing(new Dimension(0, 0));
@@ -720,6 +703,55 @@ public class AdminPanel extends JFrame {
         contentPanel.add(ordersPanel);
     }
     
+    // Newest first; limitClause is "" or " LIMIT n"
+    private java.util.List<OrderTableModel.Order> queryOrders(String limitClause) throws SQLException {
+        java.util.List<OrderTableModel.Order> orders = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT o.id, u.username, o.order_date, o.total_amount, o.status " +
+                     "FROM orders o JOIN users u ON o.user_id = u.id " +
+                     "ORDER BY o.order_date DESC" + limitClause);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                orders.add(readOrder(rs));
+            }
+        }
+        return orders;
+    }
+    
+    // Reads one new order and puts it on top of both order tables
+    private void addOrderRow(int orderId) {
+        DbExecutor.submit(this, () -> queryOrder(orderId), order -> {
+            if (order != null) {
+                recentOrdersModel.addOrder(order, RECENT_ORDERS);
+                ordersModel.addOrder(order, 0);
+            }
+        }, e -> e.printStackTrace());
+    }
+    
+    // Runs on a database worker thread; null if the order is gone
+    private OrderTableModel.Order queryOrder(int orderId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT o.id, u.username, o.order_date, o.total_amount, o.status " +
+                     "FROM orders o JOIN users u ON o.user_id = u.id WHERE o.id = ?")) {
+            pstmt.setInt(1, orderId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? readOrder(rs) : null;
+            }
+        }
+    }
+    
+    private static OrderTableModel.Order readOrder(ResultSet rs) throws SQLException {
+        return new OrderTableModel.Order(
+            rs.getInt("id"),
+            rs.getString("username"),
+            rs.getTimestamp("order_date"),
+            rs.getBigDecimal("total_amount"),
+            rs.getString("status")
+        );
+    }
+    
     private void initializeReportsPanel() {
         reportsPanel = new JPanel(new BorderLayout());
         reportsPanel.setBackground(CONTENT_BG);
@@ -757,6 +789,8 @@ public class AdminPanel extends JFrame {
             
             JButton generateBtn = new JButton("Generate");
             generateBtn.setFocusPainted(false);
+            ReportEngine.Report report = ReportEngine.Report.forTitle(reportType);
+            generateBtn.addActionListener(e -> new ReportViewer(this, report).setVisible(true));
             
             JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
             btnPanel.setBackground(CARD_BG);
@@ -782,70 +816,27 @@ public class AdminPanel extends JFrame {
         chartPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
         chartPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 300));
         
-        JLabel chartTitle = new JLabel("Monthly Sales Report");
+        JLabel chartTitle = new JLabel("Sales");
         chartTitle.setFont(CARD_TITLE_FONT);
         
-        // Sample chart placeholder (would be an actual chart in production)
-        JPanel chartPlaceholder = new JPanel() {
-            @Override
-            protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                Graphics2D g2d = (Graphics2D) g;
-                
-                // Set rendering hints for better quality
-                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                
-                int width = getWidth();
-                int height = getHeight();
-                int padding = 40;
-                
-                // Draw axis
-                g2d.setColor(Color.BLACK);
-                g2d.drawLine(padding, height - padding, width - padding, height - padding); // X-axis
-                g2d.drawLine(padding, padding, padding, height - padding); // Y-axis
-                
-                // Get monthly sales data from database
-                Map<String, Double> monthlySales = getMonthlyOrderTotals();
-                
-                if (!monthlySales.isEmpty()) {
-                    // Draw bar chart
-                    int barWidth = (width - 2 * padding) / monthlySales.size() - 10;
-                    int x = padding + 10;
-                    double maxSale = monthlySales.values().stream().mapToDouble(v -> v).max().orElse(1000.0);
-                    
-                    int i = 0;
-                    for (Map.Entry<String, Double> entry : monthlySales.entrySet()) {
-                        int barHeight = (int) ((entry.getValue() / maxSale) * (height - 2 * padding));
-                        
-                        // Draw bar
-                        g2d.setColor(new Color(41, 128, 185, 180));
-                        g2d.fillRect(x, height - padding - barHeight, barWidth, barHeight);
-                        g2d.setColor(new Color(41, 128, 185));
-                        g2d.drawRect(x, height - padding - barHeight, barWidth, barHeight);
-                        
-                        // Draw month label
-                        g2d.setColor(Color.BLACK);
-                        g2d.drawString(entry.getKey(), x, height - padding + 15);
-                        
-                        // Draw value
-                        g2d.drawString(String.format("$%.0f", entry.getValue()), x, height - padding - barHeight - 5);
-                        
-                        x += barWidth + 10;
-                        i++;
-                    }
-                } else {
-                    // No data message
-                    g2d.setColor(Color.GRAY);
-                    g2d.drawString("No sales data available", width / 2 - 60, height / 2);
-                }
-            }
-        };
+        // Rolling ranges over the sales_daily rollup
+        String[] ranges = {"Last 12 months", "Last 12 weeks", "Last 30 days", "Last 365 days"};
+        JComboBox<String> rangeCombo = new JComboBox<>(ranges);
         
-        chartPlaceholder.setPreferredSize(new Dimension(0, 200));
-        chartPlaceholder.setBackground(Color.WHITE);
+        JPanel chartHeader = new JPanel(new BorderLayout());
+        chartHeader.setBackground(CARD_BG);
+        chartHeader.add(chartTitle, BorderLayout.WEST);
+        chartHeader.add(rangeCombo, BorderLayout.EAST);
         
-        chartPanel.add(chartTitle, BorderLayout.NORTH);
-        chartPanel.add(chartPlaceholder, BorderLayout.CENTER);
+        // Rendered once per data or size change, not on every repaint
+        SalesChart salesChart = new SalesChart();
+        salesChart.setPreferredSize(new Dimension(0, 200));
+        
+        chartPanel.add(chartHeader, BorderLayout.NORTH);
+        chartPanel.add(salesChart, BorderLayout.CENTER);
+        
+        rangeCombo.addActionListener(e -> loadSalesSeries(rangeCombo.getSelectedIndex(), salesChart));
+        loadSalesSeries(0, salesChart);
         
         mainPanel.add(chartPanel);
         
@@ -864,31 +855,22 @@ public class AdminPanel extends JFrame {
         activityTitle.setFont(CARD_TITLE_FONT);
         
         DefaultListModel<String> activityModel = new DefaultListModel<>();
+        activityModel.addElement("Loading activity...");
         
         // Get audit trail data from database
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT u.username, at.trail_activity, at.trail_date " +
-                     "FROM audit_trail at JOIN users u ON at.user_id = u.id " +
-                     "ORDER BY at.trail_date DESC LIMIT 10")) {
-            
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                do {
-                    String username = rs.getString("username");
-                    String activity = rs.getString("trail_activity");
-                    String date = new SimpleDateFormat("yyyy-MM-dd HH:mm").format(rs.getTimestamp("trail_date"));
-                    
-                    activityModel.addElement(date + " - " + username + " " + activity);
-                } while (rs.next());
-            } else {
+        DbExecutor.submit(this, this::queryRecentActivity, entries -> {
+            activityModel.clear();
+            if (entries.isEmpty()) {
                 activityModel.addElement("No recent activity");
             }
-            
-        } catch (SQLException e) {
+            for (String entry : entries) {
+                activityModel.addElement(entry);
+            }
+        }, e -> {
             e.printStackTrace();
+            activityModel.clear();
             activityModel.addElement("Error loading activity data");
-        }
+        });
         
         JList<String> activityList = new JList<>(activityModel);
         activityList.setFont(new Font("Segoe UI", Font.PLAIN, 12));
@@ -910,38 +892,91 @@ public class AdminPanel extends JFrame {
         contentPanel.add(reportsPanel);
     }
     
-    private Map<String, Double> getMonthlyOrderTotals() {
-        Map<String, Double> monthlySales = new LinkedHashMap<>();
-        String[] months = {"Jan", "Feb", "Mar", "Apr", "May"};
-        
+    // Runs on a database worker thread; the last ten audit trail entries
+    private java.util.List<String> queryRecentActivity() throws SQLException {
+        java.util.List<String> entries = new ArrayList<>();
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT MONTH(order_date) as month, SUM(total_amount) as total " +
-                     "FROM orders " +
-                     "WHERE order_date >= DATE_SUB(CURDATE(), INTERVAL 5 MONTH) " +
-                     "GROUP BY MONTH(order_date) " +
-                     "ORDER BY month")) {
-            
-            ResultSet rs = pstmt.executeQuery();
-            
-            // Initialize with zero values
-            for (String month : months) {
-                monthlySales.put(month, 0.0);
-            }
-            
-            // Fill with actual data
+                     "SELECT u.username, at.trail_activity, at.trail_date " +
+                     "FROM audit_trail at JOIN users u ON at.user_id = u.id " +
+                     "ORDER BY at.trail_date DESC LIMIT 10");
+             ResultSet rs = pstmt.executeQuery()) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
             while (rs.next()) {
-                int monthNum = rs.getInt("month") - 1; // 0-based index
-                if (monthNum < months.length) {
-                    monthlySales.put(months[monthNum], rs.getDouble("total"));
-                }
+                String username = rs.getString("username");
+                String activity = rs.getString("trail_activity");
+                String date = dateFormat.format(rs.getTimestamp("trail_date"));
+                
+                entries.add(date + " - " + username + " " + activity);
             }
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
+        }
+        return entries;
+    }
+    
+    // Two range reads over sales_daily: the selected period and the one before
+    // it, drawn as a line for comparison
+    private void loadSalesSeries(int rangeIndex, SalesChart chart) {
+        SalesSeries.Granularity granularity;
+        int buckets;
+        LocalDate today = LocalDate.now();
+        LocalDate previousEnd;
+        switch (rangeIndex) {
+            case 1:
+                granularity = SalesSeries.Granularity.WEEK;
+                buckets = 12;
+                previousEnd = today.minusWeeks(12);
+                break;
+            case 2:
+                granularity = SalesSeries.Granularity.DAY;
+                buckets = 30;
+                previousEnd = today.minusDays(30);
+                break;
+            case 3:
+                granularity = SalesSeries.Granularity.DAY;
+                buckets = 365;
+                previousEnd = today.minusDays(365);
+                break;
+            default:
+                granularity = SalesSeries.Granularity.MONTH;
+                buckets = 12;
+                previousEnd = today.minusYears(1);
+                break;
         }
         
-        return monthlySales;
+        // A newer range supersedes whatever is still loading, so a slow earlier
+        // query can't overwrite the chart after it
+        if (salesJob != null) {
+            salesJob.cancel();
+        }
+        chart.setMessage("Loading sales data...");
+        salesJob = DbExecutor.submit(this, () -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                java.util.List<java.util.List<SalesSeries.Bucket>> periods = new ArrayList<>();
+                periods.add(SalesSeries.rolling(conn, granularity, buckets, today));
+                periods.add(SalesSeries.rolling(conn, granularity, buckets, previousEnd));
+                return periods;
+            }
+        }, periods -> {
+            java.util.List<SalesSeries.Bucket> current = periods.get(0);
+            java.util.List<SalesSeries.Bucket> previous = periods.get(1);
+            String[] labels = new String[current.size()];
+            double[] revenue = new double[current.size()];
+            double[] previousRevenue = new double[previous.size()];
+            for (int i = 0; i < current.size(); i++) {
+                labels[i] = current.get(i).getLabel();
+                revenue[i] = current.get(i).getRevenue().doubleValue();
+            }
+            for (int i = 0; i < previous.size(); i++) {
+                previousRevenue[i] = previous.get(i).getRevenue().doubleValue();
+            }
+            java.util.List<SalesChart.Series> series = new ArrayList<>();
+            series.add(new SalesChart.Series("This period", new Color(41, 128, 185), revenue));
+            series.add(new SalesChart.Series("Previous period", new Color(230, 126, 34), previousRevenue));
+            chart.setData(labels, series);
+        }, e -> {
+            e.printStackTrace();
+            chart.setMessage("No sales data available");
+        });
     }
     
     // Button renderer for JTable
@@ -986,6 +1021,74 @@ public class AdminPanel extends JFrame {
     }
     
     private void showOrderDetails(int orderId) {
+        // Fetch the order off the EDT, then build the dialog once the data is in
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        DbExecutor.submit(this, () -> queryOrderDetails(orderId), details -> {
+            setCursor(Cursor.getDefaultCursor());
+            buildOrderDetailsDialog(orderId, details);
+        }, e -> {
+            setCursor(Cursor.getDefaultCursor());
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Error loading order details: " + e.getMessage());
+        });
+    }
+    
+    // Everything the order details dialog shows; info is null if the order is gone
+    private static class OrderDetails {
+        private Object[] info;
+        private final java.util.List<Object[]> items = new ArrayList<>();
+    }
+    
+    // Runs on a database worker thread
+    private OrderDetails queryOrderDetails(int orderId) throws SQLException {
+        OrderDetails details = new OrderDetails();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT o.id, u.username, o.order_date, o.total_amount, o.status, " +
+                     "o.shipping_address, o.payment_method, u.first_name, u.last_name, u.email, u.phone " +
+                     "FROM orders o JOIN users u ON o.user_id = u.id " +
+                     "WHERE o.id = ?")) {
+                pstmt.setInt(1, orderId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        details.info = new Object[]{
+                            new SimpleDateFormat("yyyy-MM-dd HH:mm").format(rs.getTimestamp("order_date")),
+                            rs.getString("first_name") + " " + rs.getString("last_name"),
+                            rs.getString("email"),
+                            rs.getString("phone"),
+                            rs.getDouble("total_amount"),
+                            rs.getString("status"),
+                            rs.getString("shipping_address"),
+                            rs.getString("payment_method")
+                        };
+                    }
+                }
+            }
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT oi.book_id, b.title, oi.price, oi.quantity " +
+                     "FROM order_items oi JOIN books b ON oi.book_id = b.id " +
+                     "WHERE oi.order_id = ?")) {
+                pstmt.setInt(1, orderId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        double price = rs.getDouble("price");
+                        int quantity = rs.getInt("quantity");
+                        details.items.add(new Object[]{
+                            rs.getInt("book_id"),
+                            rs.getString("title"),
+                            String.format("$%.2f", price),
+                            quantity,
+                            String.format("$%.2f", price * quantity)
+                        });
+                    }
+                }
+            }
+        }
+        return details;
+    }
+    
+    private void buildOrderDetailsDialog(int orderId, OrderDetails details) {
         JDialog dialog = new JDialog(this, "Order Details #" + orderId, true);
         dialog.setSize(700, 500);
         dialog.setLocationRelativeTo(this);
@@ -1003,81 +1106,76 @@ public class AdminPanel extends JFrame {
                 BorderFactory.createEmptyBorder(15, 15, 15, 15)
         ));
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT o.id, u.username, o.order_date, o.total_amount, o.status, " +
-                     "o.shipping_address, o.payment_method, u.first_name, u.last_name, u.email, u.phone " +
-                     "FROM orders o JOIN users u ON o.user_id = u.id " +
-                     "WHERE o.id = ?")) {
-
-            pstmt.setInt(1, orderId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                // Order details
-                String date = new SimpleDateFormat("yyyy-MM-dd HH:mm").format(rs.getTimestamp("order_date"));
-                String customerName = rs.getString("first_name") + " " + rs.getString("last_name");
-                String email = rs.getString("email");
-                String phone = rs.getString("phone");
-                double totalAmount = rs.getDouble("total_amount");
-                String status = rs.getString("status");
-                String shippingAddress = rs.getString("shipping_address");
-                String paymentMethod = rs.getString("payment_method");
-
-                // Add order information
-                orderInfoPanel.add(createInfoLabel("Order Date:"));
-                orderInfoPanel.add(createInfoValue(date));
-
-                orderInfoPanel.add(createInfoLabel("Customer:"));
-                orderInfoPanel.add(createInfoValue(customerName));
-
-                orderInfoPanel.add(createInfoLabel("Email:"));
-                orderInfoPanel.add(createInfoValue(email));
-
-                orderInfoPanel.add(createInfoLabel("Phone:"));
-                orderInfoPanel.add(createInfoValue(phone));
-
-                orderInfoPanel.add(createInfoLabel("Status:"));
-
-                // Status combo box for updating
-                JPanel statusPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
-                statusPanel.setBackground(CARD_BG);
-                String[] statuses = {"Pending", "Processing", "Shipped", "Delivered", "Cancelled"};
-                JComboBox<String> statusCombo = new JComboBox<>(statuses);
-                statusCombo.setSelectedItem(status);
-
-                JButton updateStatusBtn = new JButton("Update");
-                updateStatusBtn.addActionListener(e -> {
-                    String newStatus = (String) statusCombo.getSelectedItem();
-                    updateOrderStatus(orderId, newStatus);
+        if (details.info != null) {
+            // Order details
+            String date = (String) details.info[0];
+            String customerName = (String) details.info[1];
+            String email = (String) details.info[2];
+            String phone = (String) details.info[3];
+            double totalAmount = (Double) details.info[4];
+            String status = (String) details.info[5];
+            String shippingAddress = (String) details.info[6];
+            String paymentMethod = (String) details.info[7];
+
+            // Add order information
+            orderInfoPanel.add(createInfoLabel("Order Date:"));
+            orderInfoPanel.add(createInfoValue(date));
+
+            orderInfoPanel.add(createInfoLabel("Customer:"));
+            orderInfoPanel.add(createInfoValue(customerName));
+
+            orderInfoPanel.add(createInfoLabel("Email:"));
+            orderInfoPanel.add(createInfoValue(email));
+
+            orderInfoPanel.add(createInfoLabel("Phone:"));
+            orderInfoPanel.add(createInfoValue(phone));
+
+            orderInfoPanel.add(createInfoLabel("Status:"));
+
+            // Status combo box for updating
+            JPanel statusPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+            statusPanel.setBackground(CARD_BG);
+            String[] statuses = {"Pending", "Processing", "Shipped", "Delivered", "Cancelled"};
+            JComboBox<String> statusCombo = new JComboBox<>(statuses);
+            statusCombo.setSelectedItem(status);
+
+            JButton updateStatusBtn = new JButton("Update");
+            updateStatusBtn.addActionListener(e -> {
+                String newStatus = (String) statusCombo.getSelectedItem();
+                updateStatusBtn.setEnabled(false);
+                DbExecutor.submit(dialog, () -> updateOrderStatus(orderId, newStatus), updated -> {
+                    if (!updated) {
+                        updateStatusBtn.setEnabled(true);
+                        JOptionPane.showMessageDialog(dialog, "Order #" + orderId + " no longer exists.");
+                        return;
+                    }
                     JOptionPane.showMessageDialog(dialog, "Order status updated to: " + newStatus);
 
-                    // Refresh both orders panel and dashboard after status update
-                    refreshOrdersPanel();
-                    refreshDashboard();
+                    // Only that order's row changes; totals don't depend on status
+                    StoreEvents.fireOrderStatusChanged(orderId, newStatus);
 
                     // Close the dialog after updating
                     dialog.dispose();
+                }, ex -> {
+                    updateStatusBtn.setEnabled(true);
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(dialog, "Error updating order status: " + ex.getMessage());
                 });
+            });
 
-                statusPanel.add(statusCombo);
-                statusPanel.add(Box.createRigidArea(new Dimension(10, 0)));
-                statusPanel.add(updateStatusBtn);
-                orderInfoPanel.add(statusPanel);
+            statusPanel.add(statusCombo);
+            statusPanel.add(Box.createRigidArea(new Dimension(10, 0)));
+            statusPanel.add(updateStatusBtn);
+            orderInfoPanel.add(statusPanel);
 
-                orderInfoPanel.add(createInfoLabel("Total Amount:"));
-                orderInfoPanel.add(createInfoValue(String.format("$%.2f", totalAmount)));
+            orderInfoPanel.add(createInfoLabel("Total Amount:"));
+            orderInfoPanel.add(createInfoValue(String.format("$%.2f", totalAmount)));
 
-                orderInfoPanel.add(createInfoLabel("Shipping Address:"));
-                orderInfoPanel.add(createInfoValue(shippingAddress));
+            orderInfoPanel.add(createInfoLabel("Shipping Address:"));
+            orderInfoPanel.add(createInfoValue(shippingAddress));
 
-                orderInfoPanel.add(createInfoLabel("Payment Method:"));
-                orderInfoPanel.add(createInfoValue(paymentMethod));
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(dialog, "Error loading order details: " + e.getMessage());
+            orderInfoPanel.add(createInfoLabel("Payment Method:"));
+            orderInfoPanel.add(createInfoValue(paymentMethod));
         }
 
         // Order items table
@@ -1089,35 +1187,8 @@ public class AdminPanel extends JFrame {
             }
         };
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT oi.book_id, b.title, oi.price, oi.quantity " +
-                     "FROM order_items oi JOIN books b ON oi.book_id = b.id " +
-                     "WHERE oi.order_id = ?")) {
-
-            pstmt.setInt(1, orderId);
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                int bookId = rs.getInt("book_id");
-                String title = rs.getString("title");
-                double price = rs.getDouble("price");
-                int quantity = rs.getInt("quantity");
-                double subtotal = price * quantity;
-
-                Object[] row = {
-                    bookId,
-                    title,
-                    String.format("$%.2f", price),
-                    quantity,
-                    String.format("$%.2f", subtotal)
-                };
-                model.addRow(row);
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(dialog, "Error loading order items: " + e.getMessage());
+        for (Object[] row : details.items) {
+            model.addRow(row);
         }
 
         JTable itemsTable = new JTable(model);
@@ -1181,7 +1252,8 @@ public class AdminPanel extends JFrame {
         return label;
     }
     
-    private void updateOrderStatus(int orderId, String newStatus) {
+    // Runs on a database worker thread; returns whether the order was updated
+    private boolean updateOrderStatus(int orderId, String newStatus) throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(
                      "UPDATE orders SET status = ? WHERE id = ?")) {
@@ -1200,41 +1272,11 @@ public class AdminPanel extends JFrame {
                     auditStmt.executeUpdate();
                 }
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error updating order status: " + e.getMessage());
+            return rowsAffected > 0;
         }
     }
 
-    // Method to refresh orders panel data
-    private void refreshOrdersPanel() {
-        // Remove current panel
-        contentPanel.remove(ordersPanel);
-
-        // Reinitialize orders panel
-        initializeOrdersPanel();
-
-        // If orders panel is currently displayed, show it again
-        if (currentPanel == ordersPanel) {
-            showPanel(ordersPanel);
-        }
-    }
-
-    // Method to refresh dashboard data
-    private void refreshDashboard() {
-        // Remove current dashboard panel
-        contentPanel.remove(dashboardPanel);
-
-        // Reinitialize dashboard
-        initializeDashboard();
-
-        // If dashboard is currently displayed, show it again
-        if (currentPanel == dashboardPanel) {
-            showPanel(dashboardPanel);
-        }
-    }
-    
+    // Runs on a database worker thread
     private void addAuditTrail(String activity) {
         // In a real app, you would get the current user ID
         
@@ -1378,92 +1420,95 @@ public class AdminPanel extends JFrame {
                 return;
             }
             
-            // Handle file upload if a file was selected
-            String coverImageFileName = "";
-            if (selectedFile[0] != null) {
+            // Read the form on the EDT; the upload and insert run on a worker
+            String title = titleField.getText().trim();
+            String author = authorField.getText().trim();
+            String category = (String) categoryCombo.getSelectedItem();
+            String description = descArea.getText().trim();
+            double price = Double.parseDouble(priceField.getText().trim());
+            int stock = (Integer) stockSpinner.getValue();
+            String publisher = publisherField.getText().trim();
+            String isbn = isbnField.getText().trim();
+            File coverFile = selectedFile[0];
+            
+            java.sql.Date pubDate = null;
+            if (!pubDateField.getText().trim().isEmpty()) {
                 try {
-                    // Get the path to the assets package
-                    URL resourceUrl = getClass().getResource("/assets");
-                    String assetsPath;
-                    
-                    if (resourceUrl != null) {
-                        // Convert URL to File path
-                        assetsPath = new File(resourceUrl.toURI()).getPath();
-                    } else {
-                        // Assets directory doesn't exist in classpath, try to create it
-                        String basePath = new File(getClass().getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
-                        assetsPath = basePath + File.separator + "assets";
-                        File assetsDir = new File(assetsPath);
-                        if (!assetsDir.exists()) {
-                            assetsDir.mkdirs();
-                        }
-                    }
-                    
-                    // Generate a unique filename to avoid overwriting
-                    String originalFileName = selectedFile[0].getName();
-                    String fileExt = originalFileName.substring(originalFileName.lastIndexOf('.'));
-                    String uniqueFileName = UUID.randomUUID().toString() + fileExt;
-                    
-                    File destFile = new File(assetsPath, uniqueFileName);
-                    
-                    // Copy the file
-                    Files.copy(selectedFile[0].toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                    
-                    // Store only the filename
-                    coverImageFileName = uniqueFileName;
-                    
-                } catch (IOException | URISyntaxException ex) {
-                    ex.printStackTrace();
-                    JOptionPane.showMessageDialog(dialog, "Error uploading image: " + ex.getMessage());
+                    pubDate = java.sql.Date.valueOf(pubDateField.getText().trim());
+                } catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(dialog, "Invalid date format. Use YYYY-MM-DD format.");
                     return;
                 }
             }
+            final java.sql.Date publicationDate = pubDate;
             
-            // Save book to database
-            try (Connection conn = DatabaseConnection.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(
-                         "INSERT INTO books (title, author, category, description, price, cover_image, stock_quantity, publication_date, publisher, isbn) " +
-                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
-                
-                pstmt.setString(1, titleField.getText().trim());
-                pstmt.setString(2, authorField.getText().trim());
-                pstmt.setString(3, (String) categoryCombo.getSelectedItem());
-                pstmt.setString(4, descArea.getText().trim());
-                pstmt.setDouble(5, Double.parseDouble(priceField.getText().trim()));
-                pstmt.setString(6, coverImageFileName); // Store only the filename
-                pstmt.setInt(7, (Integer) stockSpinner.getValue());
-                
-                String pubDate = pubDateField.getText().trim();
-                if (pubDate.isEmpty()) {
-                    pstmt.setNull(8, java.sql.Types.DATE);
-                } else {
+            saveButton.setEnabled(false);
+            dialog.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            DbExecutor.submit(dialog, () -> {
+                // Handle file upload if a file was selected
+                String coverImageFileName = "";
+                if (coverFile != null) {
                     try {
-                        java.sql.Date sqlDate = java.sql.Date.valueOf(pubDate);
-                        pstmt.setDate(8, sqlDate);
-                    } catch (IllegalArgumentException ex) {
-                        JOptionPane.showMessageDialog(dialog, "Invalid date format. Use YYYY-MM-DD format.");
-                        return;
+                        // Copy into /assets under a unique name and pre-generate the cover sizes
+                        coverImageFileName = CoverThumbnails.storeUpload(coverFile);
+                    } catch (IOException | URISyntaxException ex) {
+                        throw new IOException("Error uploading image: " + ex.getMessage(), ex);
                     }
                 }
                 
-                pstmt.setString(9, publisherField.getText().trim());
-                pstmt.setString(10, isbnField.getText().trim());
-                
-                pstmt.executeUpdate();
-                
-                // Add audit trail entry
-                addAuditTrail("added a new book: " + titleField.getText().trim());
-                
+                // Save book to database
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement pstmt = conn.prepareStatement(
+                             "INSERT INTO books (title, author, category, description, price, cover_image, stock_quantity, publication_date, publisher, isbn) " +
+                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+                    
+                    pstmt.setString(1, title);
+                    pstmt.setString(2, author);
+                    pstmt.setString(3, category);
+                    pstmt.setString(4, description);
+                    pstmt.setDouble(5, price);
+                    pstmt.setString(6, coverImageFileName); // Store only the filename
+                    pstmt.setInt(7, stock);
+                    if (publicationDate == null) {
+                        pstmt.setNull(8, java.sql.Types.DATE);
+                    } else {
+                        pstmt.setDate(8, publicationDate);
+                    }
+                    pstmt.setString(9, publisher);
+                    pstmt.setString(10, isbn);
+                    
+                    pstmt.executeUpdate();
+                    
+                    // Keep the customer search index in step with the new row
+                    int newId = 0;
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            newId = keys.getInt(1);
+                            CatalogChanges.record(conn, newId, CatalogChanges.INSERT);
+                            StoreStats.booksChanged(conn, 1);
+                            BookCatalog.getInstance().invalidate(newId);
+                            CatalogIndex.getInstance().put(newId, title, author, description, category, isbn);
+                        }
+                    }
+                    SuggestionIndex.getInstance().invalidate();
+                    
+                    // Add audit trail entry
+                    addAuditTrail("added a new book: " + title);
+                    return newId;
+                }
+            }, newId -> {
+                if (newId > 0) {
+                    StoreEvents.fireBookChanged(newId);
+                }
                 JOptionPane.showMessageDialog(dialog, "Book added successfully!");
                 dialog.dispose();
-                
-                // Refresh books panel
-                refreshBooksPanel();
-                
-            } catch (SQLException ex) {
+            }, ex -> {
+                saveButton.setEnabled(true);
+                dialog.setCursor(Cursor.getDefaultCursor());
                 ex.printStackTrace();
-                JOptionPane.showMessageDialog(dialog, "Error adding book: " + ex.getMessage());
-            }
+                JOptionPane.showMessageDialog(dialog, ex instanceof IOException
+                        ? ex.getMessage() : "Error adding book: " + ex.getMessage());
+            });
         });
         
         buttonPanel.add(cancelButton);
@@ -1478,372 +1523,357 @@ public class AdminPanel extends JFrame {
     }
     
     private void showEditBookDialog(int bookId) {
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT * FROM books WHERE id = ?")) {
-            
-            pstmt.setInt(1, bookId);
-            ResultSet rs = pstmt.executeQuery();
+        // Read the row fresh on a worker, then build the dialog from it
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        DbExecutor.submit(this, () -> BookCatalog.getInstance().getDetails(bookId), book -> {
+            setCursor(Cursor.getDefaultCursor());
+            if (book == null) {
+                JOptionPane.showMessageDialog(this, "Book not found!");
+                return;
+            }
+            buildEditBookDialog(bookId, book).setVisible(true);
+        }, e -> {
+            setCursor(Cursor.getDefaultCursor());
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Error retrieving book details: " + e.getMessage());
+        });
+    }
+    
+    private JDialog buildEditBookDialog(int bookId, Book book) {
+        JDialog dialog = new JDialog(this, "Edit Book", true);
+        dialog.setSize(500, 600);
+        dialog.setLocationRelativeTo(this);
+        dialog.setLayout(new BorderLayout());
+        
+        JPanel formPanel = new JPanel();
+        formPanel.setLayout(new GridLayout(11, 2, 10, 10));
+        formPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        
+        // Title
+        JLabel titleLabel = new JLabel("Title:");
+        JTextField titleField = new JTextField(book.getTitle());
+        
+        // Author
+        JLabel authorLabel = new JLabel("Author:");
+        JTextField authorField = new JTextField(book.getAuthor());
+        
+        // Category
+        JLabel categoryLabel = new JLabel("Category:");
+        JTextField categoryField = new JTextField(book.getCategory());
+        
+        // Description
+        JLabel descLabel = new JLabel("Description:");
+        JTextArea descArea = new JTextArea(book.getDescription());
+        JScrollPane descScrollPane = new JScrollPane(descArea);
+        descArea.setLineWrap(true);
+        descArea.setWrapStyleWord(true);
+        
+        // Price
+        JLabel priceLabel = new JLabel("Price:");
+        JTextField priceField = new JTextField(String.valueOf(book.getPrice()));
+        
+        // Stock
+        JLabel stockLabel = new JLabel("Stock Quantity:");
+        JTextField stockField = new JTextField(String.valueOf(book.getStockQuantity()));
+        
+        // Publication Date
+        JLabel pubDateLabel = new JLabel("Publication Date (YYYY-MM-DD):");
+        JTextField pubDateField = new JTextField();
+        if (book.getPublicationDate() != null) {
+            pubDateField.setText(book.getPublicationDate().toString());
+        }
+        
+        // Publisher
+        JLabel publisherLabel = new JLabel("Publisher:");
+        JTextField publisherField = new JTextField(book.getPublisher());
+        
+        // ISBN
+        JLabel isbnLabel = new JLabel("ISBN:");
+        JTextField isbnField = new JTextField(book.getIsbn());
+        
+        // Cover Image
+        JLabel imageLabel = new JLabel("Cover Image:");
+        JTextField imageField = new JTextField(book.getCoverImage());
+        JButton browseButton = new JButton("Browse...");
+        JPanel imagePanel = new JPanel(new BorderLayout());
+        imagePanel.add(imageField, BorderLayout.CENTER);
+        imagePanel.add(browseButton, BorderLayout.EAST);
+        
+        // Add components to form
+        formPanel.add(titleLabel);
+        formPanel.add(titleField);
+        formPanel.add(authorLabel);
+        formPanel.add(authorField);
+        formPanel.add(categoryLabel);
+        formPanel.add(categoryField);
+        formPanel.add(descLabel);
+        formPanel.add(descScrollPane);
+        formPanel.add(priceLabel);
+        formPanel.add(priceField);
+        formPanel.add(stockLabel);
+        formPanel.add(stockField);
+        formPanel.add(pubDateLabel);
+        formPanel.add(pubDateField);
+        formPanel.add(publisherLabel);
+        formPanel.add(publisherField);
+        formPanel.add(isbnLabel);
+        formPanel.add(isbnField);
+        formPanel.add(imageLabel);
+        formPanel.add(imagePanel);
+        
+        // Button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton cancelButton = new JButton("Cancel");
+        JButton saveButton = new JButton("Save");
+        
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(saveButton);
+        
+        // Add panels to dialog
+        dialog.add(formPanel, BorderLayout.CENTER);
+        dialog.add(buttonPanel, BorderLayout.SOUTH);
+        
+        // Store the selected file for later use
+        final File[] selectedFile = new File[1];
+        String originalCoverImage = book.getCoverImage();
+        
+        // Browse button action
+        browseButton.addActionListener(e -> {
+            JFileChooser fileChooser = new JFileChooser();
+            FileNameExtensionFilter filter = new FileNameExtensionFilter(
+                    "Image Files", "jpg", "png", "jpeg", "gif");
+            fileChooser.setFileFilter(filter);
             
-            if (rs.next()) {
-                JDialog dialog = new JDialog(this, "Edit Book", true);
-                dialog.setSize(500, 600);
-                dialog.setLocationRelativeTo(this);
-                dialog.setLayout(new BorderLayout());
-                
-                JPanel formPanel = new JPanel();
-                formPanel.setLayout(new GridLayout(11, 2, 10, 10));
-                formPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
-                
-                // Title
-                JLabel titleLabel = new JLabel("Title:");
-                JTextField titleField = new JTextField(rs.getString("title"));
-                
-                // Author
-                JLabel authorLabel = new JLabel("Author:");
-                JTextField authorField = new JTextField(rs.getString("author"));
-                
-                // Category
-                JLabel categoryLabel = new JLabel("Category:");
-                JTextField categoryField = new JTextField(rs.getString("category"));
-                
-                // Description
-                JLabel descLabel = new JLabel("Description:");
-                JTextArea descArea = new JTextArea(rs.getString("description"));
-                JScrollPane descScrollPane = new JScrollPane(descArea);
-                descArea.setLineWrap(true);
-                descArea.setWrapStyleWord(true);
-                
-                // Price
-                JLabel priceLabel = new JLabel("Price:");
-                JTextField priceField = new JTextField(String.valueOf(rs.getDouble("price")));
-                
-                // Stock
-                JLabel stockLabel = new JLabel("Stock Quantity:");
-                JTextField stockField = new JTextField(String.valueOf(rs.getInt("stock_quantity")));
+            int result = fileChooser.showOpenDialog(dialog);
+            if (result == JFileChooser.APPROVE_OPTION) {
+                selectedFile[0] = fileChooser.getSelectedFile();
+                imageField.setText(selectedFile[0].getName());
+            }
+        });
+        
+        // Cancel button action
+        cancelButton.addActionListener(e -> dialog.dispose());
+        
+        // Save button action
+        saveButton.addActionListener(e -> {
+            // Validate input
+            if (titleField.getText().trim().isEmpty() || 
+                authorField.getText().trim().isEmpty() ||
+                priceField.getText().trim().isEmpty() ||
+                stockField.getText().trim().isEmpty()) {
                 
-                // Publication Date
-                JLabel pubDateLabel = new JLabel("Publication Date (YYYY-MM-DD):");
-                JTextField pubDateField = new JTextField();
-                if (rs.getDate("publication_date") != null) {
-                    pubDateField.setText(rs.getDate("publication_date").toString());
+                JOptionPane.showMessageDialog(dialog, 
+                    "Title, Author, Price, and Stock Quantity are required fields.", 
+                    "Validation Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
+            double price;
+            int stock;
+            
+            try {
+                price = Double.parseDouble(priceField.getText().trim());
+                if (price < 0) {
+                    JOptionPane.showMessageDialog(dialog, "Price cannot be negative.",
+                                                "Validation Error", JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(dialog, "Price must be a valid number.",
+                                            "Validation Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
+            try {
+                stock = Integer.parseInt(stockField.getText().trim());
+                if (stock < 0) {
+                    JOptionPane.showMessageDialog(dialog, "Stock quantity cannot be negative.",
+                                                "Validation Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(dialog, "Stock quantity must be a whole number.",
+                                            "Validation Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
+            // Handle date
+            java.sql.Date pubDate = null;
+            String pubDateStr = pubDateField.getText().trim();
+            if (!pubDateStr.isEmpty()) {
+                try {
+                    LocalDate date = LocalDate.parse(pubDateStr, DateTimeFormatter.ISO_DATE);
+                    pubDate = java.sql.Date.valueOf(date);
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(dialog, 
+                        "Invalid date format. Please use YYYY-MM-DD.", 
+                        "Validation Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+            }
+            final java.sql.Date publicationDate = pubDate;
+            
+            String title = titleField.getText().trim();
+            String author = authorField.getText().trim();
+            String category = categoryField.getText().trim();
+            String description = descArea.getText().trim();
+            String publisher = publisherField.getText().trim();
+            String isbn = isbnField.getText().trim();
+            File coverFile = selectedFile[0];
+            
+            saveButton.setEnabled(false);
+            dialog.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            DbExecutor.submit(dialog, () -> {
+                // Handle image upload if a new file is selected
+                String coverImageFileName = originalCoverImage;
                 
-                // Publisher
-                JLabel publisherLabel = new JLabel("Publisher:");
-                JTextField publisherField = new JTextField(rs.getString("publisher"));
-                
-                // ISBN
-                JLabel isbnLabel = new JLabel("ISBN:");
-                JTextField isbnField = new JTextField(rs.getString("isbn"));
-                
-                // Cover Image
-                JLabel imageLabel = new JLabel("Cover Image:");
-                JTextField imageField = new JTextField(rs.getString("cover_image"));
-                JButton browseButton = new JButton("Browse...");
-                JPanel imagePanel = new JPanel(new BorderLayout());
-                imagePanel.add(imageField, BorderLayout.CENTER);
-                imagePanel.add(browseButton, BorderLayout.EAST);
-                
-                // Add components to form
-                formPanel.add(titleLabel);
-                formPanel.add(titleField);
-                formPanel.add(authorLabel);
-                formPanel.add(authorField);
-                formPanel.add(categoryLabel);
-                formPanel.add(categoryField);
-                formPanel.add(descLabel);
-                formPanel.add(descScrollPane);
-                formPanel.add(priceLabel);
-                formPanel.add(priceField);
-                formPanel.add(stockLabel);
-                formPanel.add(stockField);
-                formPanel.add(pubDateLabel);
-                formPanel.add(pubDateField);
-                formPanel.add(publisherLabel);
-                formPanel.add(publisherField);
-                formPanel.add(isbnLabel);
-                formPanel.add(isbnField);
-                formPanel.add(imageLabel);
-                formPanel.add(imagePanel);
-                
-                // Button panel
-                JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-                JButton cancelButton = new JButton("Cancel");
-                JButton saveButton = new JButton("Save");
-                
-                buttonPanel.add(cancelButton);
-                buttonPanel.add(saveButton);
-                
-                // Add panels to dialog
-                dialog.add(formPanel, BorderLayout.CENTER);
-                dialog.add(buttonPanel, BorderLayout.SOUTH);
+                if (coverFile != null) {
+                    try {
+                        // Copy into /assets under a unique name and pre-generate the cover sizes
+                        coverImageFileName = CoverThumbnails.storeUpload(coverFile);
+                    } catch (IOException | URISyntaxException ex) {
+                        throw new IOException("Error uploading image: " + ex.getMessage(), ex);
+                    }
+                }
                 
-                // Store the selected file for later use
-                final File[] selectedFile = new File[1];
-                String originalCoverImage = rs.getString("cover_image");
+                // Prepare update query
+                String updateQuery = "UPDATE books SET title = ?, author = ?, category = ?, " +
+                                    "description = ?, price = ?, stock_quantity = ?, " +
+                                    "publication_date = ?, publisher = ?, isbn = ?, " +
+                                    "cover_image = ? WHERE id = ?";
                 
-                // Browse button action
-                browseButton.addActionListener(e -> {
-                    JFileChooser fileChooser = new JFileChooser();
-                    FileNameExtensionFilter filter = new FileNameExtensionFilter(
-                            "Image Files", "jpg", "png", "jpeg", "gif");
-                    fileChooser.setFileFilter(filter);
+                try (Connection updateConn = DatabaseConnection.getConnection();
+                     PreparedStatement updateStmt = updateConn.prepareStatement(updateQuery)) {
                     
-                    int result = fileChooser.showOpenDialog(dialog);
-                    if (result == JFileChooser.APPROVE_OPTION) {
-                        selectedFile[0] = fileChooser.getSelectedFile();
-                        imageField.setText(selectedFile[0].getName());
+                    updateStmt.setString(1, title);
+                    updateStmt.setString(2, author);
+                    updateStmt.setString(3, category);
+                    updateStmt.setString(4, description);
+                    updateStmt.setDouble(5, price);
+                    updateStmt.setInt(6, stock);
+                    if (publicationDate == null) {
+                        updateStmt.setNull(7, java.sql.Types.DATE);
+                    } else {
+                        updateStmt.setDate(7, publicationDate);
                     }
-                });
-                
-                // Cancel button action
-                cancelButton.addActionListener(e -> dialog.dispose());
-                
-                // Save button action
-                saveButton.addActionListener(e -> {
-                    try {
-                        // Validate input
-                        if (titleField.getText().trim().isEmpty() || 
-                            authorField.getText().trim().isEmpty() ||
-                            priceField.getText().trim().isEmpty() ||
-                            stockField.getText().trim().isEmpty()) {
-                            
-                            JOptionPane.showMessageDialog(dialog, 
-                                "Title, Author, Price, and Stock Quantity are required fields.", 
-                                "Validation Error", JOptionPane.ERROR_MESSAGE);
-                            return;
-                        }
-                        
-                        double price;
-                        int stock;
-                        
-                        try {
-                            price = Double.parseDouble(priceField.getText().trim());
-                            if (price < 0) {
-                                JOptionPane.showMessageDialog(dialog, "Price cannot be negative.",
-                                                            "Validation Error", JOptionPane.ERROR_MESSAGE);
-                                return;
-                            }
-                        } catch (NumberFormatException ex) {
-                            JOptionPane.showMessageDialog(dialog, "Price must be a valid number.",
-                                                        "Validation Error", JOptionPane.ERROR_MESSAGE);
-                            return;
-                        }
-                        
-                        try {
-                            stock = Integer.parseInt(stockField.getText().trim());
-                            if (stock < 0) {
-                                JOptionPane.showMessageDialog(dialog, "Stock quantity cannot be negative.",
-                                                            "Validation Error", JOptionPane.ERROR_MESSAGE);
-                                return;
-                            }
-                        } catch (NumberFormatException ex) {
-                            JOptionPane.showMessageDialog(dialog, "Stock quantity must be a whole number.",
-                                                        "Validation Error", JOptionPane.ERROR_MESSAGE);
-                            return;
-                        }
-                        
-                        // Handle image upload if a new file is selected
-                        String coverImageFileName = originalCoverImage;
-                        
-                        if (selectedFile[0] != null) {
-                            try {
-                                // Get the path to the assets package
-                                URL resourceUrl = getClass().getResource("/assets");
-                                String assetsPath;
-                                
-                                if (resourceUrl != null) {
-                                    // Convert URL to File path
-                                    assetsPath = new File(resourceUrl.toURI()).getPath();
-                                } else {
-                                    // Assets directory doesn't exist in classpath, try to create it
-                                    String basePath = new File(getClass().getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
-                                    assetsPath = basePath + File.separator + "assets";
-                                    File assetsDir = new File(assetsPath);
-                                    if (!assetsDir.exists()) {
-                                        assetsDir.mkdirs();
-                                    }
-                                }
-                                
-                                // Generate a unique filename to avoid overwriting
-                                String originalFileName = selectedFile[0].getName();
-                                String fileExt = originalFileName.substring(originalFileName.lastIndexOf('.'));
-                                String uniqueFileName = UUID.randomUUID().toString() + fileExt;
-                                
-                                File destFile = new File(assetsPath, uniqueFileName);
-                                
-                                // Copy the file
-                                Files.copy(selectedFile[0].toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                                
-                                // Store only the filename
-                                coverImageFileName = uniqueFileName;
-                                
-                            } catch (IOException | URISyntaxException ex) {
-                                ex.printStackTrace();
-                                JOptionPane.showMessageDialog(dialog, "Error uploading image: " + ex.getMessage());
-                                return;
-                            }
-                        }
-                        
-                        // Prepare update query
-                        String updateQuery = "UPDATE books SET title = ?, author = ?, category = ?, " +
-                                            "description = ?, price = ?, stock_quantity = ?, " +
-                                            "publication_date = ?, publisher = ?, isbn = ?, " +
-                                            "cover_image = ? WHERE id = ?";
-                        
-                        try (Connection updateConn = DatabaseConnection.getConnection();
-                             PreparedStatement updateStmt = updateConn.prepareStatement(updateQuery)) {
-                            
-                            updateStmt.setString(1, titleField.getText().trim());
-                            updateStmt.setString(2, authorField.getText().trim());
-                            updateStmt.setString(3, categoryField.getText().trim());
-                            updateStmt.setString(4, descArea.getText().trim());
-                            updateStmt.setDouble(5, price);
-                            updateStmt.setInt(6, stock);
-                            
-                            // Handle date
-                            String pubDateStr = pubDateField.getText().trim();
-                            if (pubDateStr.isEmpty()) {
-                                updateStmt.setNull(7, java.sql.Types.DATE);
-                            } else {
-                                try {
-                                    LocalDate date = LocalDate.parse(pubDateStr, DateTimeFormatter.ISO_DATE);
-                                    updateStmt.setDate(7, java.sql.Date.valueOf(date));
-                                } catch (Exception ex) {
-                                    JOptionPane.showMessageDialog(dialog, 
-                                        "Invalid date format. Please use YYYY-MM-DD.", 
-                                        "Validation Error", JOptionPane.ERROR_MESSAGE);
-                                    return;
-                                }
-                            }
-                            
-                            updateStmt.setString(8, publisherField.getText().trim());
-                            
-                            // Handle ISBN
-                            String isbn = isbnField.getText().trim();
-                            if (isbn.isEmpty()) {
-                                updateStmt.setNull(9, java.sql.Types.VARCHAR);
-                            } else {
-                                updateStmt.setString(9, isbn);
-                            }
-                            
-                            // Set cover image filename in database
-                            if (coverImageFileName == null || coverImageFileName.isEmpty()) {
-                                updateStmt.setNull(10, java.sql.Types.VARCHAR);
-                            } else {
-                                updateStmt.setString(10, coverImageFileName);
-                            }
-                            
-                            updateStmt.setInt(11, bookId);
-                            
-                            int rowsAffected = updateStmt.executeUpdate();
-                            
-                            if (rowsAffected > 0) {
-                                JOptionPane.showMessageDialog(dialog, "Book updated successfully!",
-                                                           "Success", JOptionPane.INFORMATION_MESSAGE);
-                                refreshBooksTable();
-                                dialog.dispose();
-                            } else {
-                                JOptionPane.showMessageDialog(dialog, "Failed to update book.",
-                                                           "Error", JOptionPane.ERROR_MESSAGE);
-                            }
-                        }
-                    } catch (SQLException ex) {
-                        ex.printStackTrace();
-                        JOptionPane.showMessageDialog(dialog, "Database error: " + ex.getMessage(),
-                                                   "Error", JOptionPane.ERROR_MESSAGE);
+                    
+                    updateStmt.setString(8, publisher);
+                    
+                    // Handle ISBN
+                    if (isbn.isEmpty()) {
+                        updateStmt.setNull(9, java.sql.Types.VARCHAR);
+                    } else {
+                        updateStmt.setString(9, isbn);
                     }
-                });
-                
-                dialog.setVisible(true);
-            } else {
-                JOptionPane.showMessageDialog(this, "Book not found!");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error retrieving book details: " + e.getMessage());
-        }
+                    
+                    // Set cover image filename in database
+                    if (coverImageFileName == null || coverImageFileName.isEmpty()) {
+                        updateStmt.setNull(10, java.sql.Types.VARCHAR);
+                    } else {
+                        updateStmt.setString(10, coverImageFileName);
+                    }
+                    
+                    updateStmt.setInt(11, bookId);
+                    
+                    int rowsAffected = updateStmt.executeUpdate();
+                    
+                    if (rowsAffected > 0) {
+                        CatalogChanges.record(updateConn, bookId, CatalogChanges.UPDATE);
+                        BookCatalog.getInstance().invalidate(bookId);
+                        CatalogIndex.getInstance().put(bookId, title, author, description, category, isbn);
+                        SuggestionIndex.getInstance().invalidate();
+                    }
+                    return rowsAffected > 0;
+                }
+            }, updated -> {
+                saveButton.setEnabled(true);
+                dialog.setCursor(Cursor.getDefaultCursor());
+                if (updated) {
+                    JOptionPane.showMessageDialog(dialog, "Book updated successfully!",
+                                               "Success", JOptionPane.INFORMATION_MESSAGE);
+                    StoreEvents.fireBookChanged(bookId);
+                    dialog.dispose();
+                } else {
+                    JOptionPane.showMessageDialog(dialog, "Failed to update book.",
+                                               "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, ex -> {
+                saveButton.setEnabled(true);
+                dialog.setCursor(Cursor.getDefaultCursor());
+                ex.printStackTrace();
+                JOptionPane.showMessageDialog(dialog, ex instanceof IOException
+                        ? ex.getMessage() : "Database error: " + ex.getMessage(),
+                                           "Error", JOptionPane.ERROR_MESSAGE);
+            });
+        });
+        
+        return dialog;
     }
     
     private void deleteBook(int bookId) {
-        // First check if the book exists and get its title for confirmation
-        String bookTitle = "";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement("SELECT title FROM books WHERE id = ?")) {
-            
-            pstmt.setInt(1, bookId);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                bookTitle = rs.getString("title");
-            } else {
+        // Look the book up and check its references off the EDT; the answer is
+        // {title, reason it can't be deleted or null}, or null if it's gone
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        DbExecutor.submit(this, () -> checkBookDeletable(bookId), check -> {
+            setCursor(Cursor.getDefaultCursor());
+            if (check == null) {
                 JOptionPane.showMessageDialog(this, "Book not found!", 
                                             "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-        } catch (SQLException e) {
+            if (check[1] != null) {
+                JOptionPane.showMessageDialog(this, check[1], 
+                                            "Cannot Delete Book", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            confirmDeleteBook(bookId, check[0]);
+        }, e -> {
+            setCursor(Cursor.getDefaultCursor());
             e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error retrieving book: " + e.getMessage(),
+            JOptionPane.showMessageDialog(this, "Error checking book references: " + e.getMessage(),
                                         "Database Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        // Check if book is associated with any orders or in cart
-        boolean isInUse = false;
-        String errorMessage = "";
-        
+        });
+    }
+    
+    // Runs on a database worker thread
+    private String[] checkBookDeletable(int bookId) throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection()) {
-            // Check order_items
-            try (PreparedStatement pstmt = conn.prepareStatement(
-                    "SELECT COUNT(*) FROM order_items WHERE book_id = ?")) {
+            // First check if the book exists and get its title for confirmation
+            String bookTitle;
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT title FROM books WHERE id = ?")) {
                 pstmt.setInt(1, bookId);
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next() && rs.getInt(1) > 0) {
-                    isInUse = true;
-                    errorMessage = "This book is associated with existing orders and cannot be deleted.";
-                }
-            }
-            
-            // Check cart
-            if (!isInUse) {
-                try (PreparedStatement pstmt = conn.prepareStatement(
-                        "SELECT COUNT(*) FROM cart WHERE book_id = ?")) {
-                    pstmt.setInt(1, bookId);
-                    ResultSet rs = pstmt.executeQuery();
-                    if (rs.next() && rs.getInt(1) > 0) {
-                        isInUse = true;
-                        errorMessage = "This book is in customers' shopping carts and cannot be deleted.";
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
                     }
+                    bookTitle = rs.getString("title");
                 }
             }
             
-            // Check wishlist
-            if (!isInUse) {
-                try (PreparedStatement pstmt = conn.prepareStatement(
-                        "SELECT COUNT(*) FROM wishlist WHERE book_id = ?")) {
+            // Check if book is associated with any orders, carts or wishlists
+            String[][] references = {
+                {"SELECT COUNT(*) FROM order_items WHERE book_id = ?",
+                 "This book is associated with existing orders and cannot be deleted."},
+                {"SELECT COUNT(*) FROM cart WHERE book_id = ?",
+                 "This book is in customers' shopping carts and cannot be deleted."},
+                {"SELECT COUNT(*) FROM wishlist WHERE book_id = ?",
+                 "This book is in customers' wishlists and cannot be deleted."}
+            };
+            for (String[] reference : references) {
+                try (PreparedStatement pstmt = conn.prepareStatement(reference[0])) {
                     pstmt.setInt(1, bookId);
-                    ResultSet rs = pstmt.executeQuery();
-                    if (rs.next() && rs.getInt(1) > 0) {
-                        isInUse = true;
-                        errorMessage = "This book is in customers' wishlists and cannot be deleted.";
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next() && rs.getInt(1) > 0) {
+                            return new String[]{bookTitle, reference[1]};
+                        }
                     }
                 }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error checking book references: " + e.getMessage(),
-                                        "Database Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        if (isInUse) {
-            JOptionPane.showMessageDialog(this, errorMessage, 
-                                        "Cannot Delete Book", JOptionPane.WARNING_MESSAGE);
-            return;
+            return new String[]{bookTitle, null};
         }
-        
+    }
+    
+    private void confirmDeleteBook(int bookId, String bookTitle) {
         // Confirm deletion
         int confirm = JOptionPane.showConfirmDialog(
             this,
@@ -1853,7 +1883,12 @@ public class AdminPanel extends JFrame {
             JOptionPane.WARNING_MESSAGE
         );
         
-        if (confirm == JOptionPane.YES_OPTION) {
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+        
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        DbExecutor.submit(this, () -> {
             try (Connection conn = DatabaseConnection.getConnection();
                  PreparedStatement pstmt = conn.prepareStatement("DELETE FROM books WHERE id = ?")) {
                 
@@ -1861,77 +1896,46 @@ public class AdminPanel extends JFrame {
                 int rowsAffected = pstmt.executeUpdate();
                 
                 if (rowsAffected > 0) {
-                    JOptionPane.showMessageDialog(this, 
-                                                "Book \"" + bookTitle + "\" has been deleted.",
-                                                "Success", JOptionPane.INFORMATION_MESSAGE);
-                    refreshBooksTable();
-                } else {
-                    JOptionPane.showMessageDialog(this, 
-                                                "Failed to delete book.",
-                                                "Error", JOptionPane.ERROR_MESSAGE);
+                    CatalogChanges.record(conn, bookId, CatalogChanges.DELETE);
+                    StoreStats.booksChanged(conn, -1);
+                    BookCatalog.getInstance().invalidate(bookId);
+                    CatalogIndex.getInstance().remove(bookId);
+                    SuggestionIndex.getInstance().invalidate();
                 }
-            } catch (SQLException e) {
-                e.printStackTrace();
+                return rowsAffected > 0;
+            }
+        }, deleted -> {
+            setCursor(Cursor.getDefaultCursor());
+            if (deleted) {
                 JOptionPane.showMessageDialog(this, 
-                                            "Error deleting book: " + e.getMessage(),
-                                            "Database Error", JOptionPane.ERROR_MESSAGE);
+                                            "Book \"" + bookTitle + "\" has been deleted.",
+                                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                StoreEvents.fireBookRemoved(bookId);
+            } else {
+                JOptionPane.showMessageDialog(this, 
+                                            "Failed to delete book.",
+                                            "Error", JOptionPane.ERROR_MESSAGE);
             }
-        }
+        }, e -> {
+            setCursor(Cursor.getDefaultCursor());
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, 
+                                        "Error deleting book: " + e.getMessage(),
+                                        "Database Error", JOptionPane.ERROR_MESSAGE);
+        });
     }
     
-    // Helper method to refresh the books table after changes
-    private void refreshBooksTable() {
-        // Get the table model from the books panel
-        JTable table = null;
-        DefaultTableModel model = null;
-        
-        // Find the table component in the books panel
-        for (Component c : booksPanel.getComponents()) {
-            if (c instanceof JPanel) {
-                JPanel panel = (JPanel) c;
-                for (Component inner : panel.getComponents()) {
-                    if (inner instanceof JScrollPane) {
-                        JScrollPane scrollPane = (JScrollPane) inner;
-                        if (scrollPane.getViewport().getView() instanceof JTable) {
-                            table = (JTable) scrollPane.getViewport().getView();
-                            model = (DefaultTableModel) table.getModel();
-                            break;
-                        }
-                    }
+    // Re-reads one book into its table row; a newly added book also changes the book count
+    private void reloadBookRow(int bookId) {
+        DbExecutor.submit(this, () -> BookCatalog.getInstance().get(bookId), book -> {
+            if (book == null) {
+                if (booksModel.removeBook(bookId)) {
+                    adjustBookCount(-1);
                 }
+            } else if (booksModel.putBook(book)) {
+                adjustBookCount(1);
             }
-            if (model != null) break;
-        }
-        
-        if (model == null) {
-            JOptionPane.showMessageDialog(this, "Could not find books table to refresh.");
-            return;
-        }
-        
-        // Clear existing data
-        model.setRowCount(0);
-        
-        // Reload data from database
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT id, title, author, category, price, stock_quantity FROM books")) {
-            
-            while (rs.next()) {
-                Object[] row = {
-                    rs.getInt("id"),
-                    rs.getString("title"),
-                    rs.getString("author"),
-                    rs.getString("category"),
-                    String.format("$%.2f", rs.getDouble("price")),
-                    rs.getInt("stock_quantity")
-                };
-                model.addRow(row);
-            }
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error reloading books: " + e.getMessage());
-        }
+        }, Throwable::printStackTrace);
     }
     
     private JPanel createFormRow(JLabel label, JComponent field) {
@@ -1951,17 +1955,6 @@ public class AdminPanel extends JFrame {
         return panel;
     }
     
-    private void refreshBooksPanel() {
-        // Re-initialize the books panel to refresh the data
-        contentPanel.remove(booksPanel);
-        initializeBooksPanel();
-        
-        // If currently viewing books panel, show the updated one
-        if (currentPanel == booksPanel) {
-            showPanel(booksPanel);
-        }
-    }
-    
     public static void main(String[] args) {
         try {
             // Set Nimbus look and feel
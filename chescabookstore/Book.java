@@ -0,0 +1,85 @@
+package chescabookstore;
+
+import java.time.LocalDate;
+
+// One row of the books table. Instances are shared across pages through
+// BookCatalog, so they are immutable; an edit produces a new Book.
+public final class Book {
+
+    private final int id;
+    private final String title;
+    private final String author;
+    private final String category;
+    private final String description;
+    private final double price;
+    private final String coverImage;
+    private final int stockQuantity;
+    private final LocalDate publicationDate;
+    private final String publisher;
+    private final String isbn;
+
+    public Book(int id, String title, String author, String category, String description, double price,
+                String coverImage, int stockQuantity, LocalDate publicationDate, String publisher, String isbn) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.category = category;
+        this.description = description;
+        this.price = price;
+        this.coverImage = coverImage;
+        this.stockQuantity = stockQuantity;
+        this.publicationDate = publicationDate;
+        this.publisher = publisher;
+        this.isbn = isbn;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public String getCoverImage() {
+        return coverImage;
+    }
+
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+
+    // Null when the publication date is unknown
+    public LocalDate getPublicationDate() {
+        return publicationDate;
+    }
+
+    public String getPublisher() {
+        return publisher;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    @Override
+    public String toString() {
+        return "Book[" + id + ", " + title + "]";
+    }
+}
@@ -0,0 +1,223 @@
+package chescabookstore;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Read-through cache of book rows keyed by id, shared by every page. Books
+// are loaded on first use and stay cached until something that changes the
+// row invalidates them: AdminPanel inserts, edits and deletes, and checkout's
+// stock updates. Other terminals can change books behind our back, so entries
+// also expire after -Dbookstore.catalog.ttlMs (default 5 minutes; 0 keeps
+// them until invalidated).
+//
+// Cached books are summaries: everything but the description, a TEXT column
+// that the grid, cart, wishlist and admin table never show. getDetails()
+// reads the full row for the few places that do.
+public final class BookCatalog {
+
+    private static final long TTL_MS = Long.getLong("bookstore.catalog.ttlMs", 5 * 60 * 1000L);
+    private static final String BOOK_COLUMNS = "id, title, author, category, price, cover_image, "
+            + "stock_quantity, publication_date, publisher, isbn";
+    // Ids per IN (...) query, to keep statements a sane size
+    private static final int BATCH_SIZE = 500;
+
+    private static final BookCatalog INSTANCE = new BookCatalog();
+
+    private final Instrumentation.Counter hits = Instrumentation.counter("catalog.cache.hits");
+    private final Instrumentation.Counter misses = Instrumentation.counter("catalog.cache.misses");
+    private final Instrumentation.Counter invalidations = Instrumentation.counter("catalog.cache.invalidations");
+
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    // Whether entries hold the whole table (after getAllBooks), and since when
+    private volatile boolean complete;
+    private volatile long completeAt;
+    // Ids invalidated since the table was loaded in full; reloaded on the next getAllBooks
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+
+    private BookCatalog() {
+        Instrumentation.gauge("catalog.cache.size", entries::size);
+    }
+
+    public static BookCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    // The book, or null if there is no such id
+    public Book get(int id) throws SQLException {
+        return getAll(new int[]{id}).get(id);
+    }
+
+    // The book with its description, always read from the database; null if
+    // there is no such id. Not cached, so callers see the row as it is now.
+    public Book getDetails(int id) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT " + BOOK_COLUMNS + ", description FROM books WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? readBook(rs, rs.getString("description")) : null;
+            }
+        }
+    }
+
+    // Books for the given ids; missing ids are simply absent from the map.
+    // Everything not cached is fetched in one query per batch.
+    public Map<Integer, Book> getAll(int[] ids) throws SQLException {
+        Map<Integer, Book> books = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int id : ids) {
+            Entry entry = entries.get(id);
+            if (entry != null && !entry.isExpired(now)) {
+                books.put(id, entry.book);
+                hits.increment();
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            misses.add(missing.size());
+            books.putAll(load(missing));
+        }
+        return books;
+    }
+
+    // Every book ordered by id. The first call loads the table; later calls
+    // only re-read rows invalidated since then, until the TTL runs out.
+    public List<Book> getAllBooks() throws SQLException {
+        long now = System.currentTimeMillis();
+        if (!complete || (TTL_MS > 0 && now - completeAt > TTL_MS)) {
+            loadEverything();
+        } else if (!dirty.isEmpty()) {
+            List<Integer> ids = new ArrayList<>(dirty);
+            dirty.removeAll(ids);
+            load(ids);
+        }
+
+        List<Book> books = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            books.add(entry.book);
+        }
+        books.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        return books;
+    }
+
+    // Call after a book row is inserted, updated or deleted
+    public void invalidate(int id) {
+        entries.remove(id);
+        if (complete) {
+            dirty.add(id);
+        }
+        invalidations.increment();
+    }
+
+    public void invalidateAll(Collection<Integer> ids) {
+        for (int id : ids) {
+            invalidate(id);
+        }
+    }
+
+    public void clear() {
+        complete = false;
+        entries.clear();
+        dirty.clear();
+    }
+
+    // Fetches the given ids, caching what exists and dropping what no longer does
+    private Map<Integer, Book> load(List<Integer> ids) throws SQLException {
+        Map<Integer, Book> books = new HashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                List<Integer> batch = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+                StringBuilder query = new StringBuilder("SELECT " + BOOK_COLUMNS + " FROM books WHERE id IN (");
+                for (int i = 0; i < batch.size(); i++) {
+                    query.append(i == 0 ? "?" : ", ?");
+                }
+                query.append(")");
+
+                try (PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        stmt.setInt(i + 1, batch.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Book book = readBook(rs, null);
+                            books.put(book.getId(), book);
+                        }
+                    }
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        for (int id : new LinkedHashSet<>(ids)) {
+            Book book = books.get(id);
+            if (book != null) {
+                entries.put(id, new Entry(book, now));
+            } else {
+                entries.remove(id);
+            }
+        }
+        return books;
+    }
+
+    private synchronized void loadEverything() throws SQLException {
+        Map<Integer, Entry> loaded = new HashMap<>();
+        long now = System.currentTimeMillis();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT " + BOOK_COLUMNS + " FROM books");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                Book book = readBook(rs, null);
+                loaded.put(book.getId(), new Entry(book, now));
+            }
+        }
+        dirty.clear();
+        entries.keySet().retainAll(loaded.keySet());
+        entries.putAll(loaded);
+        completeAt = now;
+        complete = true;
+    }
+
+    private static Book readBook(ResultSet rs, String description) throws SQLException {
+        Date published = rs.getDate("publication_date");
+        return new Book(
+                rs.getInt("id"),
+                rs.getString("title"),
+                rs.getString("author"),
+                rs.getString("category"),
+                description,
+                rs.getDouble("price"),
+                rs.getString("cover_image"),
+                rs.getInt("stock_quantity"),
+                published != null ? published.toLocalDate() : null,
+                rs.getString("publisher"),
+                rs.getString("isbn"));
+    }
+
+    private static final class Entry {
+        final Book book;
+        final long loadedAt;
+
+        Entry(Book book, long loadedAt) {
+            this.book = book;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean isExpired(long now) {
+            return TTL_MS > 0 && now - loadedAt > TTL_MS;
+        }
+    }
+}
@@ -17,8 +17,8 @@ public class BookDetailsPage extends JFrame {
     private static final Color TEXT_COLOR = new Color(50, 50, 70);
     private static final Color LIGHT_TEXT_COLOR = new Color(100, 100, 120);
 
-    // Database connection
-    private Connection connection;
+    // Database session, closed when the window is disposed
+    private final DbSession session = new DbSession("BookDetailsPage");
     private int userId;
     private int bookId;
 
@@ -33,8 +33,7 @@ public class BookDetailsPage extends JFrame {
     private java.util.Date publicationDate; // Fully qualified name
     private int stockQuantity;
 
-    public BookDetailsPage(Connection connection, int userId, int bookId) {
-        this.connection = connection;
+    public BookDetailsPage(int userId, int bookId) {
         this.userId = userId;
         this.bookId = bookId;
 
@@ -43,44 +42,39 @@ public class BookDetailsPage extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setLocationRelativeTo(null);
 
-        // Load book data
-        loadBookData();
-
         // Set up UI
         setLayout(new BorderLayout());
         getContentPane().setBackground(BG_COLOR);
 
-        // Create content
-        createContent();
+        // Load book data; the content is built once it arrives
+        loadBookData();
     }
 
     private void loadBookData() {
-        try {
-            String query = "SELECT * FROM books WHERE id = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
-            statement.setInt(1, bookId);
-
-            ResultSet resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                title = resultSet.getString("title");
-                author = resultSet.getString("author");
-                price = resultSet.getDouble("price");
-                description = resultSet.getString("description");
-                coverImage = resultSet.getString("cover_image");
-                isbn = resultSet.getString("isbn");
-                publisher = resultSet.getString("publisher");
-                publicationDate = resultSet.getDate("publication_date");
-                stockQuantity = resultSet.getInt("stock_quantity");
+        LoadingPanel loadingPanel = new LoadingPanel("Loading book details...", BG_COLOR);
+        add(loadingPanel, BorderLayout.CENTER);
+
+        // The only page that shows the description, so it reads the full row
+        DbExecutor.submit(this, () -> BookCatalog.getInstance().getDetails(bookId), book -> {
+            if (book != null) {
+                title = book.getTitle();
+                author = book.getAuthor();
+                price = book.getPrice();
+                description = book.getDescription();
+                coverImage = book.getCoverImage();
+                isbn = book.getIsbn();
+                publisher = book.getPublisher();
+                publicationDate = book.getPublicationDate() != null ? java.sql.Date.valueOf(book.getPublicationDate()) : null;
+                stockQuantity = book.getStockQuantity();
             }
-
-            resultSet.close();
-            statement.close();
-
-        } catch (SQLException e) {
+            remove(loadingPanel);
+            createContent();
+            revalidate();
+            repaint();
+        }, e -> {
             JOptionPane.showMessageDialog(this, "Error loading book details: " + e.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
-        }
+        });
     }
 
     private void createContent() {
@@ -101,44 +95,17 @@ public class BookDetailsPage extends JFrame {
         imageContainer.setBackground(new Color(230, 230, 240)); // Gray background for container
         leftPanel.add(imageContainer, BorderLayout.CENTER);
 
-        // Book cover image
-        if (coverImage != null && !coverImage.isEmpty()) {
-            try {
-                // Load and resize the image - LIMIT HEIGHT TO 350px MAX
-                ImageIcon originalIcon = new ImageIcon(getClass().getResource("/assets/" + coverImage));
-                Image originalImage = originalIcon.getImage();
-
-                // Calculate scaling to maintain aspect ratio and not exceed 250x350
-                int origWidth = originalImage.getWidth(null);
-                int origHeight = originalImage.getHeight(null);
-                double widthRatio = 250.0 / origWidth;
-                double heightRatio = 350.0 / origHeight;
-                double ratio = Math.min(widthRatio, heightRatio);
-
-                int scaledWidth = (int) (origWidth * ratio);
-                int scaledHeight = (int) (origHeight * ratio);
-
-                // Scale image maintaining aspect ratio
-                Image scaledImage = originalImage.getScaledInstance(scaledWidth, scaledHeight, Image.SCALE_SMOOTH);
-                ImageIcon finalIcon = new ImageIcon(scaledImage);
-
-                JLabel coverLabel = new JLabel(finalIcon);
-                coverLabel.setHorizontalAlignment(JLabel.CENTER);
-                imageContainer.add(coverLabel, BorderLayout.CENTER);
-            } catch (Exception e) {
-                // If image loading fails, show placeholder
-                JLabel noImageLabel = new JLabel("No Image");
-                noImageLabel.setForeground(new Color(150, 150, 150));
-                noImageLabel.setHorizontalAlignment(JLabel.CENTER);
-                imageContainer.add(noImageLabel, BorderLayout.CENTER);
+        // Book cover image, scaled to fit 250x350; "No Image" shows until it has been decoded
+        JLabel coverLabel = new JLabel("No Image");
+        coverLabel.setForeground(new Color(150, 150, 150));
+        coverLabel.setHorizontalAlignment(JLabel.CENTER);
+        imageContainer.add(coverLabel, BorderLayout.CENTER);
+        CoverLoader.load(this, coverImage, 250, 350, coverIcon -> {
+            if (coverIcon != null) {
+                coverLabel.setText(null);
+                coverLabel.setIcon(coverIcon);
             }
-        } else {
-            // Default placeholder when no image is available
-            JLabel noImageLabel = new JLabel("No Image");
-            noImageLabel.setForeground(new Color(150, 150, 150));
-            noImageLabel.setHorizontalAlignment(JLabel.CENTER);
-            imageContainer.add(noImageLabel, BorderLayout.CENTER);
-        }
+        });
 
         JPanel buttonPanel = new JPanel(new GridLayout(3, 1, 0, 10));
         buttonPanel.setBackground(BG_COLOR);
@@ -249,14 +216,14 @@ public class BookDetailsPage extends JFrame {
         addToCartButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                addToCart();
+                addToCart(addToCartButton);
             }
         });
 
         addToWishlistButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                addToWishlist();
+                addToWishlist(addToWishlistButton);
             }
         });
 
@@ -307,103 +274,78 @@ public class BookDetailsPage extends JFrame {
         });
     }
 
-    private void addToCart() {
-        try {
-            // Check if book is already in cart
-            String checkQuery = "SELECT * FROM cart WHERE user_id = ? AND book_id = ?";
-            PreparedStatement checkStatement = connection.prepareStatement(checkQuery);
-            checkStatement.setInt(1, userId);
-            checkStatement.setInt(2, bookId);
-
-            ResultSet resultSet = checkStatement.executeQuery();
-
-            if (resultSet.next()) {
-                // Book already in cart, update quantity
-                int currentQuantity = resultSet.getInt("quantity");
-
-                String updateQuery = "UPDATE cart SET quantity = ? WHERE user_id = ? AND book_id = ?";
-                PreparedStatement updateStatement = connection.prepareStatement(updateQuery);
-                updateStatement.setInt(1, currentQuantity + 1);
-                updateStatement.setInt(2, userId);
-                updateStatement.setInt(3, bookId);
-
-                updateStatement.executeUpdate();
-                updateStatement.close();
-
-                JOptionPane.showMessageDialog(this, "Item quantity updated in cart!", "Cart Updated", JOptionPane.INFORMATION_MESSAGE);
+    private void addToCart(JButton addToCartButton) {
+        // One upsert; a second add of the same book just bumps the quantity
+        addToCartButton.setEnabled(false);
+        DbExecutor.submit(this, () -> CartService.addToCart(session.getConnection(), userId, bookId), quantity -> {
+            addToCartButton.setEnabled(true);
+            if (quantity > 1) {
+                JOptionPane.showMessageDialog(this, "Item quantity updated in cart! (" + quantity + " in cart)", "Cart Updated", JOptionPane.INFORMATION_MESSAGE);
             } else {
-                // Book not in cart, add it
-                String insertQuery = "INSERT INTO cart (user_id, book_id, quantity) VALUES (?, ?, ?)";
-                PreparedStatement insertStatement = connection.prepareStatement(insertQuery);
-                insertStatement.setInt(1, userId);
-                insertStatement.setInt(2, bookId);
-                insertStatement.setInt(3, 1);
-
-                insertStatement.executeUpdate();
-                insertStatement.close();
-
                 JOptionPane.showMessageDialog(this, "Item added to cart!", "Cart Updated", JOptionPane.INFORMATION_MESSAGE);
             }
-
-            resultSet.close();
-            checkStatement.close();
-
-        } catch (SQLException e) {
+        }, e -> {
+            addToCartButton.setEnabled(true);
             JOptionPane.showMessageDialog(this, "Error adding to cart: " + e.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
-        }
+        });
     }
 
-    private void addToWishlist() {
-        try {
-            // Check if book is already in wishlist
-            String checkQuery = "SELECT * FROM wishlist WHERE user_id = ? AND book_id = ?";
-            PreparedStatement checkStatement = connection.prepareStatement(checkQuery);
-            checkStatement.setInt(1, userId);
-            checkStatement.setInt(2, bookId);
-
-            ResultSet resultSet = checkStatement.executeQuery();
-
-            if (resultSet.next()) {
-                JOptionPane.showMessageDialog(this, "This book is already in your wishlist!", "Wishlist", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                // Book not in wishlist, add it
-                String insertQuery = "INSERT INTO wishlist (user_id, book_id, date_added) VALUES (?, ?, ?)";
-                PreparedStatement insertStatement = connection.prepareStatement(insertQuery);
-                insertStatement.setInt(1, userId);
-                insertStatement.setInt(2, bookId);
-                insertStatement.setDate(3, new java.sql.Date(System.currentTimeMillis()));
-
-                insertStatement.executeUpdate();
-                insertStatement.close();
-
+    private void addToWishlist(JButton addToWishlistButton) {
+        addToWishlistButton.setEnabled(false);
+        DbExecutor.submit(this, this::insertWishlistEntry, added -> {
+            addToWishlistButton.setEnabled(true);
+            if (added) {
                 JOptionPane.showMessageDialog(this, "Item added to wishlist!", "Wishlist Updated", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, "This book is already in your wishlist!", "Wishlist", JOptionPane.INFORMATION_MESSAGE);
             }
-
-            resultSet.close();
-            checkStatement.close();
-
-        } catch (SQLException e) {
+        }, e -> {
+            addToWishlistButton.setEnabled(true);
             JOptionPane.showMessageDialog(this, "Error adding to wishlist: " + e.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
+        });
+    }
+
+    // Runs on a database worker thread; false if the book was already in the wishlist
+    private boolean insertWishlistEntry() throws SQLException {
+        // Check if book is already in wishlist
+        String checkQuery = "SELECT 1 FROM wishlist WHERE user_id = ? AND book_id = ?";
+        try (PreparedStatement checkStatement = session.getConnection().prepareStatement(checkQuery)) {
+            checkStatement.setInt(1, userId);
+            checkStatement.setInt(2, bookId);
+            try (ResultSet resultSet = checkStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return false;
+                }
+            }
         }
+
+        // Book not in wishlist, add it
+        String insertQuery = "INSERT INTO wishlist (user_id, book_id, date_added) VALUES (?, ?, ?)";
+        try (PreparedStatement insertStatement = session.getConnection().prepareStatement(insertQuery)) {
+            insertStatement.setInt(1, userId);
+            insertStatement.setInt(2, bookId);
+            insertStatement.setDate(3, new java.sql.Date(System.currentTimeMillis()));
+            insertStatement.executeUpdate();
+        }
+        return true;
+    }
+
+    @Override
+    public void dispose() {
+        // Stop background queries, then release the page's connection and statements
+        DbExecutor.cancelAll(this);
+        CoverLoader.cancelAll(this);
+        session.closeWhenIdle(this);
+        super.dispose();
     }
 
     // Main method for testing
     public static void main(String[] args) {
         // This would be for testing purposes only
-        try {
-            // Create a test connection
-            Connection testConnection = DriverManager.getConnection("jdbc:mysql://localhost:3306/bookstore", "username", "password");
-
-            // Create and show the frame
-            SwingUtilities.invokeLater(() -> {
-                new BookDetailsPage(testConnection, 1, 1).setVisible(true);
-            });
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            System.out.println("Error connecting to database: " + e.getMessage());
-        }
+        SwingUtilities.invokeLater(() -> {
+            new BookDetailsPage(1, 1).setVisible(true);
+        });
     }
 }
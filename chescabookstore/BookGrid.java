@@ -0,0 +1,246 @@
+package chescabookstore;
+
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Fixed-column grid of book cards that only materializes the cards inside the
+// viewport (plus a row of overscan on each side). Cards scrolled out of view
+// go back to a free list and are rebound to whichever rows scroll in, so the
+// number of live components depends on the window size, not on the number of
+// books in the listing.
+public class BookGrid extends JPanel implements Scrollable {
+
+    // Builds card components once and fills them in for a given book
+    public interface CardRenderer {
+        JComponent createCard();
+
+        void bindCard(JComponent card, Book book);
+
+        // Called when a card scrolls out of view, before it waits for reuse
+        default void unbindCard(JComponent card) {
+        }
+    }
+
+    private static final int OVERSCAN_ROWS = 1;
+    // A window drag fires dozens of resizes; cards are re-flowed once it pauses
+    private static final int RESIZE_COALESCE_MS = 40;
+
+    private final CardRenderer renderer;
+    private final int columns;
+    private final int cardHeight;
+    private final int gap;
+
+    private final List<Book> rows = new ArrayList<>();
+    // Row index -> card currently showing it
+    private final Map<Integer, JComponent> activeCards = new HashMap<>();
+    private final Deque<JComponent> freeCards = new ArrayDeque<>();
+
+    private final ChangeListener viewportListener = e -> layoutVisibleCards();
+    private JViewport viewport;
+    private final Timer relayoutTimer = new Timer(RESIZE_COALESCE_MS, e -> layoutVisibleCards());
+    private int laidOutWidth;
+
+    private static final Instrumentation.Counter CARDS_CREATED = Instrumentation.counter("ui.bookgrid.cards.created");
+    private static final Instrumentation.Counter CARDS_BOUND = Instrumentation.counter("ui.bookgrid.cards.bound");
+
+    public BookGrid(CardRenderer renderer, int columns, int cardHeight, int gap) {
+        super(null);
+        this.renderer = renderer;
+        this.columns = columns;
+        this.cardHeight = cardHeight;
+        this.gap = gap;
+        relayoutTimer.setRepeats(false);
+    }
+
+    public void setRows(List<Book> newRows) {
+        rows.clear();
+        rows.addAll(newRows);
+        recycleAll();
+        revalidate();
+        repaint();
+    }
+
+    public void addRows(List<Book> moreRows) {
+        rows.addAll(moreRows);
+        revalidate();
+        repaint();
+    }
+
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    // Number of card components that exist, visible or waiting for reuse
+    public int getCardCount() {
+        return activeCards.size() + freeCards.size();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (getParent() instanceof JViewport) {
+            viewport = (JViewport) getParent();
+            viewport.addChangeListener(viewportListener);
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        relayoutTimer.stop();
+        if (viewport != null) {
+            viewport.removeChangeListener(viewportListener);
+            viewport = null;
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int gridRows = (rows.size() + columns - 1) / columns;
+        int width = viewport != null ? viewport.getWidth() : columns * (150 + gap) + gap;
+        return new Dimension(width, gap + gridRows * (cardHeight + gap));
+    }
+
+    @Override
+    public void doLayout() {
+        // Width changes come from resizing the window; wait for the drag to settle
+        if (laidOutWidth > 0 && getWidth() != laidOutWidth) {
+            relayoutTimer.restart();
+            return;
+        }
+        layoutVisibleCards();
+    }
+
+    // Binds cards to the rows in view and parks the rest; called on every scroll
+    private void layoutVisibleCards() {
+        relayoutTimer.stop();
+        laidOutWidth = getWidth();
+        Rectangle visible = getVisibleRect();
+        int rowHeight = cardHeight + gap;
+        int gridRows = (rows.size() + columns - 1) / columns;
+        int firstRow = Math.max(0, (visible.y - gap) / rowHeight - OVERSCAN_ROWS);
+        int lastRow = Math.min(gridRows - 1, (visible.y + visible.height) / rowHeight + OVERSCAN_ROWS);
+        int first = firstRow * columns;
+        int last = visible.isEmpty() ? -1 : Math.min(rows.size() - 1, lastRow * columns + columns - 1);
+
+        // Release cards that scrolled out before taking any, so they get reused
+        activeCards.entrySet().removeIf(entry -> {
+            int index = entry.getKey();
+            if (index < first || index > last) {
+                park(entry.getValue());
+                return true;
+            }
+            return false;
+        });
+
+        int cardWidth = Math.max(0, (getWidth() - gap * (columns + 1)) / columns);
+        for (int index = first; index <= last; index++) {
+            JComponent card = activeCards.get(index);
+            if (card == null) {
+                card = freeCards.poll();
+                if (card == null) {
+                    card = renderer.createCard();
+                    CARDS_CREATED.increment();
+                    add(card);
+                }
+                renderer.bindCard(card, rows.get(index));
+                CARDS_BOUND.increment();
+                card.setVisible(true);
+                activeCards.put(index, card);
+            }
+            int column = index % columns;
+            int row = index / columns;
+            card.setBounds(gap + column * (cardWidth + gap), gap + row * rowHeight, cardWidth, cardHeight);
+            card.validate();
+        }
+    }
+
+    private void recycleAll() {
+        for (JComponent card : activeCards.values()) {
+            park(card);
+        }
+        activeCards.clear();
+    }
+
+    private void park(JComponent card) {
+        renderer.unbindCard(card);
+        card.setVisible(false);
+        freeCards.push(card);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return 16;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    // Scrolls a 100k-row grid from top to bottom and reports how many cards
+    // were ever created; that number should stay at a few screens' worth.
+    public static void main(String[] args) {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<Book> books = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            books.add(new Book(total - i, "Book " + i, "Author " + (i % 997), "Fiction", null, 9.99,
+                    null, 0, null, null, null));
+        }
+
+        BookGrid grid = new BookGrid(new CardRenderer() {
+            @Override
+            public JComponent createCard() {
+                JPanel card = new JPanel(new BorderLayout());
+                card.add(new JLabel());
+                return card;
+            }
+
+            @Override
+            public void bindCard(JComponent card, Book book) {
+                ((JLabel) card.getComponent(0)).setText(book.getTitle());
+            }
+        }, 3, 420, 20);
+
+        JViewport port = new JViewport();
+        port.setSize(900, 650);
+        port.setView(grid);
+        grid.addNotify();
+        grid.setRows(books);
+        grid.setSize(900, grid.getPreferredSize().height);
+
+        long start = System.nanoTime();
+        int steps = 0;
+        for (int y = 0; y < grid.getHeight() - port.getHeight(); y += 160) {
+            port.setViewPosition(new Point(0, y));
+            steps++;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("rows=%d scroll steps=%d cards=%d bound=%d avg step=%.1fus%n",
+                grid.getRowCount(), steps, grid.getCardCount(), CARDS_BOUND.get(),
+                elapsed / 1000.0 / Math.max(1, steps));
+    }
+}
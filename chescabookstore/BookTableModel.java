@@ -0,0 +1,103 @@
+package chescabookstore;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+// The admin books table. Rows stay in id order, so a single book can be
+// found by binary search and replaced, inserted or removed on its own.
+public class BookTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"ID", "Title", "Author", "Category", "Price", "Stock"};
+
+    private final List<Book> books = new ArrayList<>();
+
+    public void setBooks(List<Book> newBooks) {
+        books.clear();
+        books.addAll(newBooks);
+        books.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        fireTableDataChanged();
+    }
+
+    // Replaces the row for this book, or inserts it in id order; returns true if inserted
+    public boolean putBook(Book book) {
+        int row = indexOf(book.getId());
+        if (row >= 0) {
+            books.set(row, book);
+            fireTableRowsUpdated(row, row);
+            return false;
+        }
+        row = -row - 1;
+        books.add(row, book);
+        fireTableRowsInserted(row, row);
+        return true;
+    }
+
+    // Returns false if the book wasn't in the table
+    public boolean removeBook(int bookId) {
+        int row = indexOf(bookId);
+        if (row < 0) {
+            return false;
+        }
+        books.remove(row);
+        fireTableRowsDeleted(row, row);
+        return true;
+    }
+
+    // Row of the book, or (-(insertion point) - 1) like Collections.binarySearch
+    private int indexOf(int bookId) {
+        int low = 0;
+        int high = books.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = books.get(mid).getId();
+            if (id < bookId) {
+                low = mid + 1;
+            } else if (id > bookId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public int getRowCount() {
+        return books.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Book book = books.get(row);
+        switch (column) {
+            case 0:
+                return book.getId();
+            case 1:
+                return book.getTitle();
+            case 2:
+                return book.getAuthor();
+            case 3:
+                return book.getCategory();
+            case 4:
+                return String.format("$%.2f", book.getPrice());
+            default:
+                return book.getStockQuantity();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package chescabookstore;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Rows of the cart table, kept as typed values. Prices are whole cents so
+// totals add up exactly; they are formatted only when a cell is rendered.
+// The subtotal and item count are adjusted on every change instead of being
+// recomputed from the rows.
+public class CartModel extends AbstractTableModel {
+
+    public static final int COVER_COLUMN = 0;
+    public static final int BOOK_COLUMN = 1;
+    public static final int PRICE_COLUMN = 2;
+    public static final int QUANTITY_COLUMN = 3;
+    public static final int TOTAL_COLUMN = 4;
+    public static final int REMOVE_COLUMN = 5;
+
+    private static final String[] COLUMN_NAMES = {"", "Book", "Price", "Quantity", "Total", ""};
+
+    public static final class Item {
+        final int cartId;
+        final int bookId;
+        final String title;
+        final String author;
+        final long priceCents;
+        final String coverImage;
+        int quantity;
+        ImageIcon cover;
+
+        public Item(int cartId, int bookId, String title, String author, long priceCents, int quantity,
+                    String coverImage) {
+            this.cartId = cartId;
+            this.bookId = bookId;
+            this.title = title;
+            this.author = author;
+            this.priceCents = priceCents;
+            this.quantity = quantity;
+            this.coverImage = coverImage;
+        }
+
+        public int getCartId() {
+            return cartId;
+        }
+
+        public int getBookId() {
+            return bookId;
+        }
+
+        public String getCoverImage() {
+            return coverImage;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public long getLineTotalCents() {
+            return priceCents * quantity;
+        }
+    }
+
+    private final List<Item> items = new ArrayList<>();
+    private final ImageIcon placeholder;
+    private long subtotalCents;
+    private int itemCount;
+
+    public CartModel(ImageIcon placeholder) {
+        this.placeholder = placeholder;
+    }
+
+    // Book prices are DECIMAL(10,2), so rounding to cents is exact
+    public static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public void setItems(List<Item> newItems) {
+        items.clear();
+        subtotalCents = 0;
+        itemCount = 0;
+        for (Item item : newItems) {
+            items.add(item);
+            subtotalCents += item.getLineTotalCents();
+            itemCount += item.quantity;
+        }
+        fireTableDataChanged();
+    }
+
+    public Item getItem(int row) {
+        return items.get(row);
+    }
+
+    // The row holding a cart id, or -1
+    public int indexOf(int cartId) {
+        for (int row = 0; row < items.size(); row++) {
+            if (items.get(row).cartId == cartId) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    public void setQuantity(int row, int quantity) {
+        Item item = items.get(row);
+        subtotalCents += item.priceCents * (quantity - item.quantity);
+        itemCount += quantity - item.quantity;
+        item.quantity = quantity;
+        fireTableRowsUpdated(row, row);
+    }
+
+    public void setCover(int row, ImageIcon cover) {
+        items.get(row).cover = cover;
+        fireTableCellUpdated(row, COVER_COLUMN);
+    }
+
+    public void removeItem(int row) {
+        Item item = items.remove(row);
+        subtotalCents -= item.getLineTotalCents();
+        itemCount -= item.quantity;
+        fireTableRowsDeleted(row, row);
+    }
+
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    @Override
+    public int getRowCount() {
+        return items.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        // Everything but the cover goes through the page's Object renderer
+        return column == COVER_COLUMN ? ImageIcon.class : Object.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == QUANTITY_COLUMN;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Item item = items.get(row);
+        switch (column) {
+            case COVER_COLUMN:
+                return item.cover != null ? item.cover : placeholder;
+            case BOOK_COLUMN:
+                return "<html><b>" + item.title + "</b><br>by " + item.author + "</html>";
+            case PRICE_COLUMN:
+                return item.priceCents;
+            case QUANTITY_COLUMN:
+                return item.quantity;
+            case TOTAL_COLUMN:
+                return item.getLineTotalCents();
+            case REMOVE_COLUMN:
+                return item.cartId;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        // The quantity editor's value is applied through setQuantity once the
+        // database update succeeds, so there is nothing to store here
+    }
+}
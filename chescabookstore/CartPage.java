@@ -4,13 +4,11 @@ import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.image.BufferedImage;
 import java.sql.*;
 import java.util.*;
 import java.text.NumberFormat;
 import javax.swing.Timer;
 import javax.swing.plaf.basic.BasicScrollBarUI;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumnModel;
@@ -30,12 +28,14 @@ public class CartPage extends JFrame {
     private static final Font TITLE_FONT = new Font("Segoe UI", Font.BOLD, 16);
     private static final Font BODY_FONT = new Font("Segoe UI", Font.PLAIN, 12);
 
-    // Database connection
-    private Connection connection;
+    // Only used on the EDT, by the price/total cells and the summary
+    private static final NumberFormat PRICE_FORMAT = NumberFormat.getCurrencyInstance();
+
+    // Database session, closed when the page is disposed
+    private DbSession session;
 
     // User information
     private int currentUserId;
-    private String currentUsername;
     private int roleId;
 
     // UI Components
@@ -52,43 +52,20 @@ public class CartPage extends JFrame {
     
     // Table for cart items
     private JTable cartTable;
-    private DefaultTableModel tableModel;
+    private CartModel cartModel;
     
     // Track cart items
-    private double cartSubtotal = 0.0;
-    private int totalItems = 0;
     private boolean isCartEmpty = true;
+    // True while a quantity change or removal is being written
+    private boolean cartBusy;
 
     public CartPage(int userId, int roleId) {
-        try {
-            // Get connection from DatabaseConnection class
-            this.connection = DatabaseConnection.getConnection();
-            this.currentUserId = userId;
-            this.roleId = roleId;
-            
-            // Get username from database
-            this.currentUsername = getUsernameById(userId);
-            
-            initializeUI();
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error connecting to database: " + e.getMessage(), 
-                                         "Database Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-            System.exit(1);
-        }
-    }
-    
-    private String getUsernameById(int userId) throws SQLException {
-        String username = "";
-        String query = "SELECT username FROM users WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                username = rs.getString("username");
-            }
-        }
-        return username;
+        // Borrows this page's connection on first use; released when the page is disposed
+        this.session = new DbSession("CartPage");
+        this.currentUserId = userId;
+        this.roleId = roleId;
+        
+        initializeUI();
     }
     
     private void initializeUI() {
@@ -273,25 +250,10 @@ public class CartPage extends JFrame {
     }
     
     private void createCartTable() {
-        // Create table model with columns
-        String[] columnNames = {"", "Book", "Price", "Quantity", "Total", ""};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                // Make only the quantity column editable
-                return column == 3;
-            }
-            
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                if (columnIndex == 0) { // Cover image column
-                    return ImageIcon.class;
-                }
-                return Object.class;
-            }
-        };
+        // Typed rows; covers start as a placeholder until they are decoded
+        cartModel = new CartModel(createDefaultCoverIcon(60, 90));
         
-        cartTable = new JTable(tableModel);
+        cartTable = new JTable(cartModel);
         cartTable.setRowHeight(120);
         cartTable.setShowGrid(false);
         cartTable.setIntercellSpacing(new Dimension(0, 10));
@@ -390,149 +352,97 @@ public class CartPage extends JFrame {
     }
     
     private void loadCartItems() {
-        // Clear existing table data
-        tableModel.setRowCount(0);
-        
-        // Reset tracking variables
-        cartSubtotal = 0.0;
-        totalItems = 0;
-        
-        try {
-            // Query to get cart items with book details
-            String query = "SELECT c.id, c.book_id, c.quantity, b.title, b.author, b.price, b.cover_image " +
-                           "FROM cart c " +
-                           "JOIN books b ON c.book_id = b.id " +
-                           "WHERE c.user_id = ?";
-                           
-            PreparedStatement stmt = connection.prepareStatement(query);
-            stmt.setInt(1, currentUserId);
-            ResultSet rs = stmt.executeQuery();
-            
-            isCartEmpty = true;
-            
-            while (rs.next()) {
-                isCartEmpty = false;
-                
-                int cartId = rs.getInt("id");
-                int bookId = rs.getInt("book_id");
-                int quantity = rs.getInt("quantity");
-                String title = rs.getString("title");
-                String author = rs.getString("author");
-                double price = rs.getDouble("price");
-                String coverImage = rs.getString("cover_image");
-                double total = price * quantity;
-                
-                // Format price and total for display
-                NumberFormat currencyFormat = NumberFormat.getCurrencyInstance();
-                String formattedPrice = currencyFormat.format(price);
-                String formattedTotal = currencyFormat.format(total);
-                
-                // Create an ImageIcon for the cover image
-                ImageIcon coverIcon = createCoverImageIcon(coverImage);
-                
-                // Add row to table model
-                tableModel.addRow(new Object[]{
-                    coverIcon,
-                    "<html><b>" + title + "</b><br>by " + author + "</html>",
-                    formattedPrice,
-                    quantity,
-                    formattedTotal,
-                    cartId  // Store cart ID in the last column (will be used by the remove button)
-                });
-                
-                // Update tracking variables
-                cartSubtotal += total;
-                totalItems += quantity;
-            }
-            
-            rs.close();
-            stmt.close();
-            
-            // Update summary panel
-            updateSummaryPanel();
-            
-            // Show either the cart table or empty cart message
-            showAppropriateView();
-            
-        } catch (SQLException e) {
+        // Show a loading state while the cart is fetched in the background
+        cartItemsPanel.removeAll();
+        cartItemsPanel.add(new LoadingPanel("Loading your cart...", MAIN_BG_COLOR), BorderLayout.CENTER);
+        summaryPanel.setVisible(false);
+        cartItemsPanel.revalidate();
+        cartItemsPanel.repaint();
+
+        DbExecutor.submit(this, this::queryCartItems, this::showCartItems, e -> {
             JOptionPane.showMessageDialog(this, "Error loading cart items: " + e.getMessage(), 
                                          "Database Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
-        }
+        });
     }
     
-    private ImageIcon createCoverImageIcon(String coverImagePath) {
-        try {
-            // Default image size for table
-            int maxWidth = 60;
-            int maxHeight = 90;
-            
-            if (coverImagePath != null && !coverImagePath.isEmpty()) {
-                // Load and resize the image
-                ImageIcon originalIcon = new ImageIcon(getClass().getResource("/assets/" + coverImagePath));
-                Image originalImage = originalIcon.getImage();
-                
-                // Calculate scaling to maintain aspect ratio
-                int origWidth = originalImage.getWidth(null);
-                int origHeight = originalImage.getHeight(null);
-                
-                if (origWidth <= 0 || origHeight <= 0) {
-                    // If image failed to load properly, return default icon
-                    return createDefaultCoverIcon(maxWidth, maxHeight);
+    // Runs on a database worker thread
+    private java.util.List<CartModel.Item> queryCartItems() throws SQLException {
+        // Cart rows come from MySQL; book details from the shared catalog cache
+        String query = "SELECT id, book_id, quantity FROM cart WHERE user_id = ?";
+
+        java.util.List<int[]> cartRows = new ArrayList<>();
+        try (PreparedStatement stmt = session.getConnection().prepareStatement(query)) {
+            stmt.setInt(1, currentUserId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    cartRows.add(new int[]{rs.getInt("id"), rs.getInt("book_id"), rs.getInt("quantity")});
                 }
-                
-                double widthRatio = (double)maxWidth / origWidth;
-                double heightRatio = (double)maxHeight / origHeight;
-                double ratio = Math.min(widthRatio, heightRatio);
-                
-                int scaledWidth = (int)(origWidth * ratio);
-                int scaledHeight = (int)(origHeight * ratio);
-                
-                // Scale image maintaining aspect ratio
-                Image scaledImage = originalImage.getScaledInstance(scaledWidth, scaledHeight, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaledImage);
             }
-        } catch (Exception e) {
-            // If any error occurs, return default icon
-            e.printStackTrace();
         }
-        
-        // Return default icon if image loading fails or path is empty
-        return createDefaultCoverIcon(60, 90);
+
+        int[] bookIds = new int[cartRows.size()];
+        for (int i = 0; i < bookIds.length; i++) {
+            bookIds[i] = cartRows.get(i)[1];
+        }
+        Map<Integer, Book> books = BookCatalog.getInstance().getAll(bookIds);
+
+        java.util.List<CartModel.Item> items = new ArrayList<>();
+        for (int[] cartRow : cartRows) {
+            Book book = books.get(cartRow[1]);
+            if (book == null) {
+                continue;
+            }
+            items.add(new CartModel.Item(
+                cartRow[0],
+                book.getId(),
+                book.getTitle(),
+                book.getAuthor(),
+                CartModel.toCents(book.getPrice()),
+                cartRow[2],
+                book.getCoverImage()
+            ));
+        }
+        return items;
     }
     
-    private ImageIcon createDefaultCoverIcon(int width, int height) {
-        // Create a default image with a light gray background and "No Image" text
-        BufferedImage defaultImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = defaultImage.createGraphics();
-        
-        // Set background color
-        g2d.setColor(new Color(230, 230, 240));
-        g2d.fillRect(0, 0, width, height);
+    private void showCartItems(java.util.List<CartModel.Item> items) {
+        cartModel.setItems(items);
+        isCartEmpty = cartModel.isEmpty();
         
-        // Set text color and font
-        g2d.setColor(new Color(150, 150, 150));
-        g2d.setFont(new Font("Segoe UI", Font.PLAIN, 10));
-        
-        // Center the text
-        FontMetrics metrics = g2d.getFontMetrics();
-        String text = "No Image";
-        int textWidth = metrics.stringWidth(text);
-        int textHeight = metrics.getHeight();
-        g2d.drawString(text, (width - textWidth) / 2, height / 2);
+        // The cover cells start as a placeholder
+        for (CartModel.Item item : items) {
+            loadCoverCell(item.getCoverImage(), item.getCartId());
+        }
         
-        g2d.dispose();
+        // Update summary panel
+        updateSummaryPanel();
         
-        return new ImageIcon(defaultImage);
+        // Show either the cart table or empty cart message
+        showAppropriateView();
+    }
+    
+    // Decodes the cover off the EDT, then replaces just that row's placeholder
+    private void loadCoverCell(String coverImagePath, int cartId) {
+        CoverLoader.load(this, coverImagePath, 60, 90, icon -> {
+            if (icon == null) {
+                return;
+            }
+            int row = cartModel.indexOf(cartId);
+            if (row >= 0) {
+                cartModel.setCover(row, icon);
+            }
+        });
+    }
+    
+    private ImageIcon createDefaultCoverIcon(int width, int height) {
+        return CoverImageCache.placeholder(width, height);
     }
     
     private void updateSummaryPanel() {
-        // Format the currency
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance();
-        
         // Update labels
-        totalItemsLabel.setText("Total Items: " + totalItems);
-        subtotalLabel.setText("Subtotal: " + currencyFormat.format(cartSubtotal));
+        totalItemsLabel.setText("Total Items: " + cartModel.getItemCount());
+        subtotalLabel.setText("Subtotal: " + PRICE_FORMAT.format(CartModel.toAmount(cartModel.getSubtotalCents())));
         
         // Enable/disable checkout button based on cart status
         checkoutButton.setEnabled(!isCartEmpty);
@@ -553,96 +463,87 @@ public class CartPage extends JFrame {
         cartItemsPanel.repaint();
     }
     
+    // Cart edits run on a database worker; the table and checkout are locked until they finish
+    private void setCartBusy(boolean busy) {
+        cartBusy = busy;
+        cartTable.setEnabled(!busy);
+        checkoutButton.setEnabled(!busy && !isCartEmpty);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+    
     private void updateCartItemQuantity(int row, int newQuantity) {
-        try {
-            // Get cart id from table model
-            int cartId = (int) tableModel.getValueAt(row, 5);
-            
+        if (cartBusy) {
+            return;
+        }
+        // Rows can move while the update runs, so the result is applied by cart id
+        int cartId = cartModel.getItem(row).getCartId();
+        
+        setCartBusy(true);
+        DbExecutor.submit(this, () -> {
             // Update quantity in database
             String updateQuery = "UPDATE cart SET quantity = ? WHERE id = ?";
-            PreparedStatement updateStmt = connection.prepareStatement(updateQuery);
-            updateStmt.setInt(1, newQuantity);
-            updateStmt.setInt(2, cartId);
-            updateStmt.executeUpdate();
-            updateStmt.close();
-            
-            // Get book price
-            String priceStr = (String) tableModel.getValueAt(row, 2);
-            double price = parseCurrency(priceStr);
-            
-            // Calculate new total
-            double newTotal = price * newQuantity;
-            NumberFormat currencyFormat = NumberFormat.getCurrencyInstance();
-            
-            // Update table model
-            tableModel.setValueAt(currencyFormat.format(newTotal), row, 4);
+            try (PreparedStatement updateStmt = session.getConnection().prepareStatement(updateQuery)) {
+                updateStmt.setInt(1, newQuantity);
+                updateStmt.setInt(2, cartId);
+                return updateStmt.executeUpdate();
+            }
+        }, rowsAffected -> {
+            setCartBusy(false);
             
-            // Recalculate cart totals
-            recalculateCartTotals();
+            // Line total and cart totals follow from the new quantity
+            int currentRow = cartModel.indexOf(cartId);
+            if (currentRow >= 0) {
+                cartModel.setQuantity(currentRow, newQuantity);
+            }
+            updateSummaryPanel();
             
             // Show success message
             showToastMessage("Quantity updated");
-            
-        } catch (SQLException e) {
+        }, e -> {
+            setCartBusy(false);
             JOptionPane.showMessageDialog(this, "Error updating quantity: " + e.getMessage(),
                                          "Database Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
-        }
+        });
     }
     
     private void removeCartItem(int row) {
-        try {
-            // Get cart id from table model
-            int cartId = (int) tableModel.getValueAt(row, 5);
-            
+        if (cartBusy) {
+            return;
+        }
+        int cartId = cartModel.getItem(row).getCartId();
+        
+        setCartBusy(true);
+        DbExecutor.submit(this, () -> {
             // Delete item from database
             String deleteQuery = "DELETE FROM cart WHERE id = ?";
-            PreparedStatement deleteStmt = connection.prepareStatement(deleteQuery);
-            deleteStmt.setInt(1, cartId);
-            deleteStmt.executeUpdate();
-            deleteStmt.close();
-            
-            // Remove row from table model
-            tableModel.removeRow(row);
-            
-            // Recalculate cart totals
-            recalculateCartTotals();
+            try (PreparedStatement deleteStmt = session.getConnection().prepareStatement(deleteQuery)) {
+                deleteStmt.setInt(1, cartId);
+                return deleteStmt.executeUpdate();
+            }
+        }, rowsAffected -> {
+            // Remove row from table model, which also takes it out of the totals
+            int currentRow = cartModel.indexOf(cartId);
+            if (currentRow >= 0) {
+                cartModel.removeItem(currentRow);
+            }
             
             // Check if cart is now empty
-            if (tableModel.getRowCount() == 0) {
+            if (cartModel.isEmpty()) {
                 isCartEmpty = true;
                 showAppropriateView();
             }
+            setCartBusy(false);
+            updateSummaryPanel();
             
             // Show success message
             showToastMessage("Item removed from cart");
-            
-        } catch (SQLException e) {
+        }, e -> {
+            setCartBusy(false);
             JOptionPane.showMessageDialog(this, "Error removing item: " + e.getMessage(),
                                          "Database Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
-        }
-    }
-    
-    private void recalculateCartTotals() {
-        cartSubtotal = 0.0;
-        totalItems = 0;
-        
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            int quantity = (int) tableModel.getValueAt(i, 3);
-            String totalStr = (String) tableModel.getValueAt(i, 4);
-            double rowTotal = parseCurrency(totalStr);
-            
-            cartSubtotal += rowTotal;
-            totalItems += quantity;
-        }
-        
-        updateSummaryPanel();
-    }
-    
-    private double parseCurrency(String currencyStr) {
-        // Remove currency symbol and commas, then parse to double
-        return Double.parseDouble(currencyStr.replaceAll("[$,]", ""));
+        });
     }
     
     private void showToastMessage(String message) {
@@ -677,7 +578,6 @@ public class CartPage extends JFrame {
     }
     
     private void proceedToCheckout() {
-    try {
         // First, gather shipping address
         JPanel addressPanel = new JPanel(new GridLayout(0, 1));
         JTextField addressField = new JTextField(20);
@@ -749,88 +649,64 @@ public class CartPage extends JFrame {
                 paymentMethod = "GCash: " + gcashNumber + " (" + gcashName + ")";
             }
             
-            // Create a new order with shipping and payment info
-            String createOrderQuery = "INSERT INTO orders (user_id, order_date, total_amount, status, shipping_address, payment_method) " +
-                                    "VALUES (?, NOW(), ?, 'Pending', ?, ?)";
-            PreparedStatement orderStmt = connection.prepareStatement(createOrderQuery, Statement.RETURN_GENERATED_KEYS);
-            orderStmt.setInt(1, currentUserId);
-            orderStmt.setDouble(2, cartSubtotal);
-            orderStmt.setString(3, shippingAddress);
-            orderStmt.setString(4, paymentMethod);
-            
-            int rowsAffected = orderStmt.executeUpdate();
-            
-            if (rowsAffected > 0) {
-                // Get the generated order ID
-                ResultSet generatedKeys = orderStmt.getGeneratedKeys();
-                int orderId = -1;
-                
-                if (generatedKeys.next()) {
-                    orderId = generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Failed to create order, no ID obtained.");
-                }
-                
-                // Create order items from cart items
-                String createOrderItemsQuery = "INSERT INTO order_items (order_id, book_id, quantity, price) " +
-                                              "SELECT ?, c.book_id, c.quantity, b.price " +
-                                              "FROM cart c JOIN books b ON c.book_id = b.id " +
-                                              "WHERE c.user_id = ?";
-                
-                PreparedStatement orderItemsStmt = connection.prepareStatement(createOrderItemsQuery);
-                orderItemsStmt.setInt(1, orderId);
-                orderItemsStmt.setInt(2, currentUserId);
-                orderItemsStmt.executeUpdate();
-                
-                // Update book stock quantities
-                String updateStockQuery = "UPDATE books b " +
-                                         "JOIN cart c ON b.id = c.book_id " +
-                                         "SET b.stock_quantity = b.stock_quantity - c.quantity " +
-                                         "WHERE c.user_id = ?";
-                PreparedStatement updateStockStmt = connection.prepareStatement(updateStockQuery);
-                updateStockStmt.setInt(1, currentUserId);
-                updateStockStmt.executeUpdate();
-                
-                // Clear the user's cart
-                String clearCartQuery = "DELETE FROM cart WHERE user_id = ?";
-                PreparedStatement clearCartStmt = connection.prepareStatement(clearCartQuery);
-                clearCartStmt.setInt(1, currentUserId);
-                clearCartStmt.executeUpdate();
-                
-                // Show success message with options
-                Object[] options = {"View My Orders", "Continue Shopping"};
-                int choice = JOptionPane.showOptionDialog(this,
-                    "Your order has been placed successfully!\nOrder #" + orderId + "\n\nThank you for your purchase!",
-                    "Order Confirmation",
-                    JOptionPane.YES_NO_OPTION,
-                    JOptionPane.INFORMATION_MESSAGE,
-                    null,
-                    options,
-                    options[0]);
-                    
-                // Navigate based on user's choice
-                dispose();
-                if (choice == 0 || choice == JOptionPane.CLOSED_OPTION) {
-                    // User chose "View My Orders" or closed the dialog
-                    SwingUtilities.invokeLater(() -> new OrdersPage(currentUserId, roleId));
-                } else {
-                    // User chose "Continue Shopping"
-                    SwingUtilities.invokeLater(() -> new MainPage(currentUserId, roleId));
-                }
-                
-            } else {
-                throw new SQLException("Failed to create order.");
-            }
+            // Place the order as one transaction on a database worker
+            final String address = shippingAddress;
+            final String payment = paymentMethod;
+            checkoutButton.setEnabled(false);
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+            DbExecutor.submit(this, () -> CheckoutService.checkout(currentUserId, address, payment),
+                    this::showOrderPlaced, this::handleCheckoutError);
+        }
+    }
+
+    private void showOrderPlaced(CheckoutService.Receipt receipt) {
+        setCursor(Cursor.getDefaultCursor());
+        int orderId = receipt.getOrderId();
+
+        // Show success message with options
+        Object[] options = {"View My Orders", "Continue Shopping"};
+        int choice = JOptionPane.showOptionDialog(this,
+            "Your order has been placed successfully!\nOrder #" + orderId +
+            "\nTotal: " + PRICE_FORMAT.format(receipt.getTotal()) +
+            "\n\nThank you for your purchase!",
+            "Order Confirmation",
+            JOptionPane.YES_NO_OPTION,
+            JOptionPane.INFORMATION_MESSAGE,
+            null,
+            options,
+            options[0]);
+
+        // Navigate based on user's choice
+        dispose();
+        if (choice == 0 || choice == JOptionPane.CLOSED_OPTION) {
+            // User chose "View My Orders" or closed the dialog
+            SwingUtilities.invokeLater(() -> new OrdersPage(currentUserId, roleId));
+        } else {
+            // User chose "Continue Shopping"
+            SwingUtilities.invokeLater(() -> new MainPage(currentUserId, roleId));
+        }
+    }
+
+    private void handleCheckoutError(Exception e) {
+        setCursor(Cursor.getDefaultCursor());
+        checkoutButton.setEnabled(!isCartEmpty);
+        if (e instanceof CheckoutService.OutOfStockException) {
+            // Nothing was written; show current stock by reloading the cart
+            JOptionPane.showMessageDialog(this,
+                "Sorry, there is not enough stock left for:\n" +
+                String.join("\n", ((CheckoutService.OutOfStockException) e).getTitles()) +
+                "\n\nPlease adjust your cart and try again.",
+                "Out of Stock",
+                JOptionPane.WARNING_MESSAGE);
+            loadCartItems();
+            return;
         }
-        
-    } catch (SQLException e) {
         JOptionPane.showMessageDialog(this, 
             "Error processing checkout: " + e.getMessage(), 
             "Checkout Error", 
             JOptionPane.ERROR_MESSAGE);
         e.printStackTrace();
     }
-}
     
     private void goToMainPage() {
         // Close this page and open MainPage
@@ -867,6 +743,17 @@ public class CartPage extends JFrame {
         }
     }
     
+    @Override
+    public void dispose() {
+        // Stop background queries, then release the page's connection and statements
+        DbExecutor.cancelAll(this);
+        CoverLoader.cancelAll(this);
+        if (session != null) {
+            session.closeWhenIdle(this);
+        }
+        super.dispose();
+    }
+
     private void logout() {
         int response = JOptionPane.showConfirmDialog(this, 
                 "Are you sure you want to logout?", 
@@ -950,7 +837,8 @@ public class CartPage extends JFrame {
                     
                 case 2: // Price column
                 case 4: // Total column
-                    // Price and total are right-aligned
+                    // Price and total are cents; format them here, right-aligned
+                    label.setText(PRICE_FORMAT.format(CartModel.toAmount((Long) value)));
                     label.setHorizontalAlignment(JLabel.RIGHT);
                     break;
                     
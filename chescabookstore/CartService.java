@@ -0,0 +1,57 @@
+package chescabookstore;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Cart writes shared by every page that has an "Add to Cart" button. Adding
+// is a single INSERT ... ON DUPLICATE KEY UPDATE against the unique
+// (user_id, book_id) key, so a double-click can't create a second row and
+// there is no read before the write.
+//
+// Databases created before that key existed need their duplicates merged first:
+//   UPDATE cart c JOIN (SELECT user_id, book_id, MIN(id) keep_id, SUM(quantity) qty
+//                       FROM cart GROUP BY user_id, book_id HAVING COUNT(*) > 1) d
+//     ON c.id = d.keep_id SET c.quantity = d.qty;
+//   DELETE c FROM cart c JOIN cart k ON k.user_id = c.user_id AND k.book_id = c.book_id AND k.id < c.id;
+//   ALTER TABLE cart DROP KEY user_id, ADD UNIQUE KEY user_book (user_id, book_id);
+public final class CartService {
+
+    // On a duplicate, LAST_INSERT_ID(expr) hands the new quantity back in the
+    // OK packet, which the driver exposes as the first generated key
+    private static final String ADD_QUERY =
+            "INSERT INTO cart (user_id, book_id, quantity) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE quantity = LAST_INSERT_ID(quantity + VALUES(quantity))";
+
+    private static final Instrumentation.Counter ADDS = Instrumentation.counter("cart.adds");
+
+    private CartService() {
+    }
+
+    // Adds one copy of a book; returns the quantity now in the cart
+    public static int addToCart(Connection conn, int userId, int bookId) throws SQLException {
+        return addToCart(conn, userId, bookId, 1);
+    }
+
+    public static int addToCart(Connection conn, int userId, int bookId, int quantity) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(ADD_QUERY, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, bookId);
+            stmt.setInt(3, quantity);
+            // 1 row affected: inserted; 2: an existing row was updated
+            int affected = stmt.executeUpdate();
+            ADDS.increment();
+            if (affected == 1) {
+                return quantity;
+            }
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("Cart updated, but the new quantity was not returned.");
+                }
+                return keys.getInt(1);
+            }
+        }
+    }
+}
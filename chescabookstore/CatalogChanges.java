@@ -0,0 +1,303 @@
+package chescabookstore;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Change feed that keeps the in-process catalog caches of several terminals
+// in step. Every book or stock mutation also appends a row to catalog_changes;
+// each client polls that table for ids above the last one it has seen and
+// invalidates only the books listed (BookCatalog rows, search index entries,
+// suggestions). Poll interval: -Dbookstore.catalog.pollMs, default 2000.
+//
+// Ids come from AUTO_INCREMENT, so a change committed out of id order can be
+// missing when a poll moves past it. Ids a poll skips over are remembered and
+// looked up again on every poll for GAP_RETRY_MS, long enough for the writing
+// transaction to commit; ids still absent by then were rolled back or never
+// used. This covers the search and suggestion indexes, which have no TTL.
+//
+// An admin terminal also follows new orders the same way, by id above the
+// last one seen, and fires StoreEvents.orderPlaced for each so its order
+// tables and dashboard totals patch in place (see followOrders()).
+public final class CatalogChanges {
+
+    public static final String INSERT = "insert";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+    public static final String STOCK = "stock";
+
+    private static final long POLL_MS = Long.getLong("bookstore.catalog.pollMs", 2000L);
+    private static final int POLL_LIMIT = 500;
+    // Entries older than this are pruned; every client is far past them by then
+    private static final int RETENTION_HOURS = 24;
+    private static final long PRUNE_EVERY_MS = 60 * 60 * 1000L;
+    private static final long GAP_RETRY_MS = 60 * 1000L;
+    private static final int MAX_GAPS = 1000;
+
+    private static final Instrumentation.Counter APPLIED = Instrumentation.counter("catalog.changes.applied");
+    private static final Instrumentation.Counter POLLS = Instrumentation.counter("catalog.changes.polls");
+    private static final Instrumentation.Counter LATE = Instrumentation.counter("catalog.changes.late");
+
+    private static ScheduledExecutorService poller;
+    private static long lastPruneAt;
+    // Poller thread only
+    private static final Feed CHANGES = new Feed("catalog_changes", "book_id, change_type");
+    private static final Feed ORDERS = new Feed("orders", "total_amount");
+    private static volatile boolean followOrders;
+
+    private CatalogChanges() {
+    }
+
+    // Records one book change; use the same connection (and transaction) as the mutation
+    public static void record(Connection conn, int bookId, String changeType) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO catalog_changes (book_id, change_type) VALUES (?, ?)")) {
+            stmt.setInt(1, bookId);
+            stmt.setString(2, changeType);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Records a stock change for every book in a user's cart (checkout)
+    public static void recordCartStock(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO catalog_changes (book_id, change_type) " +
+                "SELECT DISTINCT book_id, 'stock' FROM cart WHERE user_id = ?")) {
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Starts the background poller once per process; later calls do nothing
+    public static synchronized void startPolling() {
+        if (poller != null) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-changes-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (Exception e) {
+                // Database hiccups are retried on the next tick
+                e.printStackTrace();
+            }
+        }, 0, POLL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Also report orders placed on any terminal as StoreEvents.orderPlaced
+    public static void followOrders() {
+        followOrders = true;
+    }
+
+    public static synchronized void stopPolling() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    // Applies every change logged since the last poll; returns how many were applied
+    static int poll() throws SQLException {
+        POLLS.increment();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            long now = System.currentTimeMillis();
+            if (followOrders) {
+                pollOrders(conn, now);
+            }
+
+            // Latest change type per book; several edits to one book are applied once.
+            // Late commits are read first so newer rows for the same book win.
+            Map<Integer, String> changes = new LinkedHashMap<>();
+            if (!CHANGES.read(conn, now, rs -> changes.put(rs.getInt("book_id"), rs.getString("change_type")))) {
+                // Caches are filled after this point, so older changes don't concern us
+                return 0;
+            }
+            for (Map.Entry<Integer, String> change : changes.entrySet()) {
+                apply(change.getKey(), change.getValue());
+            }
+            CHANGES.advance();
+            APPLIED.add(changes.size());
+
+            if (now - lastPruneAt > PRUNE_EVERY_MS) {
+                lastPruneAt = now;
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "DELETE FROM catalog_changes WHERE changed_at < NOW() - INTERVAL " + RETENTION_HOURS + " HOUR")) {
+                    stmt.executeUpdate();
+                }
+            }
+            return changes.size();
+        }
+    }
+
+    private static void pollOrders(Connection conn, long now) throws SQLException {
+        Map<Integer, BigDecimal> placed = new LinkedHashMap<>();
+        if (ORDERS.read(conn, now, rs -> placed.put(rs.getInt("id"), rs.getBigDecimal("total_amount")))) {
+            for (Map.Entry<Integer, BigDecimal> order : placed.entrySet()) {
+                StoreEvents.fireOrderPlaced(order.getKey(), order.getValue());
+            }
+            ORDERS.advance();
+        }
+    }
+
+    private static void apply(int bookId, String changeType) throws SQLException {
+        BookCatalog catalog = BookCatalog.getInstance();
+        catalog.invalidate(bookId);
+        // Open admin tables patch just this row
+        if (DELETE.equals(changeType)) {
+            StoreEvents.fireBookRemoved(bookId);
+        } else {
+            StoreEvents.fireBookChanged(bookId);
+        }
+        if (STOCK.equals(changeType)) {
+            // Stock isn't searchable; the cached row was all that went stale
+            return;
+        }
+
+        CatalogIndex index = CatalogIndex.getInstance();
+        if (index.isLoaded()) {
+            // The index covers the description, which cached books don't carry
+            Book book = catalog.getDetails(bookId);
+            if (book == null) {
+                index.remove(bookId);
+            } else {
+                index.put(bookId, book.getTitle(), book.getAuthor(), book.getDescription(),
+                        book.getCategory(), book.getIsbn());
+            }
+        }
+        SuggestionIndex.getInstance().invalidate();
+    }
+
+    private interface RowHandler {
+        void row(ResultSet rs) throws SQLException;
+    }
+
+    // Reads an AUTO_INCREMENT table by id above the last one seen, remembering
+    // the ids a read skipped over and looking them up again for GAP_RETRY_MS
+    private static final class Feed {
+        private final String table;
+        private final String columns;
+        private long lastSeenId = -1;
+        // Ids a read skipped over, with when they were first missed
+        private final Map<Long, Long> gaps = new LinkedHashMap<>();
+        private final List<Long> filled = new ArrayList<>();
+        private long readUpTo;
+
+        Feed(String table, String columns) {
+            this.table = table;
+            this.columns = columns;
+        }
+
+        // Hands late-committed rows, then new rows, to the handler; call advance()
+        // once they are applied. The first call only finds where to start and
+        // returns false.
+        boolean read(Connection conn, long now, RowHandler handler) throws SQLException {
+            if (lastSeenId < 0) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM " + table);
+                     ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    lastSeenId = rs.getLong(1);
+                }
+                return false;
+            }
+
+            filled.clear();
+            gaps.values().removeIf(missedAt -> now - missedAt > GAP_RETRY_MS);
+            if (!gaps.isEmpty()) {
+                StringBuilder query = new StringBuilder("SELECT id, " + columns + " FROM " + table + " WHERE id IN (");
+                for (int i = 0; i < gaps.size(); i++) {
+                    query.append(i == 0 ? "?" : ", ?");
+                }
+                query.append(") ORDER BY id");
+                try (PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+                    int index = 1;
+                    for (long id : gaps.keySet()) {
+                        stmt.setLong(index++, id);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            filled.add(rs.getLong("id"));
+                            handler.row(rs);
+                        }
+                    }
+                }
+            }
+
+            readUpTo = lastSeenId;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT id, " + columns + " FROM " + table + " WHERE id > ? ORDER BY id LIMIT " + POLL_LIMIT)) {
+                stmt.setLong(1, lastSeenId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        long id = rs.getLong("id");
+                        for (long gap = readUpTo + 1; gap < id && gaps.size() < MAX_GAPS; gap++) {
+                            gaps.putIfAbsent(gap, now);
+                        }
+                        readUpTo = id;
+                        handler.row(rs);
+                    }
+                }
+            }
+            return true;
+        }
+
+        void advance() {
+            lastSeenId = readUpTo;
+            gaps.keySet().removeAll(filled);
+            LATE.add(filled.size());
+        }
+    }
+
+    // Two-client check against a local database: caches a book, changes it
+    // through a separate connection the way another terminal would, and waits
+    // for this client's poller to drop the cached copy.
+    //   java chescabookstore.CatalogChanges <bookId>
+    public static void main(String[] args) throws Exception {
+        int bookId = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        BookCatalog catalog = BookCatalog.getInstance();
+
+        poll();
+        Book before = catalog.get(bookId);
+        if (before == null) {
+            System.out.println("no book with id " + bookId);
+            return;
+        }
+        System.out.println("cached: " + before + " stock=" + before.getStockQuantity());
+
+        // "Other terminal": bump the stock and log it
+        try (Connection other = DatabaseConnection.getConnection();
+             PreparedStatement stmt = other.prepareStatement(
+                     "UPDATE books SET stock_quantity = stock_quantity + 1 WHERE id = ?")) {
+            stmt.setInt(1, bookId);
+            stmt.executeUpdate();
+            record(other, bookId, STOCK);
+        }
+
+        int applied = poll();
+        Book after = catalog.get(bookId);
+        System.out.println("applied " + applied + " change(s); now stock=" + after.getStockQuantity()
+                + (after.getStockQuantity() == before.getStockQuantity() + 1 ? " (invalidated)" : " (STALE)"));
+
+        // Put the stock back
+        try (Connection other = DatabaseConnection.getConnection();
+             PreparedStatement stmt = other.prepareStatement(
+                     "UPDATE books SET stock_quantity = stock_quantity - 1 WHERE id = ?")) {
+            stmt.setInt(1, bookId);
+            stmt.executeUpdate();
+            record(other, bookId, STOCK);
+        }
+        DatabaseConnection.shutdown();
+    }
+}
@@ -0,0 +1,561 @@
+package chescabookstore;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// In-memory inverted index over the books catalog, used by MainPage search
+// instead of LIKE '%q%' table scans. Title, author and description are
+// tokenized (plus the ISBN, so picked ISBN suggestions resolve) into a sorted
+// term dictionary; category is a bitmap filter.
+// Queries are AND across tokens, with the last token matched as a prefix so
+// results update while the user is still typing. Results are book ids ranked
+// by field-weighted matches (title > author > description), newest first on ties.
+// Fuzzy mode also accepts title/author terms within a small edit distance,
+// found through a trigram index and verified with a bounded Levenshtein.
+public class CatalogIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int ISBN_WEIGHT = 3;
+
+    // Score multipliers: exact/prefix term, one edit away, two edits away
+    private static final int[] DISTANCE_FACTOR = {3, 2, 1};
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}");
+
+    private static final CatalogIndex INSTANCE = new CatalogIndex();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> postings (doc numbers ascending, with a score per doc)
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, BitSet> categories = new HashMap<>();
+    private final Map<Integer, Integer> docByBookId = new HashMap<>();
+    private final BitSet live = new BitSet();
+    // Title/author terms for fuzzy matching, with trigram -> term id postings
+    private final List<String> fuzzyTerms = new ArrayList<>();
+    private final Map<String, Integer> fuzzyTermIds = new HashMap<>();
+    private final Map<String, IntList> trigrams = new HashMap<>();
+    private int[] bookIds = new int[1024];
+    private int docCount;
+    private int deadCount;
+    private volatile boolean loaded;
+
+    public static CatalogIndex getInstance() {
+        return INSTANCE;
+    }
+
+    // Builds the index from the books table the first time it's needed
+    public void ensureLoaded() throws SQLException {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            long start = System.nanoTime();
+            String query = "SELECT id, title, author, description, category, isbn FROM books";
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(query);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    put(rs.getInt("id"), rs.getString("title"), rs.getString("author"),
+                            rs.getString("description"), rs.getString("category"), rs.getString("isbn"));
+                }
+            }
+            Instrumentation.timer("catalog.index.build").record(System.nanoTime() - start);
+            loaded = true;
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Adds a book, replacing any previous version of it
+    public void put(int bookId, String title, String author, String description, String category, String isbn) {
+        // Gather per-term weights for this book before taking the write lock
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, title, TITLE_WEIGHT);
+        addField(weights, author, AUTHOR_WEIGHT);
+        List<String> nameTerms = new ArrayList<>(weights.keySet());
+        addField(weights, description, DESCRIPTION_WEIGHT);
+        addField(weights, isbn, ISBN_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(bookId);
+
+            int doc = docCount++;
+            if (doc == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, bookIds.length * 2);
+            }
+            bookIds[doc] = bookId;
+            docByBookId.put(bookId, doc);
+            live.set(doc);
+
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), t -> new Postings()).add(doc, entry.getValue());
+            }
+            if (category != null) {
+                categories.computeIfAbsent(category, c -> new BitSet()).set(doc);
+            }
+            for (String term : nameTerms) {
+                addFuzzyTerm(term);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int bookId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByBookId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ranked book ids matching every token of the query; category "All" or null means no filter
+    public int[] search(String query, String category) {
+        return search(query, category, false);
+    }
+
+    // Like search(), but tokens also match title/author terms a typo or two away
+    public int[] fuzzySearch(String query, String category) {
+        return search(query, category, true);
+    }
+
+    private int[] search(String query, String category, boolean fuzzy) {
+        long start = System.nanoTime();
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new int[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            // Per token, the postings lists that satisfy it and their score multipliers
+            List<List<Postings>> matches = new ArrayList<>(tokens.size());
+            List<IntList> factors = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                boolean prefix = i == tokens.size() - 1;
+                List<Postings> lists = new ArrayList<>();
+                IntList tokenFactors = new IntList();
+                if (prefix) {
+                    for (Postings postings : terms.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+                        lists.add(postings);
+                        tokenFactors.add(DISTANCE_FACTOR[0]);
+                    }
+                } else {
+                    Postings exact = terms.get(token);
+                    if (exact != null) {
+                        lists.add(exact);
+                        tokenFactors.add(DISTANCE_FACTOR[0]);
+                    }
+                }
+                if (fuzzy) {
+                    addFuzzyMatches(token, lists, tokenFactors);
+                }
+                if (lists.isEmpty()) {
+                    return new int[0];
+                }
+                matches.add(lists);
+                factors.add(tokenFactors);
+            }
+
+            // Candidate docs: live, in the category, and matching every token
+            BitSet candidates = (BitSet) live.clone();
+            if (category != null && !category.equals("All")) {
+                BitSet inCategory = categories.get(category);
+                if (inCategory == null) {
+                    return new int[0];
+                }
+                candidates.and(inCategory);
+            }
+            for (List<Postings> lists : matches) {
+                BitSet tokenDocs = new BitSet(docCount);
+                for (Postings postings : lists) {
+                    postings.markDocs(tokenDocs);
+                }
+                candidates.and(tokenDocs);
+                if (candidates.isEmpty()) {
+                    return new int[0];
+                }
+            }
+
+            int[] docs = candidates.stream().toArray();
+            int[] scores = new int[docs.length];
+            for (int t = 0; t < matches.size(); t++) {
+                List<Postings> lists = matches.get(t);
+                for (int j = 0; j < lists.size(); j++) {
+                    lists.get(j).addScores(docs, scores, factors.get(t).get(j));
+                }
+            }
+
+            // Highest score first, then newest book first like the old ORDER BY id DESC
+            Integer[] order = new Integer[docs.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> scores[a] != scores[b]
+                    ? Integer.compare(scores[b], scores[a])
+                    : Integer.compare(bookIds[docs[b]], bookIds[docs[a]]));
+
+            int[] result = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                result[i] = bookIds[docs[order[i]]];
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+            Instrumentation.timer(fuzzy ? "catalog.index.fuzzy" : "catalog.index.search").record(System.nanoTime() - start);
+        }
+    }
+
+    // Title/author terms within the edit budget: 1 edit up to 4 letters, 2 beyond
+    private void addFuzzyMatches(String token, List<Postings> lists, IntList tokenFactors) {
+        if (token.length() < MIN_FUZZY_LENGTH) {
+            return;
+        }
+        int maxDistance = token.length() <= 4 ? 1 : 2;
+
+        // Each edit touches at most 3 trigrams, so a match shares at least this many
+        List<String> queryGrams = trigramsOf(token);
+        int minShared = Math.max(1, queryGrams.size() - 3 * maxDistance);
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            IntList ids = trigrams.get(gram);
+            if (ids != null) {
+                for (int i = 0; i < ids.size(); i++) {
+                    shared.merge(ids.get(i), 1, Integer::sum);
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+            if (entry.getValue() < minShared) {
+                continue;
+            }
+            String term = fuzzyTerms.get(entry.getKey());
+            if (term.equals(token) || Math.abs(term.length() - token.length()) > maxDistance) {
+                continue;
+            }
+            int distance = boundedDistance(token, term, maxDistance);
+            Postings postings = distance <= maxDistance ? terms.get(term) : null;
+            if (postings != null) {
+                lists.add(postings);
+                tokenFactors.add(DISTANCE_FACTOR[distance]);
+            }
+        }
+    }
+
+    private void addFuzzyTerm(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH || fuzzyTermIds.containsKey(term)) {
+            return;
+        }
+        int id = fuzzyTerms.size();
+        fuzzyTerms.add(term);
+        fuzzyTermIds.put(term, id);
+        for (String gram : trigramsOf(term)) {
+            trigrams.computeIfAbsent(gram, g -> new IntList()).add(id);
+        }
+    }
+
+    // Distinct trigrams of the term padded with boundary markers
+    private static List<String> trigramsOf(String term) {
+        String padded = "$" + term + "$";
+        List<String> grams = new ArrayList<>(padded.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            String gram = padded.substring(i, i + 3);
+            if (!grams.contains(gram)) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    // Levenshtein distance, or max + 1 as soon as it must exceed max
+    static int boundedDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    // Lowercased, accent-stripped alphanumeric tokens
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase();
+        if (!isAscii(normalized)) {
+            normalized = MARKS.matcher(Normalizer.normalize(normalized, Normalizer.Form.NFD)).replaceAll("");
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addField(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void removeLocked(int bookId) {
+        Integer doc = docByBookId.remove(bookId);
+        if (doc == null) {
+            return;
+        }
+        // Tombstone only; postings are cleaned up when enough docs are dead
+        live.clear(doc);
+        deadCount++;
+        if (deadCount > 1024 && deadCount > docCount / 2) {
+            compact();
+        }
+    }
+
+    // Renumbers live docs densely and drops dead entries from every postings
+    // list, then rebuilds the fuzzy dictionary without the terms that lost
+    // their last posting
+    private void compact() {
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            remap[doc] = live.get(doc) ? next++ : -1;
+        }
+
+        int[] newBookIds = new int[Math.max(1024, next * 2)];
+        for (int doc = 0; doc < docCount; doc++) {
+            if (remap[doc] >= 0) {
+                newBookIds[remap[doc]] = bookIds[doc];
+                docByBookId.put(bookIds[doc], remap[doc]);
+            }
+        }
+
+        terms.values().removeIf(postings -> postings.remap(remap) == 0);
+        for (Map.Entry<String, BitSet> entry : categories.entrySet()) {
+            BitSet remapped = new BitSet(next);
+            entry.getValue().stream().filter(doc -> remap[doc] >= 0).forEach(doc -> remapped.set(remap[doc]));
+            entry.setValue(remapped);
+        }
+
+        List<String> survivors = new ArrayList<>(fuzzyTerms.size());
+        for (String term : fuzzyTerms) {
+            if (terms.containsKey(term)) {
+                survivors.add(term);
+            }
+        }
+        fuzzyTerms.clear();
+        fuzzyTermIds.clear();
+        trigrams.clear();
+        for (String term : survivors) {
+            addFuzzyTerm(term);
+        }
+
+        live.clear();
+        live.set(0, next);
+        bookIds = newBookIds;
+        docCount = next;
+        deadCount = 0;
+    }
+
+    // Ascending doc numbers with a parallel score array
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] scores = new int[4];
+        private int size;
+
+        void add(int doc, int score) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+
+        void markDocs(BitSet target) {
+            for (int i = 0; i < size; i++) {
+                target.set(docs[i]);
+            }
+        }
+
+        // Adds this term's score to each candidate doc it contains; both lists are sorted
+        void addScores(int[] candidates, int[] totals, int factor) {
+            int i = 0;
+            int j = 0;
+            while (i < size && j < candidates.length) {
+                if (docs[i] < candidates[j]) {
+                    i++;
+                } else if (docs[i] > candidates[j]) {
+                    j++;
+                } else {
+                    totals[j] += scores[i] * factor;
+                    i++;
+                    j++;
+                }
+            }
+        }
+
+        int remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    scores[kept] = scores[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    // Growable int array
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    // Benchmark: synthetic catalog, misspelled two-word queries in fuzzy mode
+    public static void main(String[] args) {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 250000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        Random random = new Random(7);
+        String[] words = {"shadow", "river", "garden", "kingdom", "secret", "history", "silent", "dragon",
+                "memory", "winter", "empire", "island", "journey", "mountain", "stranger", "brothers",
+                "punishment", "hobbit", "rings", "castle", "whisper", "harvest", "lantern", "voyage"};
+        String[] authors = {"Tolkien", "Dostoevsky", "Tolstoy", "Austen", "Dickens", "Hemingway", "Orwell",
+                "Murakami", "Marquez", "Nabokov", "Kafka", "Steinbeck", "Faulkner", "Woolf", "Chekhov"};
+
+        CatalogIndex index = new CatalogIndex();
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < books; i++) {
+            String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                    + " " + words[random.nextInt(words.length)];
+            String author = authors[random.nextInt(authors.length)] + " " + (char) ('A' + random.nextInt(26)) + "x" + i;
+            index.put(i + 1, title, author, "", "Fiction", null);
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1000000;
+
+        // One typo (substitution, deletion or transposition) in each word
+        String[] typed = new String[queries];
+        for (int q = 0; q < queries; q++) {
+            typed[q] = typo(authors[random.nextInt(authors.length)], random) + " "
+                    + typo(words[random.nextInt(words.length)], random);
+        }
+
+        for (int q = 0; q < Math.min(queries, 200); q++) {
+            index.fuzzySearch(typed[q], "All");
+        }
+        long[] nanos = new long[queries];
+        long hits = 0;
+        for (int q = 0; q < queries; q++) {
+            long start = System.nanoTime();
+            hits += index.fuzzySearch(typed[q], "All").length;
+            nanos[q] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        System.out.printf("books=%d fuzzyTerms=%d build=%dms%n", books, index.fuzzyTerms.size(), buildMillis);
+        System.out.printf("fuzzy queries=%d avgHits=%d p50=%.2fms p99=%.2fms max=%.2fms%n", queries, hits / queries,
+                nanos[queries / 2] / 1e6, nanos[(int) (queries * 0.99)] / 1e6, nanos[queries - 1] / 1e6);
+    }
+
+    private static String typo(String word, Random random) {
+        String w = word.toLowerCase();
+        int i = 1 + random.nextInt(w.length() - 2);
+        switch (random.nextInt(3)) {
+            case 0:
+                return w.substring(0, i) + (char) ('a' + random.nextInt(26)) + w.substring(i + 1);
+            case 1:
+                return w.substring(0, i) + w.substring(i + 1);
+            default:
+                return w.substring(0, i) + w.charAt(i + 1) + w.charAt(i) + w.substring(i + 2);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package chescabookstore;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Places an order from a user's cart as a single transaction. The cart rows
+// and then the books in it are locked (SELECT ... FOR UPDATE, books in id
+// order so concurrent checkouts always lock in the same order), stock is
+// checked under those locks, and only then are the order, its items, the
+// stock decrement and the emptied cart written. Deadlocks and lock wait
+// timeouts roll back and retry with a short random backoff.
+//
+// The order total is computed here, in BigDecimal, from the same locked
+// price snapshot that goes into order_items; the UI only displays it.
+public final class CheckoutService {
+
+    private static final int MAX_ATTEMPTS = 4;
+    // MySQL/MariaDB: ER_LOCK_DEADLOCK and ER_LOCK_WAIT_TIMEOUT
+    private static final int DEADLOCK = 1213;
+    private static final int LOCK_WAIT_TIMEOUT = 1205;
+
+    private static final Instrumentation.Counter RETRIES = Instrumentation.counter("checkout.retries");
+    private static final Instrumentation.Counter OUT_OF_STOCK = Instrumentation.counter("checkout.outofstock");
+    private static final Instrumentation.Timer CHECKOUT_TIME = Instrumentation.timer("checkout.transaction");
+
+    private CheckoutService() {
+    }
+
+    // Thrown when some book in the cart has less stock than was ordered;
+    // nothing has been written when this is thrown
+    public static class OutOfStockException extends SQLException {
+        private final List<String> titles;
+
+        OutOfStockException(List<String> titles) {
+            super("Not enough stock for: " + String.join(", ", titles));
+            this.titles = titles;
+        }
+
+        public List<String> getTitles() {
+            return titles;
+        }
+    }
+
+    // What was placed: the order id and the total actually charged
+    public static final class Receipt {
+        private final int orderId;
+        private final BigDecimal total;
+
+        Receipt(int orderId, BigDecimal total) {
+            this.orderId = orderId;
+            this.total = total;
+        }
+
+        public int getOrderId() {
+            return orderId;
+        }
+
+        public BigDecimal getTotal() {
+            return total;
+        }
+    }
+
+    public static Receipt checkout(int userId, String shippingAddress, String paymentMethod) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    Placed placed = placeOrder(conn, userId, shippingAddress, paymentMethod);
+                    conn.commit();
+                    // Cached stock for these books is now stale, here and on other terminals
+                    BookCatalog.getInstance().invalidateAll(placed.bookIds);
+                    return new Receipt(placed.orderId, placed.total);
+                } catch (SQLException e) {
+                    conn.rollback();
+                    if (!isRetryable(e) || attempt == MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            } finally {
+                CHECKOUT_TIME.record(System.nanoTime() - start);
+            }
+
+            RETRIES.increment();
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(10, 50) * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Checkout interrupted", e);
+            }
+        }
+    }
+
+    private static Placed placeOrder(Connection conn, int userId, String shippingAddress, String paymentMethod)
+            throws SQLException {
+        // Lock the cart first so a second checkout of the same cart waits here
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT book_id, quantity FROM cart WHERE user_id = ? FOR UPDATE")) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    quantities.merge(rs.getInt("book_id"), rs.getInt("quantity"), Integer::sum);
+                }
+            }
+        }
+        if (quantities.isEmpty()) {
+            throw new SQLException("Your cart is empty.");
+        }
+
+        // Then the books, always in ascending id order
+        StringBuilder lockQuery = new StringBuilder("SELECT id, title, price, stock_quantity FROM books WHERE id IN (");
+        for (int i = 0; i < quantities.size(); i++) {
+            lockQuery.append(i == 0 ? "?" : ", ?");
+        }
+        lockQuery.append(") ORDER BY id FOR UPDATE");
+
+        // Prices read under the lock are what the order is charged at
+        Map<Integer, BigDecimal> prices = new TreeMap<>();
+        List<String> shortTitles = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(lockQuery.toString())) {
+            int index = 1;
+            for (int bookId : quantities.keySet()) {
+                stmt.setInt(index++, bookId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    prices.put(rs.getInt("id"), rs.getBigDecimal("price"));
+                    if (rs.getInt("stock_quantity") < quantities.get(rs.getInt("id"))) {
+                        shortTitles.add(rs.getString("title"));
+                    }
+                }
+            }
+        }
+        if (!shortTitles.isEmpty()) {
+            OUT_OF_STOCK.increment();
+            throw new OutOfStockException(shortTitles);
+        }
+
+        // Books deleted since they were carted can't be ordered
+        quantities.keySet().retainAll(prices.keySet());
+        if (quantities.isEmpty()) {
+            throw new SQLException("The books in your cart are no longer available.");
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            total = total.add(prices.get(entry.getKey()).multiply(BigDecimal.valueOf(entry.getValue())));
+        }
+        total = total.setScale(2, RoundingMode.HALF_UP);
+
+        // Create a new order with shipping and payment info
+        int orderId;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO orders (user_id, order_date, total_amount, status, shipping_address, payment_method) " +
+                "VALUES (?, NOW(), ?, 'Pending', ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, userId);
+            stmt.setBigDecimal(2, total);
+            stmt.setString(3, shippingAddress);
+            stmt.setString(4, paymentMethod);
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("Failed to create order, no ID obtained.");
+                }
+                orderId = keys.getInt(1);
+            }
+        }
+
+        // One item per book, at the same prices the total was computed from
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO order_items (order_id, book_id, quantity, price) VALUES (?, ?, ?, ?)")) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                stmt.setInt(1, orderId);
+                stmt.setInt(2, entry.getKey());
+                stmt.setInt(3, entry.getValue());
+                stmt.setBigDecimal(4, prices.get(entry.getKey()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        // Stock was checked under lock above, so this cannot go negative
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE books SET stock_quantity = stock_quantity - ? WHERE id = ?")) {
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setInt(2, entry.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        CatalogChanges.recordCartStock(conn, userId);
+
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM cart WHERE user_id = ?")) {
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+        }
+
+        // Last, since every checkout queues on these rows until commit
+        SalesSeries.orderPlaced(conn, total);
+        StoreStats.orderPlaced(conn, total);
+
+        Placed placed = new Placed();
+        placed.orderId = orderId;
+        placed.total = total;
+        placed.bookIds = new ArrayList<>(quantities.keySet());
+        return placed;
+    }
+
+    private static boolean isRetryable(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                SQLException sql = (SQLException) t;
+                if (sql.getErrorCode() == DEADLOCK || sql.getErrorCode() == LOCK_WAIT_TIMEOUT
+                        || "40001".equals(sql.getSQLState())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static class Placed {
+        int orderId;
+        BigDecimal total;
+        List<Integer> bookIds;
+    }
+
+    // Concurrency stress test against a local database. Creates throwaway
+    // users whose carts all want the same few titles, sets those titles to a
+    // small stock, fires every checkout at once and checks that nothing was
+    // oversold: stock never goes negative and what was ordered equals what
+    // left stock. Everything it creates is removed and the stock restored.
+    //   java chescabookstore.CheckoutService [bookIds=1,2,3] [threads=32] [stock=10]
+    public static void main(String[] args) throws Exception {
+        String[] idArgs = (args.length > 0 ? args[0] : "1,2,3").split(",");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int stock = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int[] bookIds = new int[idArgs.length];
+        for (int i = 0; i < idArgs.length; i++) {
+            bookIds[i] = Integer.parseInt(idArgs[i].trim());
+        }
+
+        String tag = "stress_" + Long.toHexString(System.nanoTime());
+        Map<Integer, Integer> originalStock = new TreeMap<>();
+        List<Integer> userIds = new ArrayList<>();
+        List<Integer> orderIds = Collections.synchronizedList(new ArrayList<>());
+        boolean passed = false;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try {
+                for (int bookId : bookIds) {
+                    try (PreparedStatement stmt = conn.prepareStatement("SELECT stock_quantity FROM books WHERE id = ?")) {
+                        stmt.setInt(1, bookId);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            if (!rs.next()) {
+                                throw new SQLException("No book with id " + bookId);
+                            }
+                            originalStock.put(bookId, rs.getInt(1));
+                        }
+                    }
+                    try (PreparedStatement stmt = conn.prepareStatement("UPDATE books SET stock_quantity = ? WHERE id = ?")) {
+                        stmt.setInt(1, stock);
+                        stmt.setInt(2, bookId);
+                        stmt.executeUpdate();
+                    }
+                }
+
+                // One user per thread, each with 1-2 copies of a random subset of the titles
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < threads; i++) {
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "INSERT INTO users (username, password, email, role_id) VALUES (?, '-', ?, 1)",
+                            Statement.RETURN_GENERATED_KEYS)) {
+                        stmt.setString(1, tag + "_" + i);
+                        stmt.setString(2, tag + "_" + i + "@example.invalid");
+                        stmt.executeUpdate();
+                        try (ResultSet keys = stmt.getGeneratedKeys()) {
+                            keys.next();
+                            userIds.add(keys.getInt(1));
+                        }
+                    }
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "INSERT INTO cart (user_id, book_id, quantity) VALUES (?, ?, ?)")) {
+                        boolean any = false;
+                        for (int bookId : bookIds) {
+                            if (random.nextBoolean() || (!any && bookId == bookIds[bookIds.length - 1])) {
+                                stmt.setInt(1, userIds.get(i));
+                                stmt.setInt(2, bookId);
+                                stmt.setInt(3, 1 + random.nextInt(2));
+                                stmt.addBatch();
+                                any = true;
+                            }
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+
+                CountDownLatch start = new CountDownLatch(1);
+                CountDownLatch done = new CountDownLatch(threads);
+                AtomicInteger placed = new AtomicInteger();
+                AtomicInteger rejected = new AtomicInteger();
+                AtomicInteger failed = new AtomicInteger();
+                for (int userId : userIds) {
+                    new Thread(() -> {
+                        try {
+                            start.await();
+                            orderIds.add(checkout(userId, "Stress test", "Cash On Delivery").getOrderId());
+                            placed.incrementAndGet();
+                        } catch (OutOfStockException e) {
+                            rejected.incrementAndGet();
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            e.printStackTrace();
+                        } finally {
+                            done.countDown();
+                        }
+                    }, "checkout-stress-" + userId).start();
+                }
+                long began = System.nanoTime();
+                start.countDown();
+                done.await();
+                long elapsedMs = (System.nanoTime() - began) / 1_000_000;
+
+                // Verify: no negative stock, and ordered == stock that left
+                passed = failed.get() == 0;
+                for (int bookId : bookIds) {
+                    int remaining;
+                    try (PreparedStatement stmt = conn.prepareStatement("SELECT stock_quantity FROM books WHERE id = ?")) {
+                        stmt.setInt(1, bookId);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            rs.next();
+                            remaining = rs.getInt(1);
+                        }
+                    }
+                    int ordered = 0;
+                    if (!orderIds.isEmpty()) {
+                        try (PreparedStatement stmt = conn.prepareStatement(
+                                "SELECT COALESCE(SUM(quantity), 0) FROM order_items WHERE book_id = ? AND order_id IN ("
+                                        + String.join(",", Collections.nCopies(orderIds.size(), "?")) + ")")) {
+                            stmt.setInt(1, bookId);
+                            for (int i = 0; i < orderIds.size(); i++) {
+                                stmt.setInt(i + 2, orderIds.get(i));
+                            }
+                            try (ResultSet rs = stmt.executeQuery()) {
+                                rs.next();
+                                ordered = rs.getInt(1);
+                            }
+                        }
+                    }
+                    boolean ok = remaining >= 0 && ordered == stock - remaining;
+                    passed &= ok;
+                    System.out.printf("book %d: stock %d -> %d, ordered %d %s%n", bookId, stock, remaining, ordered,
+                            ok ? "ok" : "OVERSOLD/MISMATCH");
+                }
+                System.out.printf("%d checkouts in %d ms: placed=%d out-of-stock=%d failed=%d retries=%d%n",
+                        threads, elapsedMs, placed.get(), rejected.get(), failed.get(), RETRIES.get());
+            } finally {
+                cleanUp(conn, userIds, orderIds, originalStock);
+            }
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+
+        System.out.println(passed ? "PASS" : "FAIL");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static void cleanUp(Connection conn, List<Integer> userIds, List<Integer> orderIds,
+                                Map<Integer, Integer> originalStock) throws SQLException {
+        for (int orderId : orderIds) {
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM order_items WHERE order_id = ?")) {
+                stmt.setInt(1, orderId);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM orders WHERE id = ?")) {
+                stmt.setInt(1, orderId);
+                stmt.executeUpdate();
+            }
+        }
+        for (int userId : userIds) {
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM cart WHERE user_id = ?")) {
+                stmt.setInt(1, userId);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM users WHERE id = ?")) {
+                stmt.setInt(1, userId);
+                stmt.executeUpdate();
+            }
+        }
+        for (Map.Entry<Integer, Integer> entry : originalStock.entrySet()) {
+            try (PreparedStatement stmt = conn.prepareStatement("UPDATE books SET stock_quantity = ? WHERE id = ?")) {
+                stmt.setInt(1, entry.getValue());
+                stmt.setInt(2, entry.getKey());
+                stmt.executeUpdate();
+            }
+            CatalogChanges.record(conn, entry.getKey(), CatalogChanges.STOCK);
+        }
+        // The test's orders and users bypassed signup and are gone again
+        StoreStats.rebuild(conn);
+        SalesSeries.rebuild(conn, LocalDate.now().minusDays(1), LocalDate.now());
+    }
+}
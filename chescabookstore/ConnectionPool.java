@@ -0,0 +1,387 @@
+package chescabookstore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Bounded JDBC connection pool. Callers get a proxy Connection whose close()
+// hands the physical connection back to the pool instead of closing it, so
+// the usual try-with-resources code keeps working unchanged.
+public class ConnectionPool {
+
+    // Connections returned this recently are trusted without a validation round trip
+    private static final long VALIDATION_SKIP_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 5000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+
+    // Most recently returned connection first, so cold ones age out via idle eviction
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalCount = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // First run also pre-warms the pool up to minSize off the caller's thread
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+
+        Instrumentation.gauge("db.pool.active", this::getActiveCount);
+        Instrumentation.gauge("db.pool.idle", this::getIdleCount);
+        Instrumentation.gauge("db.pool.total", this::getTotalCount);
+    }
+
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            if (closed) {
+                throw new SQLException("Connection pool has been shut down");
+            }
+
+            PooledConnection pooled = idle.pollFirst();
+            if (pooled == null) {
+                if (reserveSlot()) {
+                    try {
+                        pooled = open();
+                    } catch (SQLException e) {
+                        totalCount.decrementAndGet();
+                        throw e;
+                    }
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        Instrumentation.counter("db.pool.timeouts").increment();
+                        throw new SQLException("Timed out after " + borrowTimeoutMillis
+                                + " ms waiting for a database connection (" + maxSize + " in use)");
+                    }
+                    try {
+                        pooled = idle.pollFirst(remaining, TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    }
+                    if (pooled == null) {
+                        continue;
+                    }
+                }
+            } else if (!validate(pooled)) {
+                discard(pooled);
+                continue;
+            }
+
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowSite = new Throwable("Connection borrowed by " + Thread.currentThread().getName());
+            pooled.leakReported = false;
+            active.add(pooled);
+
+            Instrumentation.timer("db.pool.wait").record(System.nanoTime() - start);
+            return pooled.newHandle();
+        }
+    }
+
+    // Page sessions hold their connection for the life of a window on purpose;
+    // they are accounted for by DbSession instead of the leak detector
+    public void exemptFromLeakDetection(Connection handle) {
+        if (Proxy.isProxyClass(handle.getClass())
+                && Proxy.getInvocationHandler(handle) instanceof Handle) {
+            ((Handle) Proxy.getInvocationHandler(handle)).pooled.leakReported = true;
+        }
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalCount() {
+        return totalCount.get();
+    }
+
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = totalCount.get();
+            if (current >= maxSize) {
+                return false;
+            }
+            if (totalCount.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        long start = System.nanoTime();
+        Connection physical = DriverManager.getConnection(url, user, password);
+        Instrumentation.timer("db.pool.connect").record(System.nanoTime() - start);
+        return new PooledConnection(physical);
+    }
+
+    private boolean validate(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastReturnedAt < VALIDATION_SKIP_MILLIS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        active.remove(pooled);
+
+        boolean reusable = !closed;
+        try {
+            // Never hand the next borrower someone else's open transaction
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.physical.clearWarnings();
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        if (reusable) {
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } else {
+            discard(pooled);
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalCount.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Connection is being thrown away anyway
+        }
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            // Idle eviction, oldest first, never dropping below the minimum size
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && totalCount.get() > minSize) {
+                PooledConnection pooled = oldestFirst.next();
+                if (now - pooled.lastReturnedAt > idleTimeoutMillis && idle.remove(pooled)) {
+                    discard(pooled);
+                    Instrumentation.counter("db.pool.evicted").increment();
+                }
+            }
+
+            // Top the pool back up to its minimum size
+            while (!closed && totalCount.get() < minSize && reserveSlot()) {
+                try {
+                    PooledConnection pooled = open();
+                    pooled.lastReturnedAt = System.currentTimeMillis();
+                    idle.offerLast(pooled);
+                } catch (SQLException e) {
+                    totalCount.decrementAndGet();
+                    break;
+                }
+            }
+
+            // Leak detection: report each long-held connection once, with its borrow site
+            for (PooledConnection pooled : active) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMillis) {
+                    pooled.leakReported = true;
+                    Instrumentation.counter("db.pool.leaks").increment();
+                    System.err.println("Possible connection leak: connection held for "
+                            + (now - pooled.borrowedAt) / 1000 + "s");
+                    pooled.borrowSite.printStackTrace();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep the housekeeper alive whatever happens
+            e.printStackTrace();
+        }
+    }
+
+    // One physical connection plus its pool bookkeeping
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private volatile long lastReturnedAt;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = new StatementCache(physical, statementCacheSize);
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    // Per-borrow view of a pooled connection; unusable once closed. Statements
+    // opened through it are closed with it, because the physical connection
+    // (and anything left open on it) outlives the borrow.
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean closed;
+
+        private Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result;
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!closed) {
+                            closed = true;
+                            closeStatements();
+                            release(pooled);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled(" + pooled.physical + ")";
+                case "prepareStatement":
+                    // Plain prepareStatement(sql) goes through the per-connection cache
+                    if (args.length == 1) {
+                        checkOpen();
+                        result = pooled.statementCache.prepare((String) args[0]);
+                        break;
+                    }
+                    result = invokePhysical(method, args);
+                    break;
+                default:
+                    result = invokePhysical(method, args);
+                    break;
+            }
+            if (result instanceof Statement) {
+                track((Statement) result);
+            }
+            return result;
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            checkOpen();
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void checkOpen() throws SQLException {
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+        }
+
+        private synchronized void track(Statement statement) throws SQLException {
+            if (closed) {
+                // Lost a race with close(); don't leave it open on the pooled connection
+                statement.close();
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            // Drop statements the caller already closed so the list stays short
+            statements.removeIf(s -> {
+                try {
+                    return s.isClosed();
+                } catch (SQLException e) {
+                    return true;
+                }
+            });
+            statements.add(statement);
+        }
+
+        // Cached statements go back to the cache, the rest are closed for real
+        private void closeStatements() {
+            int leaked = 0;
+            for (Statement statement : statements) {
+                try {
+                    if (!statement.isClosed()) {
+                        leaked++;
+                        statement.close();
+                    }
+                } catch (SQLException e) {
+                    // The connection is validated again before its next borrow
+                }
+            }
+            statements.clear();
+            if (leaked > 0) {
+                Instrumentation.counter("db.pool.unclosed_statements").add(leaked);
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package chescabookstore;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.IIOImage;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.swing.ImageIcon;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Iterator;
+
+// Decodes covers at roughly the size they will be shown. The image header is
+// read first, then the ImageIO reader is asked for every n-th pixel of every
+// n-th row, so a 4000x6000 phone photo bound for a 150x200 card is decoded
+// as about 300x400 and the full bitmap never exists on the heap. The result
+// still goes through CoverThumbnails.scaleToFit for the final smooth resize.
+public final class CoverDecoder {
+
+    private CoverDecoder() {
+    }
+
+    // Decoded image at least twice the box (when the source is that large),
+    // so the final downscale has enough detail to work with; null if unreadable
+    public static BufferedImage decode(URL url, int maxWidth, int maxHeight) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            // Covers on disk: read the file directly, no stream cache
+            try {
+                return decode(new File(url.toURI()), maxWidth, maxHeight);
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // Not a plain file path; read it as a stream below
+            }
+        }
+        // Closing the ImageInputStream does not close the stream under it
+        try (InputStream raw = url.openStream();
+             ImageInputStream in = ImageIO.createImageInputStream(raw)) {
+            return decode(in, maxWidth, maxHeight);
+        }
+    }
+
+    public static BufferedImage decode(File file, int maxWidth, int maxHeight) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            return decode(in, maxWidth, maxHeight);
+        }
+    }
+
+    // Decoded and scaled to fit the box
+    public static BufferedImage decodeToFit(URL url, int maxWidth, int maxHeight) throws IOException {
+        BufferedImage image = decode(url, maxWidth, maxHeight);
+        return image == null ? null : CoverThumbnails.scaleToFit(image, maxWidth, maxHeight);
+    }
+
+    private static BufferedImage decode(ImageInputStream in, int maxWidth, int maxHeight) throws IOException {
+        if (in == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(in, true, true);
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+
+            ImageReadParam param = reader.getDefaultReadParam();
+            int step = subsampling(width, height, maxWidth, maxHeight);
+            if (step > 1) {
+                param.setSourceSubsampling(step, step, 0, 0);
+            }
+            return reader.read(0, param);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    // Largest pixel step that still leaves 2x the box along the limiting side
+    static int subsampling(int width, int height, int maxWidth, int maxHeight) {
+        double ratio = Math.min((double) maxWidth / width, (double) maxHeight / height);
+        if (ratio >= 0.5) {
+            return 1;
+        }
+        return Math.max(1, (int) Math.floor(0.5 / ratio));
+    }
+
+    // Compares this decoder with the old ImageIcon + getScaledInstance path on a
+    // synthetic 4000x6000 JPEG. Reports median latency and the peak heap growth
+    // of one decode (sum of heap pool peaks after a GC and a peak reset).
+    // Run with e.g. -Xmx512m -Djava.awt.headless=true.
+    public static void main(String[] args) throws Exception {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 6000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        File photo = File.createTempFile("cover-bench", ".jpg");
+        photo.deleteOnExit();
+        writeSamplePhoto(photo, width, height);
+        URL url = photo.toURI().toURL();
+        System.out.printf("source %dx%d, %d KB%n", width, height, photo.length() / 1024);
+
+        for (int[] box : new int[][]{{60, 90}, {150, 200}, {250, 350}}) {
+            int w = box[0];
+            int h = box[1];
+            long[] legacy = measure(iterations, () -> legacyDecode(url, w, h));
+            long[] subsampled = measure(iterations, () -> decodeToFit(url, w, h));
+            System.out.printf("%dx%d  ImageIcon+getScaledInstance: %6.1f ms, peak +%4d MB   CoverDecoder: %6.1f ms, peak +%4d MB%n",
+                    w, h, legacy[0] / 1e6, legacy[1] >> 20, subsampled[0] / 1e6, subsampled[1] >> 20);
+        }
+    }
+
+    private interface Decode {
+        Image run() throws Exception;
+    }
+
+    // {median nanos, max peak heap growth in bytes}
+    private static long[] measure(int iterations, Decode decode) throws Exception {
+        // Warm up the reader and scaling code paths
+        for (int i = 0; i < 2; i++) {
+            decode.run();
+        }
+        long[] nanos = new long[iterations];
+        long peak = 0;
+        for (int i = 0; i < iterations; i++) {
+            System.gc();
+            long baseline = heapUsed();
+            resetPeaks();
+
+            long start = System.nanoTime();
+            Image image = decode.run();
+            nanos[i] = System.nanoTime() - start;
+
+            peak = Math.max(peak, heapPeak() - baseline);
+            if (image == null) {
+                throw new IOException("decode failed");
+            }
+        }
+        Arrays.sort(nanos);
+        return new long[]{nanos[iterations / 2], peak};
+    }
+
+    // What the pages did before the cover cache: decode everything, then scale
+    private static Image legacyDecode(URL url, int maxWidth, int maxHeight) {
+        // createImage rather than ImageIcon(URL), which would reuse the toolkit's cached decode
+        ImageIcon originalIcon = new ImageIcon(Toolkit.getDefaultToolkit().createImage(url));
+        Image originalImage = originalIcon.getImage();
+        double ratio = Math.min((double) maxWidth / originalImage.getWidth(null),
+                (double) maxHeight / originalImage.getHeight(null));
+        int scaledWidth = (int) (originalImage.getWidth(null) * ratio);
+        int scaledHeight = (int) (originalImage.getHeight(null) * ratio);
+        Image scaled = originalImage.getScaledInstance(scaledWidth, scaledHeight, Image.SCALE_SMOOTH);
+        // ImageIcon waits for the scaled image to be produced, as a JLabel would
+        return new ImageIcon(scaled).getImage();
+    }
+
+    private static long heapUsed() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static long heapPeak() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static void writeSamplePhoto(File file, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setPaint(new GradientPaint(0, 0, new Color(39, 55, 77), width, height, new Color(221, 230, 237)));
+        g2d.fillRect(0, 0, width, height);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(new Font("Serif", Font.BOLD, width / 10));
+        g2d.drawString("Cover", width / 5, height / 2);
+        g2d.dispose();
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(0.9f);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
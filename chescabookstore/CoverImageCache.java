@@ -0,0 +1,197 @@
+package chescabookstore;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Process-wide cache of scaled book covers, keyed by file name and target box.
+// Every page asks here instead of decoding /assets/<file> itself, so a cover
+// is decoded and scaled once per size. Recently used covers are held strongly
+// up to a byte budget (-Dbookstore.covercache.bytes, default 32MB); covers
+// evicted from that LRU stay reachable through soft references until the GC
+// needs the memory.
+public final class CoverImageCache {
+
+    private static final long MAX_BYTES = Long.getLong("bookstore.covercache.bytes", 32L * 1024 * 1024);
+
+    private static final Color PLACEHOLDER_BG = new Color(230, 230, 240);
+    private static final Color PLACEHOLDER_TEXT = new Color(150, 150, 150);
+
+    private static final Instrumentation.Counter HITS = Instrumentation.counter("ui.covercache.hits");
+    private static final Instrumentation.Counter SOFT_HITS = Instrumentation.counter("ui.covercache.softhits");
+    private static final Instrumentation.Counter MISSES = Instrumentation.counter("ui.covercache.misses");
+    private static final Instrumentation.Counter EVICTIONS = Instrumentation.counter("ui.covercache.evictions");
+    private static final Instrumentation.Timer LOAD_TIME = Instrumentation.timer("ui.covercache.load");
+
+    // Guarded by the class lock
+    private static final LinkedHashMap<String, ImageIcon> STRONG = new LinkedHashMap<>(64, 0.75f, true);
+    private static final Map<String, SoftEntry> SOFT = new HashMap<>();
+    private static final ReferenceQueue<ImageIcon> CLEARED = new ReferenceQueue<>();
+    private static final Map<String, ImageIcon> PLACEHOLDERS = new HashMap<>();
+    private static long strongBytes;
+
+    static {
+        Instrumentation.gauge("ui.covercache.bytes", () -> {
+            synchronized (CoverImageCache.class) {
+                return strongBytes;
+            }
+        });
+        Instrumentation.gauge("ui.covercache.entries", () -> {
+            synchronized (CoverImageCache.class) {
+                return STRONG.size();
+            }
+        });
+    }
+
+    private CoverImageCache() {
+    }
+
+    // Cover scaled to fit maxWidth x maxHeight keeping its aspect ratio, or null
+    // if the file is missing or unreadable. Safe to call from any thread.
+    public static ImageIcon get(String coverImage, int maxWidth, int maxHeight) {
+        if (coverImage == null || coverImage.isEmpty()) {
+            return null;
+        }
+        String key = coverImage + '@' + maxWidth + 'x' + maxHeight;
+        ImageIcon icon = lookup(key);
+        if (icon != null) {
+            return icon;
+        }
+
+        // Decode outside the lock; two threads may race on the same cover, which is harmless
+        MISSES.increment();
+        long start = System.nanoTime();
+        icon = load(coverImage, maxWidth, maxHeight);
+        LOAD_TIME.record(System.nanoTime() - start);
+        if (icon != null) {
+            store(key, icon);
+        }
+        return icon;
+    }
+
+    // Cached cover, or null without decoding anything; cheap enough for the EDT
+    public static ImageIcon getIfPresent(String coverImage, int maxWidth, int maxHeight) {
+        if (coverImage == null || coverImage.isEmpty()) {
+            return null;
+        }
+        return lookup(coverImage + '@' + maxWidth + 'x' + maxHeight);
+    }
+
+    // The shared "No Image" tile for a given size
+    public static synchronized ImageIcon placeholder(int width, int height) {
+        return PLACEHOLDERS.computeIfAbsent(width + "x" + height, k -> createPlaceholder(width, height));
+    }
+
+    public static synchronized void clear() {
+        STRONG.clear();
+        SOFT.clear();
+        strongBytes = 0;
+    }
+
+    private static synchronized ImageIcon lookup(String key) {
+        ImageIcon icon = STRONG.get(key);
+        if (icon != null) {
+            HITS.increment();
+            return icon;
+        }
+        SoftEntry soft = SOFT.remove(key);
+        if (soft != null && (icon = soft.get()) != null) {
+            // Still around after eviction; promote it back into the LRU
+            SOFT_HITS.increment();
+            putStrong(key, icon);
+            return icon;
+        }
+        return null;
+    }
+
+    private static synchronized void store(String key, ImageIcon icon) {
+        if (!STRONG.containsKey(key)) {
+            putStrong(key, icon);
+        }
+    }
+
+    private static void putStrong(String key, ImageIcon icon) {
+        STRONG.put(key, icon);
+        strongBytes += bytesOf(icon);
+
+        Iterator<Map.Entry<String, ImageIcon>> eldest = STRONG.entrySet().iterator();
+        while (strongBytes > MAX_BYTES && STRONG.size() > 1) {
+            Map.Entry<String, ImageIcon> entry = eldest.next();
+            eldest.remove();
+            strongBytes -= bytesOf(entry.getValue());
+            SOFT.put(entry.getKey(), new SoftEntry(entry.getKey(), entry.getValue()));
+            EVICTIONS.increment();
+        }
+        purgeCleared();
+    }
+
+    // Drop soft entries whose covers the GC already reclaimed
+    private static void purgeCleared() {
+        SoftEntry cleared;
+        while ((cleared = (SoftEntry) CLEARED.poll()) != null) {
+            if (SOFT.get(cleared.key) == cleared) {
+                SOFT.remove(cleared.key);
+            }
+        }
+    }
+
+    private static long bytesOf(ImageIcon icon) {
+        return 4L * icon.getIconWidth() * icon.getIconHeight();
+    }
+
+    private static ImageIcon load(String coverImage, int maxWidth, int maxHeight) {
+        try {
+            // Uploads come with pre-generated sizes; those need no scaling at all
+            URL thumbnail = CoverImageCache.class.getResource("/assets/" + CoverThumbnails.thumbnailName(coverImage, maxWidth, maxHeight));
+            if (thumbnail != null) {
+                BufferedImage image = ImageIO.read(thumbnail);
+                if (image != null) {
+                    return new ImageIcon(image);
+                }
+            }
+
+            // Older covers without thumbnails are decoded subsampled from the original
+            URL url = CoverImageCache.class.getResource("/assets/" + coverImage);
+            if (url == null) {
+                return null;
+            }
+            BufferedImage scaled = CoverDecoder.decodeToFit(url, maxWidth, maxHeight);
+            return scaled == null ? null : new ImageIcon(scaled);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static ImageIcon createPlaceholder(int width, int height) {
+        // Light gray tile with "No Image" centered
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(PLACEHOLDER_BG);
+        g2d.fillRect(0, 0, width, height);
+        g2d.setColor(PLACEHOLDER_TEXT);
+        g2d.setFont(new Font("Segoe UI", Font.PLAIN, 10));
+        FontMetrics metrics = g2d.getFontMetrics();
+        String text = "No Image";
+        g2d.drawString(text, (width - metrics.stringWidth(text)) / 2, height / 2);
+        g2d.dispose();
+        return new ImageIcon(image);
+    }
+
+    private static final class SoftEntry extends SoftReference<ImageIcon> {
+        private final String key;
+
+        SoftEntry(String key, ImageIcon icon) {
+            super(icon, CLEARED);
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package chescabookstore;
+
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+// Loads covers through CoverImageCache on a small pool of decoder threads so
+// the EDT never decodes or scales an image. Callers show a placeholder, then
+// swap in the cover when the callback arrives on the EDT. Like DbExecutor,
+// each load belongs to a window and is dropped once that window is disposed;
+// callers also cancel a load themselves when its card or row is reused.
+public final class CoverLoader {
+
+    private static final int DECODER_COUNT = Integer.getInteger("bookstore.cover.decoders", 2);
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private static final ExecutorService DECODERS = Executors.newFixedThreadPool(DECODER_COUNT, r -> {
+        Thread thread = new Thread(r, "cover-decoder-" + THREAD_NUMBER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private static final Instrumentation.Counter CANCELLED = Instrumentation.counter("ui.coverloader.cancelled");
+
+    // Pending loads per owning window
+    private static final Map<Window, List<Request>> REQUESTS = new WeakHashMap<>();
+
+    private CoverLoader() {
+    }
+
+    // Delivers the cover (or null if there is none) to onLoaded on the EDT.
+    // Covers already in the cache are delivered before this returns, and then
+    // no request is returned.
+    public static Request load(Window owner, String coverImage, int maxWidth, int maxHeight,
+                               Consumer<ImageIcon> onLoaded) {
+        if (coverImage == null || coverImage.isEmpty()) {
+            onLoaded.accept(null);
+            return null;
+        }
+        ImageIcon cached = CoverImageCache.getIfPresent(coverImage, maxWidth, maxHeight);
+        if (cached != null) {
+            onLoaded.accept(cached);
+            return null;
+        }
+
+        Request request = new Request(owner, coverImage, maxWidth, maxHeight, onLoaded);
+        register(request);
+        DECODERS.execute(request);
+        return request;
+    }
+
+    // Cancel everything still pending for a window; called when it is disposed
+    public static void cancelAll(Window owner) {
+        List<Request> requests;
+        synchronized (REQUESTS) {
+            requests = REQUESTS.remove(owner);
+        }
+        if (requests != null) {
+            for (Request request : requests) {
+                request.cancel();
+            }
+        }
+    }
+
+    private static void register(Request request) {
+        synchronized (REQUESTS) {
+            List<Request> requests = REQUESTS.get(request.owner);
+            if (requests == null) {
+                requests = new ArrayList<>();
+                REQUESTS.put(request.owner, requests);
+                request.owner.addWindowListener(new WindowAdapter() {
+                    @Override
+                    public void windowClosed(WindowEvent e) {
+                        cancelAll(e.getWindow());
+                    }
+                });
+            }
+            requests.add(request);
+        }
+    }
+
+    private static void unregister(Request request) {
+        synchronized (REQUESTS) {
+            List<Request> requests = REQUESTS.get(request.owner);
+            if (requests != null) {
+                requests.remove(request);
+            }
+        }
+    }
+
+    public static final class Request implements Runnable {
+        private final Window owner;
+        private final String coverImage;
+        private final int maxWidth;
+        private final int maxHeight;
+        private final Consumer<ImageIcon> onLoaded;
+        private volatile boolean cancelled;
+
+        private Request(Window owner, String coverImage, int maxWidth, int maxHeight, Consumer<ImageIcon> onLoaded) {
+            this.owner = owner;
+            this.coverImage = coverImage;
+            this.maxWidth = maxWidth;
+            this.maxHeight = maxHeight;
+            this.onLoaded = onLoaded;
+        }
+
+        // Safe to call from any thread; the callback never runs after this returns on the EDT
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                CANCELLED.increment();
+            }
+        }
+
+        @Override
+        public void run() {
+            // Cards scrolled past quickly are usually cancelled before a decoder gets to them
+            if (cancelled) {
+                unregister(this);
+                return;
+            }
+            ImageIcon icon = CoverImageCache.get(coverImage, maxWidth, maxHeight);
+            SwingUtilities.invokeLater(() -> {
+                unregister(this);
+                if (!cancelled) {
+                    onLoaded.accept(icon);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package chescabookstore;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Stores uploaded covers and pre-generates the sizes the UI shows, so pages
+// load a small JPEG instead of scaling the original at view time. For an
+// upload saved as <uuid>.<ext> this writes <uuid>_150x200.jpg (book card),
+// <uuid>_250x350.jpg (details page) and <uuid>_60x90.jpg (cart/wishlist rows)
+// next to it in /assets. Each size fits inside its box keeping the aspect ratio.
+public final class CoverThumbnails {
+
+    public static final int[][] SIZES = {
+            {150, 200},
+            {250, 350},
+            {60, 90}
+    };
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private CoverThumbnails() {
+    }
+
+    // Copies an uploaded cover into /assets under a unique name, generates its
+    // thumbnails and returns the stored file name (what books.cover_image keeps).
+    // Everything is built in a staging directory inside /assets and only moved
+    // into place once every size was written, so a cover that fails to decode
+    // leaves nothing behind.
+    public static String storeUpload(File source) throws IOException, URISyntaxException {
+        File assetsDir = assetsDirectory();
+
+        // Generate a unique filename to avoid overwriting
+        String originalFileName = source.getName();
+        int dot = originalFileName.lastIndexOf('.');
+        String fileExt = dot >= 0 ? originalFileName.substring(dot) : "";
+        String uniqueFileName = UUID.randomUUID().toString() + fileExt;
+
+        List<String> names = new ArrayList<>();
+        for (int[] size : SIZES) {
+            names.add(thumbnailName(uniqueFileName, size[0], size[1]));
+        }
+        // The original goes last: books only reference it once the insert commits,
+        // but until then nothing should find it without its thumbnails
+        names.add(uniqueFileName);
+
+        Path staging = Files.createTempDirectory(assetsDir.toPath(), ".upload-");
+        List<Path> moved = new ArrayList<>();
+        try {
+            Files.copy(source.toPath(), staging.resolve(uniqueFileName));
+            generate(staging.toFile(), uniqueFileName);
+            for (String name : names) {
+                Path target = assetsDir.toPath().resolve(name);
+                Files.move(staging.resolve(name), target, StandardCopyOption.ATOMIC_MOVE);
+                moved.add(target);
+            }
+            return uniqueFileName;
+        } catch (IOException | RuntimeException e) {
+            for (Path path : moved) {
+                Files.deleteIfExists(path);
+            }
+            throw e;
+        } finally {
+            deleteStaging(staging);
+        }
+    }
+
+    private static void deleteStaging(Path staging) {
+        File[] leftovers = staging.toFile().listFiles();
+        if (leftovers != null) {
+            for (File file : leftovers) {
+                file.delete();
+            }
+        }
+        staging.toFile().delete();
+    }
+
+    // Decodes the original once, only as large as the biggest size needs, and
+    // writes every thumbnail size for it
+    public static void generate(File assetsDir, String coverImage) throws IOException {
+        BufferedImage original = CoverDecoder.decode(new File(assetsDir, coverImage), SIZES[1][0], SIZES[1][1]);
+        if (original == null) {
+            throw new IOException("Unsupported image format: " + coverImage);
+        }
+        for (int[] size : SIZES) {
+            BufferedImage thumbnail = scaleToFit(original, size[0], size[1]);
+            writeJpeg(thumbnail, new File(assetsDir, thumbnailName(coverImage, size[0], size[1])));
+        }
+    }
+
+    public static String thumbnailName(String coverImage, int width, int height) {
+        int dot = coverImage.lastIndexOf('.');
+        String base = dot > 0 ? coverImage.substring(0, dot) : coverImage;
+        return base + "_" + width + "x" + height + ".jpg";
+    }
+
+    // The /assets directory on the classpath, created next to the classes if missing
+    public static File assetsDirectory() throws URISyntaxException {
+        URL resourceUrl = CoverThumbnails.class.getResource("/assets");
+        if (resourceUrl != null) {
+            return new File(resourceUrl.toURI());
+        }
+        // Assets directory doesn't exist in classpath, try to create it
+        String basePath = new File(CoverThumbnails.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        File assetsDir = new File(basePath, "assets");
+        if (!assetsDir.exists()) {
+            assetsDir.mkdirs();
+        }
+        return assetsDir;
+    }
+
+    // Scales to fit inside maxWidth x maxHeight on an opaque RGB image. Large
+    // reductions halve repeatedly with bilinear filtering before the last step,
+    // which keeps detail that a single bilinear/bicubic pass would alias away.
+    public static BufferedImage scaleToFit(BufferedImage source, int maxWidth, int maxHeight) {
+        double ratio = Math.min((double) maxWidth / source.getWidth(), (double) maxHeight / source.getHeight());
+        int targetWidth = Math.max(1, (int) (source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) (source.getHeight() * ratio));
+
+        BufferedImage current = toRgb(source);
+        int width = current.getWidth();
+        int height = current.getHeight();
+        while (width / 2 >= targetWidth && height / 2 >= targetHeight) {
+            width /= 2;
+            height /= 2;
+            current = draw(current, width, height, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        if (width != targetWidth || height != targetHeight) {
+            current = draw(current, targetWidth, targetHeight, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        }
+        return current;
+    }
+
+    private static BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        // Transparent PNG/GIF covers go onto white, since JPEG has no alpha
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = rgb.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, source.getWidth(), source.getHeight());
+        g2d.drawImage(source, 0, 0, null);
+        g2d.dispose();
+        return rgb;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, Object interpolation) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = scaled.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(source, 0, 0, width, height, null);
+        g2d.dispose();
+        return scaled;
+    }
+
+    private static void writeJpeg(BufferedImage image, File file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Backfills thumbnails for covers already referenced by books.
+    // Covers that have all their sizes are skipped unless --force is given.
+    public static void main(String[] args) throws Exception {
+        boolean force = args.length > 0 && args[0].equals("--force");
+        File assetsDir = assetsDirectory();
+
+        List<String> covers = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT DISTINCT cover_image FROM books WHERE cover_image IS NOT NULL AND cover_image <> ''");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                covers.add(rs.getString("cover_image"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return;
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+
+        int generated = 0;
+        int skipped = 0;
+        int failed = 0;
+        for (String cover : covers) {
+            if (!new File(assetsDir, cover).isFile()) {
+                System.out.println("missing original: " + cover);
+                failed++;
+                continue;
+            }
+            if (!force && hasAllThumbnails(assetsDir, cover)) {
+                skipped++;
+                continue;
+            }
+            try {
+                generate(assetsDir, cover);
+                generated++;
+            } catch (IOException e) {
+                System.out.println("failed: " + cover + " (" + e.getMessage() + ")");
+                failed++;
+            }
+        }
+        System.out.printf("covers=%d generated=%d skipped=%d failed=%d%n", covers.size(), generated, skipped, failed);
+    }
+
+    private static boolean hasAllThumbnails(File assetsDir, String coverImage) {
+        for (int[] size : SIZES) {
+            if (!new File(assetsDir, thumbnailName(coverImage, size[0], size[1])).isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
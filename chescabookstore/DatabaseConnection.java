@@ -5,16 +5,53 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/book_store_db";
+    // Server-side prepared statements, with the driver's own statement cache as a backstop
+    private static final String DB_URL = "jdbc:mysql://localhost:3306/book_store_db"
+            + "?useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048";
     private static final String USER = "root";
     private static final String PASS = "";
-    
+
+    // Pool settings, overridable with -Dbookstore.pool.* system properties
+    private static final int POOL_MIN_SIZE = Integer.getInteger("bookstore.pool.min", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("bookstore.pool.max", 10);
+    private static final long BORROW_TIMEOUT_MILLIS = Long.getLong("bookstore.pool.borrowTimeoutMs", 10000L);
+    private static final long IDLE_TIMEOUT_MILLIS = Long.getLong("bookstore.pool.idleTimeoutMs", 300000L);
+    private static final long LEAK_THRESHOLD_MILLIS = Long.getLong("bookstore.pool.leakThresholdMs", 60000L);
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("bookstore.pool.stmtCacheSize", 64);
+
+    private static ConnectionPool pool;
+
+    // Borrow a pooled connection; close() returns it to the pool
     public static Connection getConnection() throws SQLException {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(DB_URL, USER, PASS);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("Database driver not found: " + e.getMessage());
+        return getPool().borrow();
+    }
+
+    public static synchronized ConnectionPool getPool() throws SQLException {
+        if (pool == null) {
+            try {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("Database driver not found: " + e.getMessage());
+            }
+            pool = new ConnectionPool(DB_URL, USER, PASS, POOL_MIN_SIZE, POOL_MAX_SIZE,
+                    BORROW_TIMEOUT_MILLIS, IDLE_TIMEOUT_MILLIS, LEAK_THRESHOLD_MILLIS, STATEMENT_CACHE_SIZE);
+        }
+        return pool;
+    }
+
+    // Unpooled connection for long reads such as report exports. Cursor fetch
+    // makes a positive setFetchSize() pull rows from the server in batches of
+    // that size instead of buffering the whole result client-side. Close it
+    // when done; it does not hold one of the pool's connections.
+    public static Connection openStreamingConnection() throws SQLException {
+        getPool();
+        return DriverManager.getConnection(DB_URL + "&useCursorFetch=true", USER, PASS);
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
         }
     }
-}
\ No newline at end of file
+}
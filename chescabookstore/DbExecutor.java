@@ -0,0 +1,204 @@
+package chescabookstore;
+
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+// Runs database work on background threads so the Swing event dispatch
+// thread never blocks on JDBC. Results and errors are delivered back on the
+// EDT, and every task belongs to a window: once that window is disposed its
+// pending tasks are cancelled and their callbacks are dropped. Cancelling
+// doesn't stop a task that is already running, so anything that task may
+// still be using is released through whenIdle().
+public final class DbExecutor {
+
+    // Work that may touch the database; runs off the EDT
+    public interface Task<T> {
+        T run() throws Exception;
+    }
+
+    private static final int WORKER_COUNT = Integer.getInteger("bookstore.db.workers", 4);
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(WORKER_COUNT, r -> {
+        Thread thread = new Thread(r, "db-worker-" + THREAD_NUMBER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Pending jobs per owning window
+    private static final Map<Window, List<Job<?>>> JOBS = new WeakHashMap<>();
+
+    // Tasks currently running per window, and what to run once none are left.
+    // Entries only exist while something is running, so strong keys are fine.
+    private static final Object RUNNING_LOCK = new Object();
+    private static final Map<Window, Integer> RUNNING = new HashMap<>();
+    private static final Map<Window, List<Runnable>> IDLE_ACTIONS = new HashMap<>();
+
+    private DbExecutor() {
+    }
+
+    public static <T> Job<T> submit(Window owner, Task<T> task, Consumer<? super T> onSuccess,
+                                    Consumer<? super Exception> onError) {
+        Job<T> job = new Job<>(owner, task, onSuccess, onError);
+        register(job);
+        job.future = WORKERS.submit(job);
+        return job;
+    }
+
+    // Cancel everything still pending for a window; called when it is disposed
+    public static void cancelAll(Window owner) {
+        List<Job<?>> jobs;
+        synchronized (JOBS) {
+            jobs = JOBS.remove(owner);
+        }
+        if (jobs != null) {
+            for (Job<?> job : jobs) {
+                job.cancel();
+            }
+        }
+    }
+
+    // Runs action once no task of this window is running any more: right away
+    // on the calling thread if none is, otherwise on the worker that finishes
+    // last. Call after cancelAll() so no new task can start in between.
+    public static void whenIdle(Window owner, Runnable action) {
+        synchronized (RUNNING_LOCK) {
+            if (RUNNING.containsKey(owner)) {
+                IDLE_ACTIONS.computeIfAbsent(owner, w -> new ArrayList<>()).add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    // False if the job was cancelled before it got to run
+    private static boolean started(Job<?> job) {
+        synchronized (RUNNING_LOCK) {
+            if (job.cancelled) {
+                return false;
+            }
+            RUNNING.merge(job.owner, 1, Integer::sum);
+            return true;
+        }
+    }
+
+    private static void finished(Job<?> job) {
+        List<Runnable> actions;
+        synchronized (RUNNING_LOCK) {
+            if (RUNNING.merge(job.owner, -1, Integer::sum) > 0) {
+                return;
+            }
+            RUNNING.remove(job.owner);
+            actions = IDLE_ACTIONS.remove(job.owner);
+        }
+        if (actions != null) {
+            for (Runnable action : actions) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static void register(Job<?> job) {
+        synchronized (JOBS) {
+            List<Job<?>> jobs = JOBS.get(job.owner);
+            if (jobs == null) {
+                jobs = new ArrayList<>();
+                JOBS.put(job.owner, jobs);
+                // Windows that don't cancel in dispose() are still covered here
+                job.owner.addWindowListener(new WindowAdapter() {
+                    @Override
+                    public void windowClosed(WindowEvent e) {
+                        cancelAll(e.getWindow());
+                    }
+                });
+            }
+            jobs.add(job);
+        }
+    }
+
+    private static void unregister(Job<?> job) {
+        synchronized (JOBS) {
+            List<Job<?>> jobs = JOBS.get(job.owner);
+            if (jobs != null) {
+                jobs.remove(job);
+            }
+        }
+    }
+
+    public static final class Job<T> implements Runnable {
+        private final Window owner;
+        private final Task<T> task;
+        private final Consumer<? super T> onSuccess;
+        private final Consumer<? super Exception> onError;
+        private volatile Future<?> future;
+        private volatile boolean cancelled;
+
+        private Job(Window owner, Task<T> task, Consumer<? super T> onSuccess, Consumer<? super Exception> onError) {
+            this.owner = owner;
+            this.task = task;
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+
+        // Safe to call from any thread; callbacks never run after this returns on the EDT
+        public void cancel() {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(true);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            if (!started(this)) {
+                return;
+            }
+            long start = System.nanoTime();
+            T result = null;
+            Exception error = null;
+            try {
+                result = task.run();
+            } catch (Exception e) {
+                error = e;
+            } finally {
+                finished(this);
+            }
+            Instrumentation.timer("db.executor.task").record(System.nanoTime() - start);
+
+            final T value = result;
+            final Exception failure = error;
+            SwingUtilities.invokeLater(() -> {
+                unregister(this);
+                if (cancelled) {
+                    return;
+                }
+                if (failure == null) {
+                    onSuccess.accept(value);
+                } else {
+                    onError.accept(failure);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package chescabookstore;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.awt.Window;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+// Connection scope owned by a single page. The page borrows one pooled
+// connection through the session and every statement created on it is
+// tracked, so closing the session (from the page's dispose()) releases the
+// connection and any statements or cursors the page forgot to close.
+public class DbSession implements AutoCloseable {
+
+    private static final AtomicInteger OPEN_SESSIONS = new AtomicInteger();
+    private static final AtomicInteger OPEN_STATEMENTS = new AtomicInteger();
+
+    static {
+        Instrumentation.gauge("db.session.open", OPEN_SESSIONS::get);
+        Instrumentation.gauge("db.session.statements", OPEN_STATEMENTS::get);
+    }
+
+    private final String owner;
+    private final List<Statement> statements = new ArrayList<>();
+    private Connection pooled;
+    private Connection tracked;
+    private boolean closed;
+
+    public DbSession(String owner) {
+        this.owner = owner;
+        OPEN_SESSIONS.incrementAndGet();
+    }
+
+    // Lazily borrows the session's connection; the returned connection must not be closed by callers
+    public synchronized Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Database session for " + owner + " is already closed");
+        }
+        if (tracked == null) {
+            ConnectionPool pool = DatabaseConnection.getPool();
+            pooled = pool.borrow();
+            pool.exemptFromLeakDetection(pooled);
+            tracked = (Connection) Proxy.newProxyInstance(
+                    DbSession.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("close")) {
+                            // Owned by the session; released in close()
+                            return null;
+                        }
+                        Object result;
+                        try {
+                            result = method.invoke(pooled, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        if (result instanceof Statement) {
+                            track((Statement) result);
+                        }
+                        return result;
+                    });
+        }
+        return tracked;
+    }
+
+    // For a page's dispose(), after DbExecutor.cancelAll(page): a query still
+    // running on a worker keeps the connection until it returns, instead of
+    // having its statements closed under it and the connection handed on
+    public void closeWhenIdle(Window owner) {
+        DbExecutor.whenIdle(owner, this::close);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        OPEN_SESSIONS.decrementAndGet();
+
+        for (Statement statement : statements) {
+            try {
+                // Closing a statement also closes its current ResultSet
+                statement.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        OPEN_STATEMENTS.addAndGet(-statements.size());
+        statements.clear();
+
+        if (pooled != null) {
+            try {
+                pooled.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+            pooled = null;
+            tracked = null;
+        }
+    }
+
+    public static int getOpenSessionCount() {
+        return OPEN_SESSIONS.get();
+    }
+
+    public static int getOpenStatementCount() {
+        return OPEN_STATEMENTS.get();
+    }
+
+    private synchronized void track(Statement statement) {
+        // Drop statements the page already closed so the list stays short
+        Iterator<Statement> it = statements.iterator();
+        while (it.hasNext()) {
+            try {
+                if (it.next().isClosed()) {
+                    it.remove();
+                    OPEN_STATEMENTS.decrementAndGet();
+                }
+            } catch (SQLException e) {
+                it.remove();
+                OPEN_STATEMENTS.decrementAndGet();
+            }
+        }
+        statements.add(statement);
+        OPEN_STATEMENTS.incrementAndGet();
+    }
+
+    // Soak test: navigate between pages repeatedly and check handles stay flat
+    public static void main(String[] args) throws Exception {
+        int userId = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+        for (int i = 1; i <= iterations; i++) {
+            final int step = i;
+            SwingUtilities.invokeAndWait(() -> {
+                JFrame page;
+                switch (step % 5) {
+                    case 0:
+                        page = new MainPage(userId, 1);
+                        break;
+                    case 1:
+                        page = new CartPage(userId, 1);
+                        break;
+                    case 2:
+                        page = new WishlistPage(userId, 1);
+                        break;
+                    case 3:
+                        page = new OrdersPage(userId, 1);
+                        break;
+                    default:
+                        page = new ProfilePage(userId, 1);
+                }
+                page.dispose();
+            });
+
+            if (i % 1000 == 0) {
+                ConnectionPool pool = DatabaseConnection.getPool();
+                System.out.printf("%d navigations: sessions=%d statements=%d pool active=%d idle=%d%n",
+                        i, getOpenSessionCount(), getOpenStatementCount(),
+                        pool.getActiveCount(), pool.getIdleCount());
+            }
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,101 @@
+package chescabookstore;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Process-wide registry of named counters, timers and gauges.
+// Subsystems (connection pool, caches, rendering) register here so their
+// numbers can be dumped from one place, e.g. with -Dbookstore.metrics=true.
+public final class Instrumentation {
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    static {
+        if (Boolean.getBoolean("bookstore.metrics")) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(System.out), "metrics-dump"));
+        }
+    }
+
+    private Instrumentation() {
+    }
+
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, n -> new Timer());
+    }
+
+    // Gauges are sampled lazily when a snapshot is taken
+    public static void gauge(String name, LongSupplier supplier) {
+        GAUGES.put(name, supplier);
+    }
+
+    public static Map<String, String> snapshot() {
+        Map<String, String> values = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> values.put(name, String.valueOf(counter.get())));
+        GAUGES.forEach((name, gauge) -> values.put(name, String.valueOf(gauge.getAsLong())));
+        TIMERS.forEach((name, timer) -> values.put(name, timer.toString()));
+        return values;
+    }
+
+    public static void dump(PrintStream out) {
+        for (Map.Entry<String, String> entry : snapshot().entrySet()) {
+            out.println(entry.getKey() + " = " + entry.getValue());
+        }
+    }
+
+    public static final class Counter {
+        private final AtomicLong value = new AtomicLong();
+
+        public void increment() {
+            value.incrementAndGet();
+        }
+
+        public void add(long delta) {
+            value.addAndGet(delta);
+        }
+
+        public long get() {
+            return value.get();
+        }
+    }
+
+    public static final class Timer {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        public void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public double getMeanMillis() {
+            long n = count.get();
+            return n == 0 ? 0.0 : totalNanos.get() / (double) n / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.3fms max=%.3fms", getCount(), getMeanMillis(), getMaxMillis());
+        }
+    }
+}
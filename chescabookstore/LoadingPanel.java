@@ -0,0 +1,35 @@
+package chescabookstore;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+
+// Placeholder shown in a panel while its data loads in the background
+public class LoadingPanel extends JPanel {
+
+    public LoadingPanel(String message, Color background) {
+        setLayout(new GridBagLayout());
+        setBackground(background);
+        setBorder(new EmptyBorder(40, 0, 40, 0));
+
+        JPanel inner = new JPanel();
+        inner.setLayout(new BoxLayout(inner, BoxLayout.Y_AXIS));
+        inner.setOpaque(false);
+
+        JLabel label = new JLabel(message);
+        label.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        label.setForeground(new Color(100, 100, 100));
+        label.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setMaximumSize(new Dimension(160, 6));
+        progressBar.setPreferredSize(new Dimension(160, 6));
+        progressBar.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        inner.add(label);
+        inner.add(Box.createRigidArea(new Dimension(0, 10)));
+        inner.add(progressBar);
+        add(inner);
+    }
+}
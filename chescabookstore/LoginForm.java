@@ -104,17 +104,15 @@ public class LoginForm extends JFrame {
             return;
         }
         
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            String query = "SELECT id, role_id FROM users WHERE username = ? AND password = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setString(1, username);
-            stmt.setString(2, password); // In a real app, use password hashing!
-            
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                int userId = rs.getInt("id");
-                int roleId = rs.getInt("role_id");
+        // Check credentials off the EDT; the form shows a loading state meanwhile
+        btnLogin.setEnabled(false);
+        lblMessage.setText("Signing in...");
+        
+        DbExecutor.submit(this, () -> authenticate(username, password), user -> {
+            btnLogin.setEnabled(true);
+            if (user != null) {
+                int userId = user[0];
+                int roleId = user[1];
                 
                 // Login successful
                 lblMessage.setText("");
@@ -133,10 +131,28 @@ public class LoginForm extends JFrame {
             } else {
                 lblMessage.setText("Invalid username or password");
             }
-            
-        } catch (SQLException ex) {
+        }, ex -> {
+            btnLogin.setEnabled(true);
             lblMessage.setText("Database error: " + ex.getMessage());
             ex.printStackTrace();
+        });
+    }
+    
+    // Runs on a database worker thread; returns {id, role_id} or null
+    private int[] authenticate(String username, String password) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            String query = "SELECT id, role_id FROM users WHERE username = ? AND password = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                stmt.setString(1, username);
+                stmt.setString(2, password); // In a real app, use password hashing!
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return new int[]{rs.getInt("id"), rs.getInt("role_id")};
+                    }
+                    return null;
+                }
+            }
         }
     }
     
@@ -25,29 +25,43 @@ public class MainPage extends JFrame {
     private static final Font TITLE_FONT = new Font("Segoe UI", Font.BOLD, 16);
     private static final Font BODY_FONT = new Font("Segoe UI", Font.PLAIN, 12);
 
-    // Database connection
-    private Connection connection;
+    // Only used on the EDT, by the book cards
+    private static final NumberFormat PRICE_FORMAT = NumberFormat.getCurrencyInstance();
+
+    // Database session, closed when the page is disposed
+    private DbSession session;
 
     // User information
     private int currentUserId;
-    private String currentUsername;
     private int roleId;
 
     // UI Components
     private JPanel sidebarPanel;
     private JPanel contentPanel;
-    private JPanel booksPanel;
+    private BookGrid booksGrid;
     private JScrollPane scrollPane;
     private JComboBox<String> categoryComboBox;
     private JTextField searchField;
     private JButton searchButton;
+    private JCheckBox fuzzyCheckBox;
     private JLabel headerLabel;
     
     // Search and category tracking
     private String currentCategory = "All";
     private String currentSearchQuery = "";
 
-    // Add a window resize listener to adjust the book card layout
+    // Book query currently running in the background, if any
+    private DbExecutor.Job<?> booksJob;
+
+    // Infinite scroll state for the current listing
+    private static final int PAGE_SIZE = 30;
+    private String listingCategory = "All";
+    private int lastSeenId;
+    private int[] rankedIds;
+    private int rankedOffset;
+    private boolean hasMorePages;
+    private boolean pageLoading;
+
     public MainPage(int userId, int roleId) {
         if (userId == 0) {
             JOptionPane.showMessageDialog(this, "You need to log in first", 
@@ -55,35 +69,12 @@ public class MainPage extends JFrame {
             new LoginForm();
             return;
         }
-        try {
-            // Get connection from DatabaseConnection class
-            this.connection = DatabaseConnection.getConnection();
-            this.currentUserId = userId;
-            this.roleId = roleId;
-            
-            // Get username from database
-            this.currentUsername = getUsernameById(userId);
-
-            initializeUI();
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error connecting to database: " + e.getMessage(), 
-                                         "Database Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-            System.exit(1);
-        }
-    }
-    
-    private String getUsernameById(int userId) throws SQLException {
-        String username = "";
-        String query = "SELECT username FROM users WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                username = rs.getString("username");
-            }
-        }
-        return username;
+        // Borrows this page's connection on first use; released when the page is disposed
+        this.session = new DbSession("MainPage");
+        this.currentUserId = userId;
+        this.roleId = roleId;
+        
+        initializeUI();
     }
     
     private void initializeUI() {
@@ -101,17 +92,20 @@ public class MainPage extends JFrame {
         // Create and add content area
         createContentArea();
 
-        // Load books initially
-        loadBooks(currentCategory, currentSearchQuery);
+        // Follow book edits made from other terminals
+        CatalogChanges.startPolling();
 
-        // Add window resize listener to adjust layout
-        addComponentListener(new ComponentAdapter() {
-            @Override
-            public void componentResized(ComponentEvent e) {
-                // Reload books to adjust card sizes
-                loadBooks(currentCategory, currentSearchQuery);
+        // Build the search indexes in the background so the first search is fast
+        DbExecutor.submit(this, () -> {
+            CatalogIndex.getInstance().ensureLoaded();
+            if (SuggestionIndex.getInstance().size() == 0) {
+                SuggestionIndex.getInstance().rebuild();
             }
-        });
+            return null;
+        }, ignored -> { }, Throwable::printStackTrace);
+
+        // Load books initially; resizing only re-flows the grid, it never reloads
+        loadBooks(currentCategory, currentSearchQuery);
 
         setVisible(true);
     }
@@ -253,6 +247,8 @@ public class MainPage extends JFrame {
         
         // Add action listener to search field for Enter key
         searchField.addActionListener(e -> performSearch());
+        // Type-ahead suggestions; picking one runs the search right away
+        SearchSuggestions.install(searchField, text -> performSearch());
         
         searchButton = new JButton("Search");
         styleButton(searchButton);
@@ -261,24 +257,52 @@ public class MainPage extends JFrame {
         // Add action listener to search button
         searchButton.addActionListener(e -> performSearch());
 
+        // Typo-tolerant matching on titles and authors
+        fuzzyCheckBox = new JCheckBox("Fuzzy");
+        fuzzyCheckBox.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        fuzzyCheckBox.setOpaque(false);
+        fuzzyCheckBox.setToolTipText("Also match titles and authors with small spelling mistakes");
+        fuzzyCheckBox.addActionListener(e -> {
+            if (!currentSearchQuery.isEmpty()) {
+                performSearch();
+            }
+        });
+
         // Add components to search panel
         searchAndCategoriesPanel.add(categoryLabel);
         searchAndCategoriesPanel.add(categoryComboBox);
         searchAndCategoriesPanel.add(Box.createRigidArea(new Dimension(15, 0))); // spacing
         searchAndCategoriesPanel.add(searchField);
         searchAndCategoriesPanel.add(searchButton);
+        searchAndCategoriesPanel.add(fuzzyCheckBox);
 
         headerPanel.add(searchAndCategoriesPanel, BorderLayout.EAST);
 
-        // Use GridLayout instead of WrapLayout to ensure 3 columns per row
-        booksPanel = new JPanel(new GridLayout(0, 3, 20, 20));
-        booksPanel.setBackground(MAIN_BG_COLOR);
+        // Virtualized 3-column grid: only the cards in view exist, and they are reused while scrolling
+        booksGrid = new BookGrid(new BookGrid.CardRenderer() {
+            @Override
+            public JComponent createCard() {
+                return new BookCard();
+            }
+
+            @Override
+            public void bindCard(JComponent card, Book book) {
+                ((BookCard) card).bind(book);
+            }
+
+            @Override
+            public void unbindCard(JComponent card) {
+                ((BookCard) card).unbind();
+            }
+        }, 3, 420, 20);
+        booksGrid.setBackground(MAIN_BG_COLOR);
 
         // Scroll pane for books
-        scrollPane = new JScrollPane(booksPanel);
+        scrollPane = new JScrollPane(booksGrid);
         scrollPane.setBorder(null);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> checkScrollPosition());
 
         // Customize scroll bar
         scrollPane.getVerticalScrollBar().setUI(new BasicScrollBarUI() {
@@ -328,60 +352,29 @@ public class MainPage extends JFrame {
     }
 
     private void loadBooks(String category, String searchQuery) {
-        booksPanel.removeAll();
-
-        try {
-            String query;
-            PreparedStatement statement;
-
-            // Build the query based on category and search parameters
-            if (searchQuery.isEmpty()) {
-                // No search query, filter by category only
-                if (category.equals("All")) {
-                    query = "SELECT * FROM books ORDER BY id DESC";
-                    statement = connection.prepareStatement(query);
-                } else {
-                    query = "SELECT * FROM books WHERE category = ? ORDER BY id DESC";
-                    statement = connection.prepareStatement(query);
-                    statement.setString(1, category);
-                }
-            } else {
-                // Search query exists, search in title, author, and description
-                if (category.equals("All")) {
-                    query = "SELECT * FROM books WHERE (title LIKE ? OR author LIKE ? OR description LIKE ?) ORDER BY id DESC";
-                    statement = connection.prepareStatement(query);
-                    statement.setString(1, "%" + searchQuery + "%");
-                    statement.setString(2, "%" + searchQuery + "%");
-                    statement.setString(3, "%" + searchQuery + "%");
-                } else {
-                    query = "SELECT * FROM books WHERE category = ? AND (title LIKE ? OR author LIKE ? OR description LIKE ?) ORDER BY id DESC";
-                    statement = connection.prepareStatement(query);
-                    statement.setString(1, category);
-                    statement.setString(2, "%" + searchQuery + "%");
-                    statement.setString(3, "%" + searchQuery + "%");
-                    statement.setString(4, "%" + searchQuery + "%");
-                }
-            }
+        // A newer search supersedes whatever is still loading
+        if (booksJob != null) {
+            booksJob.cancel();
+        }
+        rankedIds = null;
+        rankedOffset = 0;
+        lastSeenId = 0;
+        hasMorePages = false;
+        pageLoading = true;
+        listingCategory = category;
+
+        booksGrid.setRows(Collections.emptyList());
+        scrollPane.setViewportView(new LoadingPanel("Loading books...", MAIN_BG_COLOR));
+
+        boolean fuzzy = fuzzyCheckBox.isSelected();
+        booksJob = DbExecutor.submit(this, () -> queryFirstPage(category, searchQuery, fuzzy), page -> {
+            rankedIds = page.rankedIds;
+            scrollPane.setViewportView(booksGrid);
+            scrollPane.getVerticalScrollBar().setValue(0);
+            appendBooks(page);
 
-            ResultSet resultSet = statement.executeQuery();
-            int bookCount = 0;
-
-            while (resultSet.next()) {
-                JPanel bookCard = createBookCard(
-                        resultSet.getInt("id"),
-                        resultSet.getString("title"),
-                        resultSet.getString("author"),
-                        resultSet.getDouble("price"),
-                        resultSet.getString("cover_image"),
-                        resultSet.getString("category"),
-                        resultSet.getString("description")
-                );
-                booksPanel.add(bookCard);
-                bookCount++;
-            }
-            
             // Show a message if no books were found
-            if (bookCount == 0) {
+            if (page.books.isEmpty() && !page.more) {
                 JPanel noResultsPanel = new JPanel();
                 noResultsPanel.setLayout(new BorderLayout());
                 noResultsPanel.setBackground(MAIN_BG_COLOR);
@@ -392,19 +385,171 @@ public class MainPage extends JFrame {
                 noResultsLabel.setForeground(new Color(100, 100, 100));
                 
                 noResultsPanel.add(noResultsLabel, BorderLayout.CENTER);
-                booksPanel.add(noResultsPanel);
+                scrollPane.setViewportView(noResultsPanel);
+            }
+            if (page.relaxed) {
+                headerLabel.setText("Showing close matches for \"" + searchQuery + "\"");
             }
+        }, e -> {
+            pageLoading = false;
+            scrollPane.setViewportView(booksGrid);
+            showLoadError(e);
+        });
+    }
 
-            resultSet.close();
-            statement.close();
+    // Fetches the next page once the user scrolls near the bottom of the grid
+    private void loadNextPage() {
+        if (pageLoading || !hasMorePages) {
+            return;
+        }
+        pageLoading = true;
+
+        if (rankedIds != null) {
+            // Search results: next slice of the ranked id list
+            int[] ids = rankedIds;
+            int offset = rankedOffset;
+            booksJob = DbExecutor.submit(this, () -> queryRankedPage(ids, offset), this::appendBooks,
+                    this::handleNextPageError);
+        } else {
+            // Browsing: keyset continues below the last id fetched
+            String category = listingCategory;
+            int afterId = lastSeenId;
+            booksJob = DbExecutor.submit(this, () -> queryBrowsePage(category, afterId), this::appendBooks,
+                    this::handleNextPageError);
+        }
+    }
 
-            booksPanel.revalidate();
-            booksPanel.repaint();
+    // Stops paging: every scroll would otherwise retry the same failing query
+    // and stack up error dialogs. A new search or category starts over.
+    private void handleNextPageError(Exception e) {
+        pageLoading = false;
+        hasMorePages = false;
+        showLoadError(e);
+    }
 
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading books: " + e.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+    private void showLoadError(Exception e) {
+        JOptionPane.showMessageDialog(this, "Error loading books: " + e.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
+        e.printStackTrace();
+    }
+
+    // Prefetch while there is still about a screen of cards left to scroll through
+    private void checkScrollPosition() {
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        int remaining = bar.getMaximum() - (bar.getValue() + bar.getVisibleAmount());
+        if (remaining < scrollPane.getViewport().getHeight() * 1.5) {
+            loadNextPage();
+        }
+    }
+
+    // Runs on a database worker thread
+    private BookPage queryFirstPage(String category, String searchQuery, boolean fuzzy) throws SQLException {
+        if (!searchQuery.isEmpty()) {
+            // Search goes through the in-memory index, then loads just the matching rows
+            CatalogIndex index = CatalogIndex.getInstance();
+            index.ensureLoaded();
+            int[] ids = fuzzy ? index.fuzzySearch(searchQuery, category) : index.search(searchQuery, category);
+            if (ids.length == 0 && !fuzzy) {
+                // Nothing exact; likely a misspelling, so try close matches before giving up
+                BookPage page = queryRankedPage(index.fuzzySearch(searchQuery, category), 0);
+                page.relaxed = page.rankedIds.length > 0;
+                return page;
+            }
+            return queryRankedPage(ids, 0);
+        }
+        return queryBrowsePage(category, 0);
+    }
+
+    // The slice of a ranked id list starting at offset
+    private BookPage queryRankedPage(int[] ids, int offset) throws SQLException {
+        int end = Math.min(ids.length, offset + PAGE_SIZE);
+        BookPage page = new BookPage();
+        page.rankedIds = ids;
+        page.books = queryBooksByIds(Arrays.copyOfRange(ids, offset, end));
+        page.nextOffset = end;
+        page.more = end < ids.length;
+        return page;
+    }
+
+    // Keyset page of the newest books below afterId (0 = from the top)
+    private BookPage queryBrowsePage(String category, int afterId) throws SQLException {
+        java.util.List<String> conditions = new ArrayList<>();
+        if (!category.equals("All")) {
+            conditions.add("category = ?");
+        }
+        if (afterId > 0) {
+            conditions.add("id < ?");
+        }
+        // Only ids come from MySQL (an index scan); the rows come from the shared catalog cache
+        StringBuilder query = new StringBuilder("SELECT id FROM books");
+        if (!conditions.isEmpty()) {
+            query.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        query.append(" ORDER BY id DESC LIMIT ?");
+
+        int[] ids = new int[PAGE_SIZE];
+        int count = 0;
+        try (PreparedStatement stmt = session.getConnection().prepareStatement(query.toString())) {
+            int index = 1;
+            if (!category.equals("All")) {
+                stmt.setString(index++, category);
+            }
+            if (afterId > 0) {
+                stmt.setInt(index++, afterId);
+            }
+            stmt.setInt(index, PAGE_SIZE);
+            try (ResultSet resultSet = stmt.executeQuery()) {
+                while (resultSet.next() && count < ids.length) {
+                    ids[count++] = resultSet.getInt("id");
+                }
+            }
         }
+        // The cursor and "more" come from the ids, not the books: a book deleted
+        // since the id query is simply missing from this page
+        BookPage page = new BookPage();
+        page.books = queryBooksByIds(Arrays.copyOf(ids, count));
+        page.lastId = count > 0 ? ids[count - 1] : afterId;
+        page.more = count == PAGE_SIZE;
+        return page;
+    }
+
+    // Loads the given books, keeping the order of the ids (the search ranking)
+    private java.util.List<Book> queryBooksByIds(int[] ids) throws SQLException {
+        Map<Integer, Book> byId = BookCatalog.getInstance().getAll(ids);
+        java.util.List<Book> books = new ArrayList<>(byId.size());
+        for (int id : ids) {
+            Book book = byId.get(id);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    private void appendBooks(BookPage page) {
+        // The grid only builds cards for the rows that scroll into view
+        booksGrid.addRows(page.books);
+
+        if (rankedIds != null) {
+            rankedOffset = page.nextOffset;
+        } else {
+            lastSeenId = page.lastId;
+        }
+        hasMorePages = page.more;
+        pageLoading = false;
+
+        // The first page may not fill a tall window; keep going until it scrolls
+        SwingUtilities.invokeLater(this::checkScrollPosition);
+    }
+
+    // One page of results; search listings also carry the full ranked id list
+    private static class BookPage {
+        java.util.List<Book> books;
+        int[] rankedIds;
+        boolean relaxed;
+        // Where the next page starts: an offset into rankedIds, or the keyset id
+        int nextOffset;
+        int lastId;
+        boolean more;
     }
 
     // Method to clear search and reset to default view
@@ -415,153 +560,141 @@ public class MainPage extends JFrame {
         loadBooks(currentCategory, "");
     }
 
-    private JPanel createBookCard(int id, String title, String author, double price, String coverImage, String category, String description) {
-        // Card panel with rounded corners and shadow
-        JPanel cardPanel = new JPanel();
-        cardPanel.setLayout(new BoxLayout(cardPanel, BoxLayout.Y_AXIS));
-        cardPanel.setBackground(CARD_BG_COLOR);
-
-        // Ensure all cards are the same size to maintain the grid
-        int cardWidth = (getWidth() - 200 - 60 - 40) / 3; // Main width minus sidebar, padding, and gaps
-        cardPanel.setPreferredSize(new Dimension(cardWidth, 420));
-        cardPanel.setMaximumSize(new Dimension(cardWidth, 420));
-        cardPanel.setBorder(new CompoundBorder(
-                new EmptyBorder(5, 5, 5, 5),
-                new CompoundBorder(
-                        new SoftBevelBorder(SoftBevelBorder.RAISED, new Color(230, 230, 230), new Color(240, 240, 240)),
-                        new EmptyBorder(10, 10, 10, 10)
-                )
-        ));
+    // A single book card; built once per grid slot and rebound as the grid scrolls
+    private class BookCard extends JPanel {
+        private final JLabel coverLabel = new JLabel();
+        private final JLabel titleLabel = new JLabel();
+        private final JLabel authorLabel = new JLabel();
+        private final JLabel categoryLabel = new JLabel();
+        private final JLabel priceLabel = new JLabel();
+        private int bookId;
+        // Cover still being decoded for the current binding, if any
+        private CoverLoader.Request coverRequest;
+
+        BookCard() {
+            // Card panel with rounded corners and shadow
+            setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+            setBackground(CARD_BG_COLOR);
+            setBorder(new CompoundBorder(
+                    new EmptyBorder(5, 5, 5, 5),
+                    new CompoundBorder(
+                            new SoftBevelBorder(SoftBevelBorder.RAISED, new Color(230, 230, 230), new Color(240, 240, 240)),
+                            new EmptyBorder(10, 10, 10, 10)
+                    )
+            ));
+
+            // Book cover image container - FIXED HEIGHT TO CONSISTENT 200px
+            JPanel imageContainer = new JPanel(new BorderLayout());
+            imageContainer.setPreferredSize(new Dimension(150, 200));
+            imageContainer.setMaximumSize(new Dimension(150, 200));
+            imageContainer.setMinimumSize(new Dimension(150, 200));
+            imageContainer.setAlignmentX(Component.CENTER_ALIGNMENT);
+            imageContainer.setBackground(new Color(230, 230, 240)); // Gray background for container
+
+            coverLabel.setForeground(new Color(150, 150, 150));
+            coverLabel.setHorizontalAlignment(JLabel.CENTER);
+            imageContainer.add(coverLabel, BorderLayout.CENTER);
+
+            add(imageContainer);
+            add(Box.createRigidArea(new Dimension(0, 10)));
+
+            // Book title - centered and wrapped
+            titleLabel.setFont(TITLE_FONT);
+            titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            add(titleLabel);
+
+            add(Box.createRigidArea(new Dimension(0, 5)));
+
+            // Author - centered
+            authorLabel.setFont(BODY_FONT);
+            authorLabel.setForeground(new Color(100, 100, 100));
+            authorLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            add(authorLabel);
+
+            add(Box.createRigidArea(new Dimension(0, 5)));
+
+            // Category - centered
+            categoryLabel.setFont(new Font("Segoe UI", Font.ITALIC, 11));
+            categoryLabel.setForeground(new Color(130, 130, 130));
+            categoryLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            add(categoryLabel);
+
+            add(Box.createRigidArea(new Dimension(0, 10)));
+
+            // Price - centered
+            priceLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+            priceLabel.setForeground(new Color(50, 120, 80));
+            priceLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            add(priceLabel);
+
+            add(Box.createRigidArea(new Dimension(0, 15)));
+
+            // Create buttons panel to ensure consistent sizing
+            JPanel buttonPanel = new JPanel();
+            buttonPanel.setLayout(new BoxLayout(buttonPanel, BoxLayout.Y_AXIS));
+            buttonPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            buttonPanel.setBackground(CARD_BG_COLOR);
+
+            // Create "Add to Cart" button with fixed height
+            JButton cartButton = new JButton("Add to Cart");
+            styleButton(cartButton);
+            cartButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+            // FIXED BUTTON DIMENSIONS
+            Dimension buttonDimension = new Dimension(150, 30);
+            cartButton.setPreferredSize(buttonDimension);
+            cartButton.setMaximumSize(buttonDimension); // Fixed size
+
+            // Listeners read the bound id, so they survive the card being recycled
+            cartButton.addActionListener(e -> addToCart(bookId));
+
+            buttonPanel.add(cartButton);
+            buttonPanel.add(Box.createRigidArea(new Dimension(0, 8)));
+
+            // Add view button with fixed height
+            JButton viewButton = new JButton("View Details");
+            styleButton(viewButton);
+            viewButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+            viewButton.setPreferredSize(buttonDimension);
+            viewButton.setMaximumSize(buttonDimension); // Fixed size
+            viewButton.addActionListener(e -> showBookDetails(bookId));
+
+            buttonPanel.add(viewButton);
+            add(buttonPanel);
+
+            // Add click listener to view book details for the whole card
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    showBookDetails(bookId);
+                }
+            });
+        }
 
-        // Book cover image container - FIXED HEIGHT TO CONSISTENT 200px
-        JPanel imageContainer = new JPanel(new BorderLayout());
-        imageContainer.setPreferredSize(new Dimension(150, 200));
-        imageContainer.setMaximumSize(new Dimension(150, 200));
-        imageContainer.setMinimumSize(new Dimension(150, 200));
-        imageContainer.setAlignmentX(Component.CENTER_ALIGNMENT);
-        imageContainer.setBackground(new Color(230, 230, 240)); // Gray background for container
-
-        // Book cover image
-        if (coverImage != null && !coverImage.isEmpty()) {
-            try {
-                // Load and resize the image - LIMIT HEIGHT TO 200px MAX
-                ImageIcon originalIcon = new ImageIcon(getClass().getResource("/assets/" + coverImage));
-                Image originalImage = originalIcon.getImage();
-
-                // Calculate scaling to maintain aspect ratio and not exceed 150x200
-                int origWidth = originalImage.getWidth(null);
-                int origHeight = originalImage.getHeight(null);
-                double widthRatio = 150.0 / origWidth;
-                double heightRatio = 200.0 / origHeight;
-                double ratio = Math.min(widthRatio, heightRatio);
-
-                int scaledWidth = (int) (origWidth * ratio);
-                int scaledHeight = (int) (origHeight * ratio);
-
-                // Scale image maintaining aspect ratio
-                Image scaledImage = originalImage.getScaledInstance(scaledWidth, scaledHeight, Image.SCALE_SMOOTH);
-                ImageIcon finalIcon = new ImageIcon(scaledImage);
-
-                JLabel coverLabel = new JLabel(finalIcon);
-                coverLabel.setHorizontalAlignment(JLabel.CENTER);
-                imageContainer.add(coverLabel, BorderLayout.CENTER);
-            } catch (Exception e) {
-                // If image loading fails, show placeholder
-                JLabel noImageLabel = new JLabel("No Image");
-                noImageLabel.setForeground(new Color(150, 150, 150));
-                noImageLabel.setHorizontalAlignment(JLabel.CENTER);
-                imageContainer.add(noImageLabel, BorderLayout.CENTER);
-            }
-        } else {
-            // Default placeholder when no image is available
-            JLabel noImageLabel = new JLabel("No Image");
-            noImageLabel.setForeground(new Color(150, 150, 150));
-            noImageLabel.setHorizontalAlignment(JLabel.CENTER);
-            imageContainer.add(noImageLabel, BorderLayout.CENTER);
-        }
-
-        cardPanel.add(imageContainer);
-        cardPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-
-        // Book title - centered and wrapped
-        JLabel titleLabel = new JLabel("<html><div style='text-align:center;width:100%'>" + title + "</div></html>");
-        titleLabel.setFont(TITLE_FONT);
-        titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        cardPanel.add(titleLabel);
-
-        cardPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-
-        // Author - centered
-        JLabel authorLabel = new JLabel("<html><div style='text-align:center'>by " + author + "</div></html>");
-        authorLabel.setFont(BODY_FONT);
-        authorLabel.setForeground(new Color(100, 100, 100));
-        authorLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        cardPanel.add(authorLabel);
-
-        cardPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-
-        // Category - centered
-        JLabel categoryLabel = new JLabel("<html><div style='text-align:center'>" + category + "</div></html>");
-        categoryLabel.setFont(new Font("Segoe UI", Font.ITALIC, 11));
-        categoryLabel.setForeground(new Color(130, 130, 130));
-        categoryLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        cardPanel.add(categoryLabel);
-
-        cardPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-
-        // Price - centered
-        NumberFormat formatter = NumberFormat.getCurrencyInstance();
-        JLabel priceLabel = new JLabel("<html><div style='text-align:center'>" + formatter.format(price) + "</div></html>");
-        priceLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        priceLabel.setForeground(new Color(50, 120, 80));
-        priceLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        cardPanel.add(priceLabel);
-
-        cardPanel.add(Box.createRigidArea(new Dimension(0, 15)));
-
-        // Create buttons panel to ensure consistent sizing
-        JPanel buttonPanel = new JPanel();
-        buttonPanel.setLayout(new BoxLayout(buttonPanel, BoxLayout.Y_AXIS));
-        buttonPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        buttonPanel.setBackground(CARD_BG_COLOR);
-
-        // Create "Add to Cart" button with fixed height
-        JButton cartButton = new JButton("Add to Cart");
-        styleButton(cartButton);
-        cartButton.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-        // FIXED BUTTON DIMENSIONS
-        Dimension buttonDimension = new Dimension(150, 30);
-        cartButton.setPreferredSize(buttonDimension);
-        cartButton.setMaximumSize(buttonDimension); // Fixed size
-
-        // Add the action listener to handle adding to cart
-        final int bookID = id; // Create final variable for use in lambda
-        cartButton.addActionListener(e -> addToCart(bookID));
-
-        buttonPanel.add(cartButton);
-        buttonPanel.add(Box.createRigidArea(new Dimension(0, 8)));
-
-        // Add view button with fixed height
-        JButton viewButton = new JButton("View Details");
-        styleButton(viewButton);
-        viewButton.setAlignmentX(Component.CENTER_ALIGNMENT);
-        viewButton.setPreferredSize(buttonDimension);
-        viewButton.setMaximumSize(buttonDimension); // Fixed size
-        viewButton.addActionListener(e -> showBookDetails(id, title, author, price, coverImage, category, description));
-
-        buttonPanel.add(viewButton);
-        cardPanel.add(buttonPanel);
-
-        // Add click listener to view book details for the whole card
-        cardPanel.addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseClicked(MouseEvent e) {
-                showBookDetails(id, title, author, price, coverImage, category, description);
-            }
-        });
+        void bind(Book book) {
+            bookId = book.getId();
+            titleLabel.setText("<html><div style='text-align:center;width:100%'>" + book.getTitle() + "</div></html>");
+            authorLabel.setText("<html><div style='text-align:center'>by " + book.getAuthor() + "</div></html>");
+            categoryLabel.setText("<html><div style='text-align:center'>" + book.getCategory() + "</div></html>");
+            priceLabel.setText("<html><div style='text-align:center'>" + PRICE_FORMAT.format(book.getPrice()) + "</div></html>");
+
+            unbind();
+            coverLabel.setIcon(CoverImageCache.placeholder(150, 200));
+            coverRequest = CoverLoader.load(MainPage.this, book.getCoverImage(), 150, 200, cover -> {
+                coverRequest = null;
+                if (cover != null) {
+                    coverLabel.setIcon(cover);
+                }
+            });
+        }
 
-        return cardPanel;
+        // Scrolled out of view: a cover still being decoded is no longer needed
+        void unbind() {
+            if (coverRequest != null) {
+                coverRequest.cancel();
+                coverRequest = null;
+            }
+        }
     }
 
     private void styleButton(JButton button) {
@@ -641,46 +774,19 @@ public class MainPage extends JFrame {
         }
     }
 
-    private void showBookDetails(int id, String title, String author, double price, String coverImage, String category, String description) {
+    private void showBookDetails(int id) {
         // Open book details page
-        BookDetailsPage detailsPage = new BookDetailsPage(connection, currentUserId, id);
+        BookDetailsPage detailsPage = new BookDetailsPage(currentUserId, id);
         detailsPage.setVisible(true);
     }
 
     // Update the addToCart method to show a visual confirmation
     private void addToCart(int bookId) {
-        try {
-            // Check if book is already in cart
-            String checkQuery = "SELECT * FROM cart WHERE user_id = ? AND book_id = ?";
-            PreparedStatement checkStatement = connection.prepareStatement(checkQuery);
-            checkStatement.setInt(1, currentUserId);
-            checkStatement.setInt(2, bookId);
-            ResultSet resultSet = checkStatement.executeQuery();
-
-            if (resultSet.next()) {
-                // Update quantity
-                String updateQuery = "UPDATE cart SET quantity = quantity + 1 WHERE user_id = ? AND book_id = ?";
-                PreparedStatement updateStatement = connection.prepareStatement(updateQuery);
-                updateStatement.setInt(1, currentUserId);
-                updateStatement.setInt(2, bookId);
-                updateStatement.executeUpdate();
-                updateStatement.close();
-            } else {
-                // Insert new cart item
-                String insertQuery = "INSERT INTO cart (user_id, book_id, quantity) VALUES (?, ?, 1)";
-                PreparedStatement insertStatement = connection.prepareStatement(insertQuery);
-                insertStatement.setInt(1, currentUserId);
-                insertStatement.setInt(2, bookId);
-                insertStatement.executeUpdate();
-                insertStatement.close();
-            }
-
-            resultSet.close();
-            checkStatement.close();
-
+        // One upsert; a second add of the same book just bumps the quantity
+        DbExecutor.submit(this, () -> CartService.addToCart(session.getConnection(), currentUserId, bookId), quantity -> {
             // Create a custom success message
             JOptionPane pane = new JOptionPane(
-                    "Book added to cart successfully!",
+                    quantity == 1 ? "Book added to cart successfully!" : "Book added to cart (" + quantity + " in cart)",
                     JOptionPane.INFORMATION_MESSAGE,
                     JOptionPane.DEFAULT_OPTION,
                     null,
@@ -696,11 +802,10 @@ public class MainPage extends JFrame {
             timer.start();
 
             dialog.setVisible(true);
-
-        } catch (SQLException e) {
+        }, e -> {
             JOptionPane.showMessageDialog(this, "Error adding book to cart: " + e.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
-        }
+        });
     }
 
     private void handleMenuItemClick(String menuItem) {
@@ -714,14 +819,12 @@ public class MainPage extends JFrame {
                 categoryComboBox.setSelectedItem("All");
                 break;
             case "My Cart":
-                // TODO: Implement cart page
-                setVisible(false);
-                new CartPage(currentUserId, roleId);
+                dispose();
+                SwingUtilities.invokeLater(() -> new CartPage(currentUserId, roleId));
                 break;
             case "Wishlist":
-                // TODO: Implement cart page
-                setVisible(false);
-                new WishlistPage(currentUserId, roleId);
+                dispose();
+                SwingUtilities.invokeLater(() -> new WishlistPage(currentUserId, roleId));
                 break;
             case "My Orders":
                 
@@ -740,6 +843,17 @@ public class MainPage extends JFrame {
         }
     }
     
+    @Override
+    public void dispose() {
+        // Stop background queries, then release the page's connection and statements
+        DbExecutor.cancelAll(this);
+        CoverLoader.cancelAll(this);
+        if (session != null) {
+            session.closeWhenIdle(this);
+        }
+        super.dispose();
+    }
+
     private void logout() {
         int response = JOptionPane.showConfirmDialog(this, 
                 "Are you sure you want to logout?", 
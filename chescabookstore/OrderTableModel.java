@@ -0,0 +1,129 @@
+package chescabookstore;
+
+import javax.swing.table.AbstractTableModel;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Orders as shown in the admin tables (recent orders, orders management).
+// Rows are indexed by order id so a status change repaints just that row
+// and a new order is inserted without reloading the table.
+public class OrderTableModel extends AbstractTableModel {
+
+    public static final class Order {
+        final int id;
+        final String username;
+        final Timestamp orderDate;
+        final BigDecimal totalAmount;
+        String status;
+
+        public Order(int id, String username, Timestamp orderDate, BigDecimal totalAmount, String status) {
+            this.id = id;
+            this.username = username;
+            this.orderDate = orderDate;
+            this.totalAmount = totalAmount;
+            this.status = status;
+        }
+    }
+
+    private static final String[] COLUMNS = {"Order ID", "User", "Date", "Amount", "Status"};
+    private static final String ACTIONS_COLUMN = "Actions";
+
+    // Only used on the EDT
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+    private final boolean withActions;
+    private final List<Order> orders = new ArrayList<>();
+    private final Map<Integer, Integer> rowById = new HashMap<>();
+
+    // withActions adds a trailing "View Details" button column
+    public OrderTableModel(boolean withActions) {
+        this.withActions = withActions;
+    }
+
+    public void setOrders(List<Order> newOrders) {
+        orders.clear();
+        rowById.clear();
+        for (Order order : newOrders) {
+            rowById.put(order.id, orders.size());
+            orders.add(order);
+        }
+        fireTableDataChanged();
+    }
+
+    // Puts a new order on top (the tables are newest first); with a positive
+    // limit the oldest row drops off once the table holds more than that
+    public void addOrder(Order order, int limit) {
+        if (rowById.containsKey(order.id)) {
+            return;
+        }
+        orders.add(0, order);
+        reindex();
+        fireTableRowsInserted(0, 0);
+        if (limit > 0 && orders.size() > limit) {
+            int last = orders.size() - 1;
+            rowById.remove(orders.remove(last).id);
+            fireTableRowsDeleted(last, last);
+        }
+    }
+
+    // Returns false if the order isn't shown here
+    public boolean setStatus(int orderId, String status) {
+        Integer row = rowById.get(orderId);
+        if (row == null) {
+            return false;
+        }
+        orders.get(row).status = status;
+        fireTableCellUpdated(row, 4);
+        return true;
+    }
+
+    private void reindex() {
+        rowById.clear();
+        for (int row = 0; row < orders.size(); row++) {
+            rowById.put(orders.get(row).id, row);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return orders.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return withActions ? COLUMNS.length + 1 : COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return column < COLUMNS.length ? COLUMNS[column] : ACTIONS_COLUMN;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Order order = orders.get(row);
+        switch (column) {
+            case 0:
+                return order.id;
+            case 1:
+                return order.username;
+            case 2:
+                return dateFormat.format(order.orderDate);
+            case 3:
+                return String.format("$%.2f", order.totalAmount);
+            case 4:
+                return order.status;
+            default:
+                return "View Details";
+        }
+    }
+}
@@ -28,12 +28,11 @@ public class OrdersPage extends JFrame {
     private static final Font TITLE_FONT = new Font("Segoe UI", Font.BOLD, 16);
     private static final Font BODY_FONT = new Font("Segoe UI", Font.PLAIN, 12);
 
-    // Database connection
-    private Connection connection;
+    // Database session, closed when the page is disposed
+    private DbSession session;
 
     // User information
     private int currentUserId;
-    private String currentUsername;
     private int roleId;
 
     // UI Components
@@ -52,35 +51,12 @@ public class OrdersPage extends JFrame {
     private DefaultTableModel orderItemsTableModel;
 
     public OrdersPage(int userId, int roleId) {
-        try {
-            // Get connection from DatabaseConnection class
-            this.connection = DatabaseConnection.getConnection();
-            this.currentUserId = userId;
-            this.roleId = roleId;
-            
-            // Get username from database
-            this.currentUsername = getUsernameById(userId);
-            
-            initializeUI();
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error connecting to database: " + e.getMessage(), 
-                                         "Database Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-            System.exit(1);
-        }
-    }
-    
-    private String getUsernameById(int userId) throws SQLException {
-        String username = "";
-        String query = "SELECT username FROM users WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                username = rs.getString("username");
-            }
-        }
-        return username;
+        // Borrows this page's connection on first use; released when the page is disposed
+        this.session = new DbSession("OrdersPage");
+        this.currentUserId = userId;
+        this.roleId = roleId;
+        
+        initializeUI();
     }
     
     private void initializeUI() {
@@ -293,314 +269,338 @@ public class OrdersPage extends JFrame {
     }
     
     private void loadOrders() {
-        // Clear existing table data
-        tableModel.setRowCount(0);
+        // Show a loading state while the orders are fetched in the background
+        ordersPanel.removeAll();
+        ordersPanel.add(new LoadingPanel("Loading your orders...", MAIN_BG_COLOR), BorderLayout.CENTER);
+        ordersPanel.revalidate();
+        ordersPanel.repaint();
         
-        try {
-            // Query to get orders
-            String query = "SELECT id, order_date, total_amount, status FROM orders WHERE user_id = ? ORDER BY order_date DESC";
-            PreparedStatement stmt = connection.prepareStatement(query);
+        DbExecutor.submit(this, this::queryOrders, this::showOrders, e -> {
+            JOptionPane.showMessageDialog(this, "Error loading orders: " + e.getMessage(), 
+                                         "Database Error", JOptionPane.ERROR_MESSAGE);
+            e.printStackTrace();
+        });
+    }
+    
+    // Runs on a database worker thread; rows are ready for the table model
+    private java.util.List<Object[]> queryOrders() throws SQLException {
+        java.util.List<Object[]> rows = new ArrayList<>();
+        String query = "SELECT id, order_date, total_amount, status FROM orders WHERE user_id = ? ORDER BY order_date DESC";
+        try (PreparedStatement stmt = session.getConnection().prepareStatement(query)) {
             stmt.setInt(1, currentUserId);
-            ResultSet rs = stmt.executeQuery();
-            
-            boolean hasOrders = false;
-            
-            while (rs.next()) {
-                hasOrders = true;
-                
-                int orderId = rs.getInt("id");
-                Timestamp orderDate = rs.getTimestamp("order_date");
-                double totalAmount = rs.getDouble("total_amount");
-                String status = rs.getString("status");
-                
-                // Format date and amount for display
+            try (ResultSet rs = stmt.executeQuery()) {
+                // Formatters are per call; neither is thread-safe
                 SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy HH:mm");
-                String formattedDate = dateFormat.format(orderDate);
-                
                 NumberFormat currencyFormat = NumberFormat.getCurrencyInstance();
-                String formattedTotal = currencyFormat.format(totalAmount);
-                
-                // Add row to table model
-                tableModel.addRow(new Object[]{
-                    "#" + orderId,
-                    formattedDate,
-                    formattedTotal,
-                    status,
-                    "View Details" // Action button
-                });
+                while (rs.next()) {
+                    rows.add(new Object[]{
+                        "#" + rs.getInt("id"),
+                        dateFormat.format(rs.getTimestamp("order_date")),
+                        currencyFormat.format(rs.getDouble("total_amount")),
+                        rs.getString("status"),
+                        "View Details" // Action button
+                    });
+                }
             }
-            
-            rs.close();
-            stmt.close();
-            
-            // Show appropriate view based on whether there are orders
-            if (hasOrders) {
-                ordersPanel.removeAll();
-                ordersPanel.add(scrollPane, BorderLayout.CENTER);
-            } else {
-                ordersPanel.removeAll();
-                ordersPanel.add(emptyOrdersPanel, BorderLayout.CENTER);
+        }
+        return rows;
+    }
+    
+    private void showOrders(java.util.List<Object[]> rows) {
+        tableModel.setRowCount(0);
+        for (Object[] row : rows) {
+            tableModel.addRow(row);
+        }
+        
+        // Show appropriate view based on whether there are orders
+        ordersPanel.removeAll();
+        if (!rows.isEmpty()) {
+            ordersPanel.add(scrollPane, BorderLayout.CENTER);
+        } else {
+            ordersPanel.add(emptyOrdersPanel, BorderLayout.CENTER);
+        }
+        
+        ordersPanel.revalidate();
+        ordersPanel.repaint();
+    }
+    
+    private void showOrderDetails(int orderId) {
+        // Fetch the order off the EDT, then build the dialog once the data is in
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        DbExecutor.submit(this, () -> loadOrderDetails(orderId), details -> {
+            setCursor(Cursor.getDefaultCursor());
+            if (details == null) {
+                JOptionPane.showMessageDialog(this, "Order not found or not authorized to view.", 
+                                             "Order Error", JOptionPane.ERROR_MESSAGE);
+                return;
             }
-            
-            ordersPanel.revalidate();
-            ordersPanel.repaint();
-            
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading orders: " + e.getMessage(), 
+            buildOrderDetailsDialog(orderId, details);
+        }, e -> {
+            setCursor(Cursor.getDefaultCursor());
+            JOptionPane.showMessageDialog(this, "Error loading order details: " + e.getMessage(), 
                                          "Database Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
-        }
+        });
     }
     
-    private void showOrderDetails(int orderId) {
-        try {
-            // Get order information
-            String orderQuery = "SELECT o.id, o.order_date, o.total_amount, o.status, o.shipping_address, o.payment_method " +
-                              "FROM orders o WHERE o.id = ? AND o.user_id = ?";
-            PreparedStatement orderStmt = connection.prepareStatement(orderQuery);
+    // Runs on a database worker thread; returns null if the order isn't this user's
+    private OrderDetails loadOrderDetails(int orderId) throws SQLException {
+        String orderQuery = "SELECT o.id, o.order_date, o.total_amount, o.status, o.shipping_address, o.payment_method " +
+                          "FROM orders o WHERE o.id = ? AND o.user_id = ?";
+        String itemsQuery = "SELECT oi.quantity, oi.price, b.title, b.author " +
+                          "FROM order_items oi " +
+                          "JOIN books b ON oi.book_id = b.id " +
+                          "WHERE oi.order_id = ?";
+        
+        OrderDetails details = new OrderDetails();
+        try (PreparedStatement orderStmt = session.getConnection().prepareStatement(orderQuery)) {
             orderStmt.setInt(1, orderId);
             orderStmt.setInt(2, currentUserId);
-            ResultSet orderRs = orderStmt.executeQuery();
-            
-            if (orderRs.next()) {
-                // Get order details
-                Timestamp orderDate = orderRs.getTimestamp("order_date");
-                double totalAmount = orderRs.getDouble("total_amount");
-                String status = orderRs.getString("status");
-                String shippingAddress = orderRs.getString("shipping_address");
-                String paymentMethod = orderRs.getString("payment_method");
-                
-                // Format date and currency
-                SimpleDateFormat dateFormat = new SimpleDateFormat("MMMM dd, yyyy HH:mm:ss");
-                String formattedDate = dateFormat.format(orderDate);
-                NumberFormat currencyFormat = NumberFormat.getCurrencyInstance();
-                
-                // Create dialog for order details
-                orderDetailsDialog = new JDialog(this, "Order #" + orderId + " Details", true);
-                orderDetailsDialog.setSize(800, 600);
-                orderDetailsDialog.setLocationRelativeTo(this);
-                orderDetailsDialog.setLayout(new BorderLayout());
-                
-                // Create main panel
-                JPanel mainPanel = new JPanel(new BorderLayout(0, 20));
-                mainPanel.setBackground(MAIN_BG_COLOR);
-                mainPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
-                
-                // Create header panel
-                JPanel headerPanel = new JPanel(new BorderLayout());
-                headerPanel.setBackground(MAIN_BG_COLOR);
-                
-                // Order ID and date
-                JLabel orderIdLabel = new JLabel("Order #" + orderId);
-                orderIdLabel.setFont(HEADER_FONT);
-                
-                JLabel orderDateLabel = new JLabel("Placed on: " + formattedDate);
-                orderDateLabel.setFont(BODY_FONT);
-                
-                JPanel orderIdPanel = new JPanel(new GridLayout(2, 1));
-                orderIdPanel.setBackground(MAIN_BG_COLOR);
-                orderIdPanel.add(orderIdLabel);
-                orderIdPanel.add(orderDateLabel);
-                
-                // Status panel on the right
-                JPanel statusPanel = new JPanel();
-                statusPanel.setBackground(MAIN_BG_COLOR);
-                
-                JLabel statusLabel = new JLabel("Status: ");
-                statusLabel.setFont(TITLE_FONT);
-                
-                JLabel statusValueLabel = new JLabel(status);
-                statusValueLabel.setFont(TITLE_FONT);
-                
-                // Set status color based on value
-                switch (status) {
-                    case "Delivered":
-                        statusValueLabel.setForeground(new Color(46, 125, 50));
-                        break;
-                    case "Shipped":
-                        statusValueLabel.setForeground(new Color(21, 101, 192));
-                        break;
-                    case "Processing":
-                        statusValueLabel.setForeground(new Color(237, 108, 2));
-                        break;
-                    case "Pending":
-                        statusValueLabel.setForeground(new Color(191, 54, 12));
-                        break;
-                    case "Cancelled":
-                        statusValueLabel.setForeground(new Color(183, 28, 28));
-                        break;
-                    default:
-                        statusValueLabel.setForeground(new Color(66, 66, 66));
+            try (ResultSet orderRs = orderStmt.executeQuery()) {
+                if (!orderRs.next()) {
+                    return null;
                 }
-                
-                statusPanel.add(statusLabel);
-                statusPanel.add(statusValueLabel);
-                
-                headerPanel.add(orderIdPanel, BorderLayout.WEST);
-                headerPanel.add(statusPanel, BorderLayout.EAST);
-                
-                // Add separator
-                JSeparator separator = new JSeparator();
-                separator.setForeground(new Color(200, 200, 200));
-                
-                // Create order items table
-                String[] columnNames = {"Book", "Price", "Quantity", "Total"};
-                orderItemsTableModel = new DefaultTableModel(columnNames, 0) {
-                    @Override
-                    public boolean isCellEditable(int row, int column) {
-                        return false; // Make table non-editable
-                    }
-                };
-                
-                orderItemsTable = new JTable(orderItemsTableModel);
-                orderItemsTable.setRowHeight(30);
-                orderItemsTable.setBackground(CARD_BG_COLOR);
-                orderItemsTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
-                orderItemsTable.getTableHeader().setBackground(new Color(240, 240, 240));
-                
-                // Set column widths
-                TableColumnModel itemsColumnModel = orderItemsTable.getColumnModel();
-                itemsColumnModel.getColumn(0).setPreferredWidth(300);  // Book
-                itemsColumnModel.getColumn(1).setPreferredWidth(100);  // Price
-                itemsColumnModel.getColumn(2).setPreferredWidth(80);   // Quantity
-                itemsColumnModel.getColumn(3).setPreferredWidth(100);  // Total
-                
-                // Create scroll pane for items table
-                JScrollPane itemsScrollPane = new JScrollPane(orderItemsTable);
-                itemsScrollPane.setBorder(BorderFactory.createEmptyBorder());
-                
-                // Load order items
-                String itemsQuery = "SELECT oi.quantity, oi.price, b.title, b.author " +
-                                  "FROM order_items oi " +
-                                  "JOIN books b ON oi.book_id = b.id " +
-                                  "WHERE oi.order_id = ?";
-                PreparedStatement itemsStmt = connection.prepareStatement(itemsQuery);
-                itemsStmt.setInt(1, orderId);
-                ResultSet itemsRs = itemsStmt.executeQuery();
-                
+                details.orderDate = orderRs.getTimestamp("order_date");
+                details.totalAmount = orderRs.getDouble("total_amount");
+                details.status = orderRs.getString("status");
+                details.shippingAddress = orderRs.getString("shipping_address");
+                details.paymentMethod = orderRs.getString("payment_method");
+            }
+        }
+        
+        try (PreparedStatement itemsStmt = session.getConnection().prepareStatement(itemsQuery)) {
+            itemsStmt.setInt(1, orderId);
+            try (ResultSet itemsRs = itemsStmt.executeQuery()) {
                 while (itemsRs.next()) {
-                    String title = itemsRs.getString("title");
-                    String author = itemsRs.getString("author");
-                    double price = itemsRs.getDouble("price");
-                    int quantity = itemsRs.getInt("quantity");
-                    double total = price * quantity;
-                    
-                    // Format for display
-                    String formattedPrice = currencyFormat.format(price);
-                    String formattedItemTotal = currencyFormat.format(total);
-                    
-                    // Add to table
-                    orderItemsTableModel.addRow(new Object[]{
-                        title + " by " + author,
-                        formattedPrice,
-                        quantity,
-                        formattedItemTotal
+                    details.items.add(new Object[]{
+                        itemsRs.getString("title"),
+                        itemsRs.getString("author"),
+                        itemsRs.getDouble("price"),
+                        itemsRs.getInt("quantity")
                     });
                 }
-                
-                // Create order summary panel (bottom right)
-                JPanel summaryPanel = new JPanel();
-                summaryPanel.setLayout(new BoxLayout(summaryPanel, BoxLayout.Y_AXIS));
-                summaryPanel.setBackground(CARD_BG_COLOR);
-                summaryPanel.setBorder(BorderFactory.createCompoundBorder(
-                    new SoftBevelBorder(SoftBevelBorder.RAISED, new Color(230, 230, 230), new Color(240, 240, 240)),
-                    new EmptyBorder(15, 15, 15, 15)
-                ));
-                
-                JLabel orderSummaryLabel = new JLabel("Order Summary");
-                orderSummaryLabel.setFont(TITLE_FONT);
-                orderSummaryLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-                
-                JSeparator summaryDivider = new JSeparator();
-                summaryDivider.setMaximumSize(new Dimension(260, 1));
-                summaryDivider.setAlignmentX(Component.LEFT_ALIGNMENT);
-                
-                JLabel totalLabel = new JLabel("Total Amount: " + currencyFormat.format(totalAmount));
-                totalLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-                totalLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-                
-                JLabel methodLabel = new JLabel("Payment Method: " + (paymentMethod != null ? paymentMethod : "N/A"));
-                methodLabel.setFont(BODY_FONT);
-                methodLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-                
-                // Address panel
-                JPanel addressPanel = new JPanel();
-                addressPanel.setLayout(new BoxLayout(addressPanel, BoxLayout.Y_AXIS));
-                addressPanel.setBackground(CARD_BG_COLOR);
-                addressPanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 0, 0));
-                addressPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
-                
-                JLabel addressLabel = new JLabel("Shipping Address:");
-                addressLabel.setFont(new Font("Segoe UI", Font.BOLD, 12));
-                addressLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-                
-                JTextArea addressArea = new JTextArea(shippingAddress != null ? shippingAddress : "No address provided");
-                addressArea.setFont(BODY_FONT);
-                addressArea.setEditable(false);
-                addressArea.setLineWrap(true);
-                addressArea.setWrapStyleWord(true);
-                addressArea.setBackground(CARD_BG_COLOR);
-                addressArea.setBorder(BorderFactory.createEmptyBorder());
-                addressArea.setAlignmentX(Component.LEFT_ALIGNMENT);
-                
-                addressPanel.add(addressLabel);
-                addressPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-                addressPanel.add(addressArea);
-                
-                // Add components to summary panel
-                summaryPanel.add(orderSummaryLabel);
-                summaryPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-                summaryPanel.add(summaryDivider);
-                summaryPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-                summaryPanel.add(totalLabel);
-                summaryPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-                summaryPanel.add(methodLabel);
-                summaryPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-                summaryPanel.add(addressPanel);
-                
-                // Bottom panel for summary and close button
-                JPanel bottomPanel = new JPanel(new BorderLayout(20, 0));
-                bottomPanel.setBackground(MAIN_BG_COLOR);
-                
-                JButton closeButton = new JButton("Close");
-                styleButton(closeButton);
-                closeButton.addActionListener(e -> orderDetailsDialog.dispose());
-                
-                JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-                buttonPanel.setBackground(MAIN_BG_COLOR);
-                buttonPanel.add(closeButton);
-                
-                bottomPanel.add(summaryPanel, BorderLayout.CENTER);
-                bottomPanel.add(buttonPanel, BorderLayout.EAST);
-                
-                // Add all panels to main panel
-                mainPanel.add(headerPanel, BorderLayout.NORTH);
-                mainPanel.add(separator, BorderLayout.NORTH);
-                mainPanel.add(itemsScrollPane, BorderLayout.CENTER);
-                mainPanel.add(bottomPanel, BorderLayout.SOUTH);
-                
-                // Add main panel to dialog
-                orderDetailsDialog.add(mainPanel);
-                
-                // Clean up
-                itemsRs.close();
-                itemsStmt.close();
-                
-                // Show dialog
-                orderDetailsDialog.setVisible(true);
-            } else {
-                JOptionPane.showMessageDialog(this, "Order not found or not authorized to view.", 
-                                             "Order Error", JOptionPane.ERROR_MESSAGE);
             }
+        }
+        return details;
+    }
+    
+    private void buildOrderDetailsDialog(int orderId, OrderDetails details) {
+        // Format date and currency
+        SimpleDateFormat dateFormat = new SimpleDateFormat("MMMM dd, yyyy HH:mm:ss");
+        String formattedDate = dateFormat.format(details.orderDate);
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance();
+        
+        // Create dialog for order details
+        orderDetailsDialog = new JDialog(this, "Order #" + orderId + " Details", true);
+        orderDetailsDialog.setSize(800, 600);
+        orderDetailsDialog.setLocationRelativeTo(this);
+        orderDetailsDialog.setLayout(new BorderLayout());
+        
+        // Create main panel
+        JPanel mainPanel = new JPanel(new BorderLayout(0, 20));
+        mainPanel.setBackground(MAIN_BG_COLOR);
+        mainPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
+        
+        // Create header panel
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(MAIN_BG_COLOR);
+        
+        // Order ID and date
+        JLabel orderIdLabel = new JLabel("Order #" + orderId);
+        orderIdLabel.setFont(HEADER_FONT);
+        
+        JLabel orderDateLabel = new JLabel("Placed on: " + formattedDate);
+        orderDateLabel.setFont(BODY_FONT);
+        
+        JPanel orderIdPanel = new JPanel(new GridLayout(2, 1));
+        orderIdPanel.setBackground(MAIN_BG_COLOR);
+        orderIdPanel.add(orderIdLabel);
+        orderIdPanel.add(orderDateLabel);
+        
+        // Status panel on the right
+        JPanel statusPanel = new JPanel();
+        statusPanel.setBackground(MAIN_BG_COLOR);
+        
+        JLabel statusLabel = new JLabel("Status: ");
+        statusLabel.setFont(TITLE_FONT);
+        
+        JLabel statusValueLabel = new JLabel(details.status);
+        statusValueLabel.setFont(TITLE_FONT);
+        
+        // Set status color based on value
+        switch (details.status) {
+            case "Delivered":
+                statusValueLabel.setForeground(new Color(46, 125, 50));
+                break;
+            case "Shipped":
+                statusValueLabel.setForeground(new Color(21, 101, 192));
+                break;
+            case "Processing":
+                statusValueLabel.setForeground(new Color(237, 108, 2));
+                break;
+            case "Pending":
+                statusValueLabel.setForeground(new Color(191, 54, 12));
+                break;
+            case "Cancelled":
+                statusValueLabel.setForeground(new Color(183, 28, 28));
+                break;
+            default:
+                statusValueLabel.setForeground(new Color(66, 66, 66));
+        }
+        
+        statusPanel.add(statusLabel);
+        statusPanel.add(statusValueLabel);
+        
+        headerPanel.add(orderIdPanel, BorderLayout.WEST);
+        headerPanel.add(statusPanel, BorderLayout.EAST);
+        
+        // Add separator
+        JSeparator separator = new JSeparator();
+        separator.setForeground(new Color(200, 200, 200));
+        
+        // Create order items table
+        String[] columnNames = {"Book", "Price", "Quantity", "Total"};
+        orderItemsTableModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false; // Make table non-editable
+            }
+        };
+        
+        orderItemsTable = new JTable(orderItemsTableModel);
+        orderItemsTable.setRowHeight(30);
+        orderItemsTable.setBackground(CARD_BG_COLOR);
+        orderItemsTable.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
+        orderItemsTable.getTableHeader().setBackground(new Color(240, 240, 240));
+        
+        // Set column widths
+        TableColumnModel itemsColumnModel = orderItemsTable.getColumnModel();
+        itemsColumnModel.getColumn(0).setPreferredWidth(300);  // Book
+        itemsColumnModel.getColumn(1).setPreferredWidth(100);  // Price
+        itemsColumnModel.getColumn(2).setPreferredWidth(80);   // Quantity
+        itemsColumnModel.getColumn(3).setPreferredWidth(100);  // Total
+        
+        // Create scroll pane for items table
+        JScrollPane itemsScrollPane = new JScrollPane(orderItemsTable);
+        itemsScrollPane.setBorder(BorderFactory.createEmptyBorder());
+        
+        // Fill order items
+        for (Object[] item : details.items) {
+            String title = (String) item[0];
+            String author = (String) item[1];
+            double price = (Double) item[2];
+            int quantity = (Integer) item[3];
+            double total = price * quantity;
             
-            orderRs.close();
-            orderStmt.close();
+            // Format for display
+            String formattedPrice = currencyFormat.format(price);
+            String formattedItemTotal = currencyFormat.format(total);
             
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading order details: " + e.getMessage(), 
-                                         "Database Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+            // Add to table
+            orderItemsTableModel.addRow(new Object[]{
+                title + " by " + author,
+                formattedPrice,
+                quantity,
+                formattedItemTotal
+            });
         }
+        
+        // Create order summary panel (bottom right)
+        JPanel summaryPanel = new JPanel();
+        summaryPanel.setLayout(new BoxLayout(summaryPanel, BoxLayout.Y_AXIS));
+        summaryPanel.setBackground(CARD_BG_COLOR);
+        summaryPanel.setBorder(BorderFactory.createCompoundBorder(
+            new SoftBevelBorder(SoftBevelBorder.RAISED, new Color(230, 230, 230), new Color(240, 240, 240)),
+            new EmptyBorder(15, 15, 15, 15)
+        ));
+        
+        JLabel orderSummaryLabel = new JLabel("Order Summary");
+        orderSummaryLabel.setFont(TITLE_FONT);
+        orderSummaryLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        
+        JSeparator summaryDivider = new JSeparator();
+        summaryDivider.setMaximumSize(new Dimension(260, 1));
+        summaryDivider.setAlignmentX(Component.LEFT_ALIGNMENT);
+        
+        JLabel totalLabel = new JLabel("Total Amount: " + currencyFormat.format(details.totalAmount));
+        totalLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        totalLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        
+        JLabel methodLabel = new JLabel("Payment Method: " + (details.paymentMethod != null ? details.paymentMethod : "N/A"));
+        methodLabel.setFont(BODY_FONT);
+        methodLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        
+        // Address panel
+        JPanel addressPanel = new JPanel();
+        addressPanel.setLayout(new BoxLayout(addressPanel, BoxLayout.Y_AXIS));
+        addressPanel.setBackground(CARD_BG_COLOR);
+        addressPanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 0, 0));
+        addressPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        
+        JLabel addressLabel = new JLabel("Shipping Address:");
+        addressLabel.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        addressLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        
+        JTextArea addressArea = new JTextArea(details.shippingAddress != null ? details.shippingAddress : "No address provided");
+        addressArea.setFont(BODY_FONT);
+        addressArea.setEditable(false);
+        addressArea.setLineWrap(true);
+        addressArea.setWrapStyleWord(true);
+        addressArea.setBackground(CARD_BG_COLOR);
+        addressArea.setBorder(BorderFactory.createEmptyBorder());
+        addressArea.setAlignmentX(Component.LEFT_ALIGNMENT);
+        
+        addressPanel.add(addressLabel);
+        addressPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+        addressPanel.add(addressArea);
+        
+        // Add components to summary panel
+        summaryPanel.add(orderSummaryLabel);
+        summaryPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+        summaryPanel.add(summaryDivider);
+        summaryPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+        summaryPanel.add(totalLabel);
+        summaryPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+        summaryPanel.add(methodLabel);
+        summaryPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+        summaryPanel.add(addressPanel);
+        
+        // Bottom panel for summary and close button
+        JPanel bottomPanel = new JPanel(new BorderLayout(20, 0));
+        bottomPanel.setBackground(MAIN_BG_COLOR);
+        
+        JButton closeButton = new JButton("Close");
+        styleButton(closeButton);
+        closeButton.addActionListener(e -> orderDetailsDialog.dispose());
+        
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setBackground(MAIN_BG_COLOR);
+        buttonPanel.add(closeButton);
+        
+        bottomPanel.add(summaryPanel, BorderLayout.CENTER);
+        bottomPanel.add(buttonPanel, BorderLayout.EAST);
+        
+        // Add all panels to main panel
+        mainPanel.add(headerPanel, BorderLayout.NORTH);
+        mainPanel.add(separator, BorderLayout.NORTH);
+        mainPanel.add(itemsScrollPane, BorderLayout.CENTER);
+        mainPanel.add(bottomPanel, BorderLayout.SOUTH);
+        
+        // Add main panel to dialog
+        orderDetailsDialog.add(mainPanel);
+        
+        // Show dialog
+        orderDetailsDialog.setVisible(true);
+    }
+    
+    // Order header and item rows loaded for the details dialog
+    private static class OrderDetails {
+        Timestamp orderDate;
+        double totalAmount;
+        String status;
+        String shippingAddress;
+        String paymentMethod;
+        final java.util.List<Object[]> items = new java.util.ArrayList<>();
     }
     
     private void goToMainPage() {
@@ -636,6 +636,16 @@ public class OrdersPage extends JFrame {
         }
     }
     
+    @Override
+    public void dispose() {
+        // Stop background queries, then release the page's connection and statements
+        DbExecutor.cancelAll(this);
+        if (session != null) {
+            session.closeWhenIdle(this);
+        }
+        super.dispose();
+    }
+
     private void logout() {
         int response = JOptionPane.showConfirmDialog(this, 
                 "Are you sure you want to logout?", 
@@ -31,12 +31,11 @@ public class ProfilePage extends JFrame {
     private static final Font BODY_FONT = new Font("Segoe UI", Font.PLAIN, 12);
     private static final Font LABEL_FONT = new Font("Segoe UI", Font.BOLD, 12);
 
-    // Database connection
-    private Connection connection;
+    // Database session, closed when the page is disposed
+    private DbSession session;
 
     // User information
     private int currentUserId;
-    private String currentUsername;
     private int roleId;
     private Map<String, String> userInfo = new HashMap<>();
 
@@ -64,60 +63,59 @@ public class ProfilePage extends JFrame {
     private boolean isFormDirty = false;
 
     public ProfilePage(int userId, int roleId) {
-        try {
-            // Get connection from DatabaseConnection class
-            this.connection = DatabaseConnection.getConnection();
-            this.currentUserId = userId;
-            this.roleId = roleId;
-            
-            // Get username from database
-            this.currentUsername = getUsernameById(userId);
-            
-            // Load user information
-            loadUserInfo();
-            
-            initializeUI();
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error connecting to database: " + e.getMessage(), 
-                                         "Database Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-            System.exit(1);
-        }
+        // Borrows this page's connection on first use; released when the page is disposed
+        this.session = new DbSession("ProfilePage");
+        this.currentUserId = userId;
+        this.roleId = roleId;
+        
+        initializeUI();
+        
+        // Load user information; the tabs are built once it arrives
+        loadUserInfo();
     }
     
-    private String getUsernameById(int userId) throws SQLException {
-        String username = "";
-        String query = "SELECT username FROM users WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                username = rs.getString("username");
+    private void loadUserInfo() {
+        DbExecutor.submit(this, this::queryUserInfo, info -> {
+            if (info.isEmpty()) {
+                mainPanel.remove(((BorderLayout) mainPanel.getLayout()).getLayoutComponent(BorderLayout.CENTER));
+                showStatusMessage("User not found", ERROR_COLOR);
+                mainPanel.revalidate();
+                mainPanel.repaint();
+                return;
             }
-        }
-        return username;
+            userInfo.putAll(info);
+            showProfileTabs();
+        }, e -> {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Error loading profile: " + e.getMessage(), 
+                                         "Database Error", JOptionPane.ERROR_MESSAGE);
+        });
     }
     
-    private void loadUserInfo() throws SQLException {
+    // Runs on a database worker thread
+    private Map<String, String> queryUserInfo() throws SQLException {
+        Map<String, String> info = new HashMap<>();
         String query = "SELECT username, email, first_name, last_name, address, phone, registration_date " +
                       "FROM users WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (PreparedStatement stmt = session.getConnection().prepareStatement(query)) {
             stmt.setInt(1, currentUserId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                userInfo.put("username", rs.getString("username"));
-                userInfo.put("email", rs.getString("email"));
-                userInfo.put("firstName", rs.getString("first_name") != null ? rs.getString("first_name") : "");
-                userInfo.put("lastName", rs.getString("last_name") != null ? rs.getString("last_name") : "");
-                userInfo.put("address", rs.getString("address") != null ? rs.getString("address") : "");
-                userInfo.put("phone", rs.getString("phone") != null ? rs.getString("phone") : "");
-                
-                // Format registration date
-                Timestamp regDate = rs.getTimestamp("registration_date");
-                SimpleDateFormat dateFormat = new SimpleDateFormat("MMMM dd, yyyy");
-                userInfo.put("registrationDate", dateFormat.format(regDate));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    info.put("username", rs.getString("username"));
+                    info.put("email", rs.getString("email"));
+                    info.put("firstName", rs.getString("first_name") != null ? rs.getString("first_name") : "");
+                    info.put("lastName", rs.getString("last_name") != null ? rs.getString("last_name") : "");
+                    info.put("address", rs.getString("address") != null ? rs.getString("address") : "");
+                    info.put("phone", rs.getString("phone") != null ? rs.getString("phone") : "");
+                    
+                    // Format registration date
+                    Timestamp regDate = rs.getTimestamp("registration_date");
+                    SimpleDateFormat dateFormat = new SimpleDateFormat("MMMM dd, yyyy");
+                    info.put("registrationDate", dateFormat.format(regDate));
+                }
             }
         }
+        return info;
     }
     
     private void initializeUI() {
@@ -229,6 +227,22 @@ public class ProfilePage extends JFrame {
         mainPanel = new JPanel(new BorderLayout());
         mainPanel.setBackground(MAIN_BG_COLOR);
         
+        // The tabs need the user's details; show a placeholder until they load
+        mainPanel.add(new LoadingPanel("Loading your profile...", MAIN_BG_COLOR), BorderLayout.CENTER);
+        
+        // Status label for feedback messages
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        statusLabel.setBorder(new EmptyBorder(10, 0, 0, 0));
+        mainPanel.add(statusLabel, BorderLayout.SOUTH);
+        
+        // Add to content panel
+        contentPanel.add(mainPanel, BorderLayout.CENTER);
+        
+        add(contentPanel, BorderLayout.CENTER);
+    }
+    
+    private void showProfileTabs() {
         // Create tabbed pane
         tabbedPane = new JTabbedPane();
         tabbedPane.setFont(TITLE_FONT);
@@ -242,19 +256,11 @@ public class ProfilePage extends JFrame {
         tabbedPane.addTab("Profile Information", profileInfoPanel);
         tabbedPane.addTab("Security", securityPanel);
         
-        // Add tabbed pane to main panel
+        // Replace the placeholder with the tabbed pane
+        mainPanel.remove(((BorderLayout) mainPanel.getLayout()).getLayoutComponent(BorderLayout.CENTER));
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
-        
-        // Status label for feedback messages
-        statusLabel = new JLabel(" ");
-        statusLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        statusLabel.setBorder(new EmptyBorder(10, 0, 0, 0));
-        mainPanel.add(statusLabel, BorderLayout.SOUTH);
-        
-        // Add to content panel
-        contentPanel.add(mainPanel, BorderLayout.CENTER);
-        
-        add(contentPanel, BorderLayout.CENTER);
+        mainPanel.revalidate();
+        mainPanel.repaint();
     }
     
     private JPanel createProfileInfoPanel() {
@@ -432,7 +438,7 @@ public class ProfilePage extends JFrame {
         
         JButton saveButton = new JButton("Save Changes");
         styleButton(saveButton);
-        saveButton.addActionListener(e -> saveProfileChanges());
+        saveButton.addActionListener(e -> saveProfileChanges(saveButton));
         
         JButton resetButton = new JButton("Reset");
         styleSecondaryButton(resetButton);
@@ -724,7 +730,7 @@ public class ProfilePage extends JFrame {
         
         JButton changePasswordButton = new JButton("Change Password");
         styleButton(changePasswordButton);
-        changePasswordButton.addActionListener(e -> changePassword());
+        changePasswordButton.addActionListener(e -> changePassword(changePasswordButton));
         
         JButton clearButton = new JButton("Clear");
         styleSecondaryButton(clearButton);
@@ -814,46 +820,58 @@ public class ProfilePage extends JFrame {
         }
     }
     
-    private void saveProfileChanges() {
+    private void saveProfileChanges(JButton saveButton) {
         // Validate email format
         if (!isValidEmail(emailField.getText())) {
             showStatusMessage("Please enter a valid email address", ERROR_COLOR);
             return;
         }
         
+        String email = emailField.getText().trim();
+        String firstName = firstNameField.getText().trim();
+        String lastName = lastNameField.getText().trim();
+        String address = addressArea.getText().trim();
+        String phone = phoneField.getText().trim();
+        
         // Prepare SQL query
         String query = "UPDATE users SET email = ?, first_name = ?, last_name = ?, " +
                       "address = ?, phone = ? WHERE id = ?";
         
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setString(1, emailField.getText().trim());
-            stmt.setString(2, firstNameField.getText().trim());
-            stmt.setString(3, lastNameField.getText().trim());
-            stmt.setString(4, addressArea.getText().trim());
-            stmt.setString(5, phoneField.getText().trim());
-            stmt.setInt(6, currentUserId);
-            
-            int rowsUpdated = stmt.executeUpdate();
-            
+        saveButton.setEnabled(false);
+        showStatusMessage("Saving...", null);
+        DbExecutor.submit(this, () -> {
+            try (PreparedStatement stmt = session.getConnection().prepareStatement(query)) {
+                stmt.setString(1, email);
+                stmt.setString(2, firstName);
+                stmt.setString(3, lastName);
+                stmt.setString(4, address);
+                stmt.setString(5, phone);
+                stmt.setInt(6, currentUserId);
+                
+                return stmt.executeUpdate();
+            }
+        }, rowsUpdated -> {
+            saveButton.setEnabled(true);
             if (rowsUpdated > 0) {
                 // Update was successful
                 showStatusMessage("Profile updated successfully", SUCCESS_COLOR);
                 
-                // Update the user info map with new values
-                userInfo.put("email", emailField.getText().trim());
-                userInfo.put("firstName", firstNameField.getText().trim());
-                userInfo.put("lastName", lastNameField.getText().trim());
-                userInfo.put("address", addressArea.getText().trim());
-                userInfo.put("phone", phoneField.getText().trim());
+                // Update the user info map with the saved values
+                userInfo.put("email", email);
+                userInfo.put("firstName", firstName);
+                userInfo.put("lastName", lastName);
+                userInfo.put("address", address);
+                userInfo.put("phone", phone);
                 
                 isFormDirty = false;
             } else {
                 showStatusMessage("Failed to update profile", ERROR_COLOR);
             }
-        } catch (SQLException e) {
+        }, e -> {
+            saveButton.setEnabled(true);
             showStatusMessage("Database error: " + e.getMessage(), ERROR_COLOR);
             e.printStackTrace();
-        }
+        });
     }
     
     private void resetProfileForm() {
@@ -868,7 +886,7 @@ public class ProfilePage extends JFrame {
         showStatusMessage("Form reset to saved values", null);
     }
     
-    private void changePassword() {
+    private void changePassword(JButton changePasswordButton) {
         // Get password values
         char[] currentPass = currentPasswordField.getPassword();
         char[] newPass = newPasswordField.getPassword();
@@ -892,14 +910,24 @@ public class ProfilePage extends JFrame {
             return;
         }
         
-        // Verify current password
-        if (!verifyCurrentPassword(new String(currentPass))) {
-            showStatusMessage("Current password is incorrect", ERROR_COLOR);
-            return;
-        }
+        String currentPassword = new String(currentPass);
+        String newPassword = new String(newPass);
         
-        // Update password in database
-        if (updatePassword(new String(newPass))) {
+        // Verify the current password and update it in one background task
+        changePasswordButton.setEnabled(false);
+        showStatusMessage("Updating password...", null);
+        DbExecutor.submit(this, () -> {
+            if (!verifyCurrentPassword(currentPassword)) {
+                return "Current password is incorrect";
+            }
+            return updatePassword(newPassword) ? null : "Failed to update password";
+        }, error -> {
+            changePasswordButton.setEnabled(true);
+            if (error != null) {
+                showStatusMessage(error, ERROR_COLOR);
+                return;
+            }
+            
             // Clear password fields
             currentPasswordField.setText("");
             newPasswordField.setText("");
@@ -907,49 +935,44 @@ public class ProfilePage extends JFrame {
             passwordMatchLabel.setText("");
             
             showStatusMessage("Password updated successfully", SUCCESS_COLOR);
-        } else {
-            showStatusMessage("Failed to update password", ERROR_COLOR);
-        }
+        }, e -> {
+            changePasswordButton.setEnabled(true);
+            showStatusMessage("Database error: " + e.getMessage(), ERROR_COLOR);
+            e.printStackTrace();
+        });
     }
     
-    private boolean verifyCurrentPassword(String passwordToCheck) {
+    // Runs on a database worker thread
+    private boolean verifyCurrentPassword(String passwordToCheck) throws SQLException {
         boolean isValid = false;
         
         String query = "SELECT password FROM users WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (PreparedStatement stmt = session.getConnection().prepareStatement(query)) {
             stmt.setInt(1, currentUserId);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                String storedPassword = rs.getString("password");
-                
-                // For simplicity, this example uses direct comparison
-                // In a real application, you would use password hashing
-                isValid = storedPassword.equals(passwordToCheck);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    String storedPassword = rs.getString("password");
+                    
+                    // For simplicity, this example uses direct comparison
+                    // In a real application, you would use password hashing
+                    isValid = storedPassword.equals(passwordToCheck);
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         
         return isValid;
     }
     
-    private boolean updatePassword(String newPassword) {
-        boolean success = false;
-        
+    // Runs on a database worker thread
+    private boolean updatePassword(String newPassword) throws SQLException {
         // In a real application, you would hash the password before storing
         String query = "UPDATE users SET password = ? WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (PreparedStatement stmt = session.getConnection().prepareStatement(query)) {
             stmt.setString(1, newPassword);
             stmt.setInt(2, currentUserId);
             
-            int rowsUpdated = stmt.executeUpdate();
-            success = (rowsUpdated > 0);
-        } catch (SQLException e) {
-            e.printStackTrace();
+            return stmt.executeUpdate() > 0;
         }
-        
-        return success;
     }
     
     private boolean isValidEmail(String email) {
@@ -1042,14 +1065,12 @@ public class ProfilePage extends JFrame {
                 goToMainPage();
                 break;
             case "My Cart":
-                // TODO: Implement cart page
-                setVisible(false);
-                new CartPage(currentUserId, roleId);
+                dispose();
+                SwingUtilities.invokeLater(() -> new CartPage(currentUserId, roleId));
                 break;
             case "Wishlist":
-                // TODO: Implement cart page
-                setVisible(false);
-                new WishlistPage(currentUserId, roleId);
+                dispose();
+                SwingUtilities.invokeLater(() -> new WishlistPage(currentUserId, roleId));
                 break;
             case "My Orders":
               
@@ -1075,6 +1096,16 @@ public class ProfilePage extends JFrame {
     }
 
     
+    @Override
+    public void dispose() {
+        // Stop background queries, then release the page's connection and statements
+        DbExecutor.cancelAll(this);
+        if (session != null) {
+            session.closeWhenIdle(this);
+        }
+        super.dispose();
+    }
+
     private void logout() {
         int response = JOptionPane.showConfirmDialog(this, 
                 "Are you sure you want to logout?", 
@@ -1101,9 +1132,9 @@ public class ProfilePage extends JFrame {
             e.printStackTrace();
         }
         
-        // Create database connection first
+        // Start the connection pool first
         try {
-            DatabaseConnection.getConnection();
+            DatabaseConnection.getPool();
             
             // For testing, we'll use a hardcoded user ID (1) and role ID (1 for Member)
             int testUserId = 1;
@@ -0,0 +1,331 @@
+package chescabookstore;
+
+import javax.swing.SwingUtilities;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The admin reports. Each report is one query over a date range. Exports
+// stream it on a dedicated connection with a forward-only cursor and a small
+// fetch size, writing every row to CSV as it arrives, so heap use doesn't
+// grow with the size of the report. The on-screen viewer reads one page at
+// a time. Fetch size: -Dbookstore.report.fetchSize, default 1000.
+public final class ReportEngine {
+
+    public enum Report {
+        SALES("Sales Report",
+                "SELECT o.id AS order_id, o.order_date, u.username, oi.book_id, b.title, oi.quantity, " +
+                "oi.price AS unit_price, oi.quantity * oi.price AS line_total " +
+                "FROM order_items oi JOIN orders o ON oi.order_id = o.id " +
+                "LEFT JOIN users u ON o.user_id = u.id LEFT JOIN books b ON oi.book_id = b.id " +
+                "WHERE o.order_date >= ? AND o.order_date < ? " +
+                "ORDER BY o.order_date, o.id, oi.id"),
+        INVENTORY("Inventory Report",
+                "SELECT b.id AS book_id, b.title, b.author, b.category, b.price, b.stock_quantity, " +
+                "b.price * b.stock_quantity AS stock_value, COALESCE(s.units_sold, 0) AS units_sold " +
+                "FROM books b LEFT JOIN (" +
+                "SELECT oi.book_id, SUM(oi.quantity) AS units_sold " +
+                "FROM order_items oi JOIN orders o ON oi.order_id = o.id " +
+                "WHERE o.order_date >= ? AND o.order_date < ? GROUP BY oi.book_id) s ON s.book_id = b.id " +
+                "ORDER BY b.id"),
+        USER_ACTIVITY("User Activity Report",
+                "SELECT u.id AS user_id, u.username, u.email, u.registration_date, COUNT(o.id) AS orders, " +
+                "COALESCE(SUM(o.total_amount), 0) AS total_spent, MAX(o.order_date) AS last_order " +
+                "FROM users u LEFT JOIN orders o ON o.user_id = u.id " +
+                "AND o.order_date >= ? AND o.order_date < ? " +
+                "WHERE u.role_id = 1 " +
+                "GROUP BY u.id, u.username, u.email, u.registration_date " +
+                "ORDER BY u.id"),
+        POPULAR_BOOKS("Popular Books Report",
+                "SELECT b.id AS book_id, b.title, b.author, SUM(oi.quantity) AS units_sold, " +
+                "SUM(oi.quantity * oi.price) AS revenue, COUNT(DISTINCT oi.order_id) AS orders " +
+                "FROM order_items oi JOIN orders o ON oi.order_id = o.id JOIN books b ON oi.book_id = b.id " +
+                "WHERE o.order_date >= ? AND o.order_date < ? " +
+                "GROUP BY b.id, b.title, b.author " +
+                "ORDER BY units_sold DESC, b.id");
+
+        private final String title;
+        private final String sql;
+
+        Report(String title, String sql) {
+            this.title = title;
+            this.sql = sql;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        // "Sales Report" -> the enum constant, or null
+        public static Report forTitle(String title) {
+            for (Report report : values()) {
+                if (report.title.equals(title)) {
+                    return report;
+                }
+            }
+            return null;
+        }
+    }
+
+    // One page for the viewer
+    public static final class Page {
+        private final String[] columns;
+        private final List<String[]> rows;
+        private final boolean hasMore;
+
+        Page(String[] columns, List<String[]> rows, boolean hasMore) {
+            this.columns = columns;
+            this.rows = rows;
+            this.hasMore = hasMore;
+        }
+
+        public String[] getColumns() {
+            return columns;
+        }
+
+        public List<String[]> getRows() {
+            return rows;
+        }
+
+        public boolean hasMore() {
+            return hasMore;
+        }
+    }
+
+    // Export callbacks, all on the EDT
+    public interface ExportListener {
+        void progress(long rows);
+
+        void finished(long rows, File file);
+
+        void cancelled();
+
+        void failed(Exception e);
+    }
+
+    private static final int FETCH_SIZE = Integer.getInteger("bookstore.report.fetchSize", 1000);
+    // Progress is reported at most this often
+    private static final long PROGRESS_INTERVAL_NANOS = 200_000_000L;
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private static final Instrumentation.Counter ROWS_EXPORTED = Instrumentation.counter("report.rows.exported");
+    private static final Instrumentation.Timer EXPORT_TIME = Instrumentation.timer("report.export");
+
+    private ReportEngine() {
+    }
+
+    // A running export; cancel() stops it and removes the partial file
+    public static final class Export {
+        private volatile boolean cancelled;
+        private volatile PreparedStatement running;
+
+        public void cancel() {
+            cancelled = true;
+            PreparedStatement stmt = running;
+            if (stmt != null) {
+                try {
+                    // Stops the query if the server is still producing the first rows
+                    stmt.cancel();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    // Exports on a background thread. The CSV is written next to the target
+    // and moved into place only once complete.
+    public static Export startExport(Report report, LocalDate from, LocalDate to, File target,
+                                     ExportListener listener) {
+        Export export = new Export();
+        Thread thread = new Thread(() -> {
+            File partial = new File(target.getPath() + ".part");
+            try {
+                long rows;
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                        Files.newOutputStream(partial.toPath()), StandardCharsets.UTF_8))) {
+                    long[] lastReport = {System.nanoTime()};
+                    rows = exportCsv(report, from, to, out, export, written -> {
+                        long now = System.nanoTime();
+                        if (now - lastReport[0] >= PROGRESS_INTERVAL_NANOS) {
+                            lastReport[0] = now;
+                            SwingUtilities.invokeLater(() -> listener.progress(written));
+                        }
+                    });
+                }
+                if (export.isCancelled()) {
+                    Files.deleteIfExists(partial.toPath());
+                    SwingUtilities.invokeLater(listener::cancelled);
+                    return;
+                }
+                Files.move(partial.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                SwingUtilities.invokeLater(() -> listener.finished(rows, target));
+            } catch (SQLException | IOException e) {
+                partial.delete();
+                if (export.isCancelled()) {
+                    // Cancelling a running query surfaces as an error
+                    SwingUtilities.invokeLater(listener::cancelled);
+                } else {
+                    SwingUtilities.invokeLater(() -> listener.failed(e));
+                }
+            }
+        }, "report-export-" + THREAD_NUMBER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+        return export;
+    }
+
+    public interface RowCallback {
+        void rowsWritten(long rows);
+    }
+
+    // Streams the report into out as CSV with a header line; returns the
+    // number of data rows written. Stops early once export is cancelled.
+    public static long exportCsv(Report report, LocalDate from, LocalDate to, Writer out, Export export,
+                                 RowCallback callback) throws SQLException, IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (Connection conn = DatabaseConnection.openStreamingConnection();
+             PreparedStatement stmt = conn.prepareStatement(report.sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            bindPeriod(stmt, from, to);
+            export.running = stmt;
+            try (ResultSet rs = stmt.executeQuery()) {
+                int columnCount = rs.getMetaData().getColumnCount();
+                String[] columns = columnLabels(rs.getMetaData());
+                writeCsvLine(out, columns);
+
+                String[] values = new String[columnCount];
+                while (!export.isCancelled() && rs.next()) {
+                    for (int i = 0; i < columnCount; i++) {
+                        values[i] = rs.getString(i + 1);
+                    }
+                    writeCsvLine(out, values);
+                    rows++;
+                    if ((rows & 1023) == 0) {
+                        callback.rowsWritten(rows);
+                    }
+                }
+            } finally {
+                export.running = null;
+            }
+        } finally {
+            ROWS_EXPORTED.add(rows);
+            EXPORT_TIME.record(System.nanoTime() - start);
+        }
+        callback.rowsWritten(rows);
+        return rows;
+    }
+
+    // Rows [offset, offset + pageSize) for the on-screen viewer
+    public static Page readPage(Report report, LocalDate from, LocalDate to, long offset, int pageSize)
+            throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(report.sql + " LIMIT ? OFFSET ?")) {
+            bindPeriod(stmt, from, to);
+            // One extra row tells whether there is a next page
+            stmt.setInt(3, pageSize + 1);
+            stmt.setLong(4, offset);
+            try (ResultSet rs = stmt.executeQuery()) {
+                String[] columns = columnLabels(rs.getMetaData());
+                List<String[]> rows = new ArrayList<>(pageSize);
+                boolean hasMore = false;
+                while (rs.next()) {
+                    if (rows.size() == pageSize) {
+                        hasMore = true;
+                        break;
+                    }
+                    String[] row = new String[columns.length];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = rs.getString(i + 1);
+                    }
+                    rows.add(row);
+                }
+                return new Page(columns, rows, hasMore);
+            }
+        }
+    }
+
+    // Period is [from, to] in whole days
+    private static void bindPeriod(PreparedStatement stmt, LocalDate from, LocalDate to) throws SQLException {
+        stmt.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+        stmt.setTimestamp(2, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+    }
+
+    private static String[] columnLabels(ResultSetMetaData meta) throws SQLException {
+        String[] labels = new String[meta.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = meta.getColumnLabel(i + 1);
+        }
+        return labels;
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks
+    static void writeCsvLine(Writer out, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write("\r\n");
+    }
+
+    // Export benchmark against a local database; reports rows, time and the
+    // highest heap use seen while streaming.
+    //   java -Xmx256m chescabookstore.ReportEngine SALES 2024-01-01 2024-12-31 sales.csv
+    public static void main(String[] args) throws Exception {
+        Report report = args.length > 0 ? Report.valueOf(args[0]) : Report.SALES;
+        LocalDate to = args.length > 2 ? LocalDate.parse(args[2]) : LocalDate.now();
+        LocalDate from = args.length > 1 ? LocalDate.parse(args[1]) : to.minusYears(1);
+        File target = new File(args.length > 3 ? args[3] : report.name().toLowerCase() + ".csv");
+
+        Runtime runtime = Runtime.getRuntime();
+        long[] peakHeap = {0};
+        long start = System.nanoTime();
+        long rows;
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(target.toPath()), StandardCharsets.UTF_8))) {
+            rows = exportCsv(report, from, to, out, new Export(), written -> {
+                peakHeap[0] = Math.max(peakHeap[0], runtime.totalMemory() - runtime.freeMemory());
+            });
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%s %s..%s: %d rows in %d ms, %.1f MB file, peak heap %.1f MB (max %.0f MB)%n",
+                report, from, to, rows, millis, target.length() / 1048576.0,
+                peakHeap[0] / 1048576.0, runtime.maxMemory() / 1048576.0);
+    }
+}
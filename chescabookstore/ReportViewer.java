@@ -0,0 +1,199 @@
+package chescabookstore;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.File;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// Shows a report one page at a time and exports the whole of it to CSV.
+// Only the visible page is ever held in memory; the export streams.
+public class ReportViewer extends JDialog {
+
+    private static final int PAGE_SIZE = 200;
+
+    private final ReportEngine.Report report;
+    private final DefaultTableModel tableModel = new DefaultTableModel() {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+
+    private final JTextField fromField = new JTextField(10);
+    private final JTextField toField = new JTextField(10);
+    private final JButton prevButton = new JButton("< Previous");
+    private final JButton nextButton = new JButton("Next >");
+    private final JLabel pageLabel = new JLabel();
+    private final JButton exportButton = new JButton("Export CSV...");
+    private final JButton cancelButton = new JButton("Cancel");
+    private final JProgressBar progressBar = new JProgressBar();
+
+    private LocalDate from;
+    private LocalDate to;
+    private long offset;
+    private ReportEngine.Export export;
+
+    public ReportViewer(Window owner, ReportEngine.Report report) {
+        super(owner, report.getTitle(), ModalityType.MODELESS);
+        this.report = report;
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setSize(900, 600);
+        setLocationRelativeTo(owner);
+        setLayout(new BorderLayout());
+
+        // Default period: the last twelve months
+        to = LocalDate.now();
+        from = to.minusYears(1).plusDays(1);
+        fromField.setText(from.toString());
+        toField.setText(to.toString());
+
+        JPanel periodPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        periodPanel.add(new JLabel("From (YYYY-MM-DD):"));
+        periodPanel.add(fromField);
+        periodPanel.add(new JLabel("To:"));
+        periodPanel.add(toField);
+        JButton applyButton = new JButton("Apply");
+        applyButton.addActionListener(e -> applyPeriod());
+        periodPanel.add(applyButton);
+        add(periodPanel, BorderLayout.NORTH);
+
+        JTable table = new JTable(tableModel);
+        table.setRowHeight(24);
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 12));
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel pagingPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        prevButton.addActionListener(e -> loadPage(Math.max(0, offset - PAGE_SIZE)));
+        nextButton.addActionListener(e -> loadPage(offset + PAGE_SIZE));
+        pagingPanel.add(prevButton);
+        pagingPanel.add(pageLabel);
+        pagingPanel.add(nextButton);
+
+        JPanel exportPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
+        exportButton.addActionListener(e -> chooseExportFile());
+        cancelButton.addActionListener(e -> {
+            if (export != null) {
+                export.cancel();
+            }
+        });
+        exportPanel.add(progressBar);
+        exportPanel.add(cancelButton);
+        exportPanel.add(exportButton);
+
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(pagingPanel, BorderLayout.WEST);
+        bottomPanel.add(exportPanel, BorderLayout.EAST);
+        add(bottomPanel, BorderLayout.SOUTH);
+
+        loadPage(0);
+    }
+
+    private void applyPeriod() {
+        try {
+            LocalDate newFrom = LocalDate.parse(fromField.getText().trim());
+            LocalDate newTo = LocalDate.parse(toField.getText().trim());
+            if (newTo.isBefore(newFrom)) {
+                JOptionPane.showMessageDialog(this, "The end date is before the start date.");
+                return;
+            }
+            from = newFrom;
+            to = newTo;
+            loadPage(0);
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Invalid date format. Use YYYY-MM-DD format.");
+        }
+    }
+
+    private void loadPage(long newOffset) {
+        prevButton.setEnabled(false);
+        nextButton.setEnabled(false);
+        pageLabel.setText("Loading...");
+        LocalDate pageFrom = from;
+        LocalDate pageTo = to;
+        DbExecutor.submit(this, () -> ReportEngine.readPage(report, pageFrom, pageTo, newOffset, PAGE_SIZE), page -> {
+            offset = newOffset;
+            tableModel.setDataVector(page.getRows().toArray(new Object[0][]), page.getColumns());
+            long first = page.getRows().isEmpty() ? 0 : offset + 1;
+            pageLabel.setText("Rows " + first + "-" + (offset + page.getRows().size()));
+            prevButton.setEnabled(offset > 0);
+            nextButton.setEnabled(page.hasMore());
+        }, e -> {
+            pageLabel.setText("");
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Error loading report: " + e.getMessage(),
+                    "Database Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    private void chooseExportFile() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(report.name().toLowerCase() + "_" + from + "_" + to + ".csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File target = chooser.getSelectedFile();
+        if (!target.getName().toLowerCase().endsWith(".csv")) {
+            target = new File(target.getPath() + ".csv");
+        }
+
+        exportButton.setEnabled(false);
+        cancelButton.setVisible(true);
+        progressBar.setVisible(true);
+        // The row count isn't known up front
+        progressBar.setIndeterminate(true);
+        progressBar.setString("Starting...");
+        revalidate();
+
+        export = ReportEngine.startExport(report, from, to, target, new ReportEngine.ExportListener() {
+            @Override
+            public void progress(long rows) {
+                progressBar.setString(rows + " rows");
+            }
+
+            @Override
+            public void finished(long rows, File file) {
+                exportDone();
+                JOptionPane.showMessageDialog(ReportViewer.this,
+                        "Exported " + rows + " rows to " + file.getAbsolutePath());
+            }
+
+            @Override
+            public void cancelled() {
+                exportDone();
+            }
+
+            @Override
+            public void failed(Exception e) {
+                exportDone();
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(ReportViewer.this, "Error exporting report: " + e.getMessage(),
+                        "Export Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+    }
+
+    private void exportDone() {
+        export = null;
+        progressBar.setIndeterminate(false);
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
+        exportButton.setEnabled(true);
+        revalidate();
+    }
+
+    @Override
+    public void dispose() {
+        // Closing the viewer stops its export and any page still loading
+        if (export != null) {
+            export.cancel();
+        }
+        DbExecutor.cancelAll(this);
+        super.dispose();
+    }
+}
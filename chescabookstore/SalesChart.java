@@ -0,0 +1,280 @@
+package chescabookstore;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+// Time-series chart for the admin reports. The chart is drawn once into an
+// off-screen image, which paintComponent just copies, so scrolling or
+// overlapping windows never re-run the layout and antialiased drawing. The
+// image is redrawn only when the data, the size or the screen scale changes.
+//
+// The first series is drawn as bars (as a filled area once there are too
+// many points for bars to be legible); further series are drawn as lines on
+// the same scale.
+public class SalesChart extends JComponent {
+
+    public static final class Series {
+        private final String name;
+        private final Color color;
+        private final double[] values;
+
+        public Series(String name, Color color, double[] values) {
+            this.name = name;
+            this.color = color;
+            this.values = values;
+        }
+    }
+
+    private static final Instrumentation.Timer RENDER_TIME = Instrumentation.timer("ui.saleschart.render");
+    private static final Instrumentation.Counter BLITS = Instrumentation.counter("ui.saleschart.blits");
+
+    private static final int LEFT = 60;
+    private static final int RIGHT = 20;
+    private static final int TOP = 20;
+    private static final int BOTTOM = 30;
+    // Below this many pixels per point the first series becomes an area
+    private static final int MIN_BAR_SLOT = 4;
+    private static final Color AXIS_COLOR = new Color(120, 120, 120);
+    private static final Color GRID_COLOR = new Color(235, 235, 235);
+    private static final Font LABEL_FONT = new Font("Segoe UI", Font.PLAIN, 11);
+
+    private String[] labels = new String[0];
+    private List<Series> series = new ArrayList<>();
+    private String message = "No sales data available";
+
+    private BufferedImage cache;
+    private double cacheScale;
+
+    public SalesChart() {
+        setOpaque(true);
+        setBackground(Color.WHITE);
+    }
+
+    // Labels name each point along the x axis; every series has one value per label
+    public void setData(String[] labels, List<Series> series) {
+        this.labels = labels;
+        this.series = new ArrayList<>(series);
+        this.message = labels.length == 0 ? "No sales data available" : null;
+        invalidateCache();
+    }
+
+    // Shown instead of the chart, e.g. while loading; null shows the data again
+    public void setMessage(String message) {
+        this.message = message;
+        invalidateCache();
+    }
+
+    private void invalidateCache() {
+        cache = null;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        // Render at device resolution so HiDPI screens stay sharp
+        AffineTransform transform = ((Graphics2D) g).getTransform();
+        double scale = Math.max(transform.getScaleX(), 1.0);
+        int imageWidth = (int) Math.ceil(width * scale);
+        int imageHeight = (int) Math.ceil(height * scale);
+
+        if (cache == null || cache.getWidth() != imageWidth || cache.getHeight() != imageHeight
+                || cacheScale != scale) {
+            cache = render(width, height, scale);
+            cacheScale = scale;
+        } else {
+            BLITS.increment();
+        }
+        g.drawImage(cache, 0, 0, width, height, null);
+    }
+
+    private BufferedImage render(int width, int height, double scale) {
+        long start = System.nanoTime();
+        BufferedImage image = new BufferedImage((int) Math.ceil(width * scale), (int) Math.ceil(height * scale),
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.scale(scale, scale);
+            g2d.setColor(getBackground());
+            g2d.fillRect(0, 0, width, height);
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2d.setFont(LABEL_FONT);
+            drawChart(g2d, width, height);
+        } finally {
+            g2d.dispose();
+        }
+        RENDER_TIME.record(System.nanoTime() - start);
+        return image;
+    }
+
+    private void drawChart(Graphics2D g2d, int width, int height) {
+        FontMetrics metrics = g2d.getFontMetrics();
+        if (message != null || labels.length == 0 || series.isEmpty()) {
+            String text = message != null ? message : "No sales data available";
+            g2d.setColor(Color.GRAY);
+            g2d.drawString(text, (width - metrics.stringWidth(text)) / 2, height / 2);
+            return;
+        }
+
+        int plotWidth = width - LEFT - RIGHT;
+        int plotHeight = height - TOP - BOTTOM;
+        if (plotWidth <= 0 || plotHeight <= 0) {
+            return;
+        }
+        int baseline = TOP + plotHeight;
+
+        double max = 0;
+        for (Series s : series) {
+            for (double value : s.values) {
+                max = Math.max(max, value);
+            }
+        }
+        double step = niceStep(max > 0 ? max / 4 : 250);
+        double top = Math.max(step, Math.ceil(max / step) * step);
+
+        // Horizontal grid lines with their values
+        for (double value = 0; value <= top + step / 2; value += step) {
+            int y = baseline - (int) Math.round(value / top * plotHeight);
+            g2d.setColor(GRID_COLOR);
+            g2d.drawLine(LEFT, y, LEFT + plotWidth, y);
+            String text = String.format("$%,.0f", value);
+            g2d.setColor(AXIS_COLOR);
+            g2d.drawString(text, LEFT - 6 - metrics.stringWidth(text), y + metrics.getAscent() / 2 - 1);
+        }
+
+        int points = labels.length;
+        double slot = (double) plotWidth / points;
+
+        Series first = series.get(0);
+        g2d.setColor(first.color);
+        if (slot >= MIN_BAR_SLOT) {
+            int gap = slot >= 12 ? (int) (slot / 5) : 1;
+            for (int i = 0; i < points && i < first.values.length; i++) {
+                int barHeight = (int) Math.round(first.values[i] / top * plotHeight);
+                int x = LEFT + (int) Math.round(i * slot) + gap / 2;
+                g2d.fillRect(x, baseline - barHeight, Math.max(1, (int) slot - gap), barHeight);
+            }
+        } else {
+            // Too dense for bars: one filled path instead of hundreds of rectangles
+            Path2D.Double area = new Path2D.Double();
+            area.moveTo(LEFT, baseline);
+            for (int i = 0; i < points && i < first.values.length; i++) {
+                area.lineTo(LEFT + (i + 0.5) * slot, baseline - first.values[i] / top * plotHeight);
+            }
+            area.lineTo(LEFT + (Math.min(points, first.values.length) - 0.5) * slot, baseline);
+            area.closePath();
+            g2d.fill(area);
+        }
+
+        g2d.setStroke(new BasicStroke(2f));
+        for (int s = 1; s < series.size(); s++) {
+            Series line = series.get(s);
+            Path2D.Double path = new Path2D.Double();
+            for (int i = 0; i < points && i < line.values.length; i++) {
+                double x = LEFT + (i + 0.5) * slot;
+                double y = baseline - line.values[i] / top * plotHeight;
+                if (i == 0) {
+                    path.moveTo(x, y);
+                } else {
+                    path.lineTo(x, y);
+                }
+            }
+            g2d.setColor(line.color);
+            g2d.draw(path);
+        }
+        g2d.setStroke(new BasicStroke(1f));
+
+        // Axes
+        g2d.setColor(AXIS_COLOR);
+        g2d.drawLine(LEFT, baseline, LEFT + plotWidth, baseline);
+        g2d.drawLine(LEFT, TOP, LEFT, baseline);
+
+        // X labels, thinned so they don't overlap
+        int widest = 0;
+        for (String label : labels) {
+            widest = Math.max(widest, metrics.stringWidth(label));
+        }
+        int labelEvery = Math.max(1, (int) Math.ceil((widest + 8) / slot));
+        for (int i = 0; i < points; i += labelEvery) {
+            int x = LEFT + (int) Math.round((i + 0.5) * slot) - metrics.stringWidth(labels[i]) / 2;
+            g2d.drawString(labels[i], x, baseline + metrics.getAscent() + 4);
+        }
+
+        // Legend, once there is more than one series to tell apart
+        if (series.size() > 1) {
+            int x = LEFT + plotWidth;
+            for (int s = series.size() - 1; s >= 0; s--) {
+                Series legend = series.get(s);
+                x -= metrics.stringWidth(legend.name) + 24;
+                g2d.setColor(legend.color);
+                g2d.fillRect(x, TOP - 12, 10, 10);
+                g2d.setColor(AXIS_COLOR);
+                g2d.drawString(legend.name, x + 14, TOP - 3);
+            }
+        }
+    }
+
+    // 1, 2 or 5 times a power of ten, at least raw
+    private static double niceStep(double raw) {
+        double magnitude = Math.pow(10, Math.floor(Math.log10(raw)));
+        double fraction = raw / magnitude;
+        double nice = fraction <= 1 ? 1 : fraction <= 2 ? 2 : fraction <= 5 ? 5 : 10;
+        return nice * magnitude;
+    }
+
+    // Renders a year of daily points in three series, then repaints the same
+    // size many times; only the first paint after a change should render.
+    public static void main(String[] args) {
+        int points = args.length > 0 ? Integer.parseInt(args[0]) : 365;
+        String[] labels = new String[points];
+        double[][] values = new double[3][points];
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < points; i++) {
+            labels[i] = "D" + (i + 1);
+            values[0][i] = 200 + random.nextInt(800);
+            values[1][i] = 200 + random.nextInt(800);
+            values[2][i] = 500 + 300 * Math.sin(i / 20.0);
+        }
+        List<Series> data = new ArrayList<>();
+        data.add(new Series("This year", new Color(41, 128, 185), values[0]));
+        data.add(new Series("Last year", new Color(230, 126, 34), values[1]));
+        data.add(new Series("Trend", new Color(46, 204, 113), values[2]));
+
+        SalesChart chart = new SalesChart();
+        chart.setSize(1000, 300);
+        BufferedImage screen = new BufferedImage(1000, 300, BufferedImage.TYPE_INT_RGB);
+
+        int renders = 50;
+        long start = System.nanoTime();
+        for (int i = 0; i < renders; i++) {
+            chart.setData(labels, data);
+            Graphics2D g = screen.createGraphics();
+            chart.paintComponent(g);
+            g.dispose();
+        }
+        double renderMs = (System.nanoTime() - start) / 1e6 / renders;
+
+        int paints = 1000;
+        start = System.nanoTime();
+        for (int i = 0; i < paints; i++) {
+            Graphics2D g = screen.createGraphics();
+            chart.paintComponent(g);
+            g.dispose();
+        }
+        double paintMs = (System.nanoTime() - start) / 1e6 / paints;
+
+        System.out.printf("points=%d series=%d render=%.2fms cached paint=%.3fms (%s, blits=%d)%n",
+                points, data.size(), renderMs, paintMs, RENDER_TIME, BLITS.get());
+    }
+}
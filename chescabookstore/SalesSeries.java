@@ -0,0 +1,212 @@
+package chescabookstore;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Sales over time for the admin chart, read from the sales_daily rollup
+// (one row per calendar day) rather than from orders. Checkout adds each
+// order to its day in the same transaction; rebuild() recomputes days from
+// orders, for backfilling or after orders were changed by hand:
+//   java chescabookstore.SalesSeries [from [to]]
+public final class SalesSeries {
+
+    public enum Granularity {
+        DAY, WEEK, MONTH
+    }
+
+    public static final class Bucket {
+        private final LocalDate start;
+        private final String label;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private int orderCount;
+
+        Bucket(LocalDate start, String label) {
+            this.start = start;
+            this.label = label;
+        }
+
+        // First day of the bucket
+        public LocalDate getStart() {
+            return start;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public BigDecimal getRevenue() {
+            return revenue;
+        }
+
+        public int getOrderCount() {
+            return orderCount;
+        }
+    }
+
+    // MySQL/MariaDB: ER_NO_SUCH_TABLE
+    private static final int NO_SUCH_TABLE = 1146;
+
+    private static final DateTimeFormatter DAY_LABEL = DateTimeFormatter.ofPattern("MMM d", Locale.ENGLISH);
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMM ''yy", Locale.ENGLISH);
+
+    private SalesSeries() {
+    }
+
+    // Call inside the checkout transaction, next to StoreStats.orderPlaced.
+    // An order placed across midnight can land on the neighbouring day;
+    // rebuild() puts it back.
+    public static void orderPlaced(Connection conn, BigDecimal total) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO sales_daily (sale_date, order_count, revenue) VALUES (CURDATE(), 1, ?) " +
+                "ON DUPLICATE KEY UPDATE order_count = order_count + 1, revenue = revenue + VALUES(revenue)")) {
+            stmt.setBigDecimal(1, total);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            // Databases created before sales_daily just don't get the rollup
+            if (e.getErrorCode() != NO_SUCH_TABLE) {
+                throw e;
+            }
+        }
+    }
+
+    // The last n buckets up to and including the current day/week/month,
+    // oldest first. Buckets without sales are present with zero revenue.
+    public static List<Bucket> rolling(Connection conn, Granularity granularity, int n) throws SQLException {
+        return rolling(conn, granularity, n, LocalDate.now());
+    }
+
+    static List<Bucket> rolling(Connection conn, Granularity granularity, int n, LocalDate today) throws SQLException {
+        List<Bucket> buckets = emptyBuckets(granularity, n, today);
+        LocalDate from = buckets.get(0).start;
+
+        // At most a year or so of day rows, by primary key range
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT sale_date, order_count, revenue FROM sales_daily " +
+                "WHERE sale_date >= ? AND sale_date <= ? ORDER BY sale_date")) {
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(today));
+            try (ResultSet rs = stmt.executeQuery()) {
+                int index = 0;
+                while (rs.next()) {
+                    LocalDate day = rs.getDate("sale_date").toLocalDate();
+                    // Rows arrive in date order, so the bucket index only moves forward
+                    while (index + 1 < buckets.size() && !day.isBefore(buckets.get(index + 1).start)) {
+                        index++;
+                    }
+                    Bucket bucket = buckets.get(index);
+                    bucket.revenue = bucket.revenue.add(rs.getBigDecimal("revenue"));
+                    bucket.orderCount += rs.getInt("order_count");
+                }
+            }
+        }
+        return buckets;
+    }
+
+    static List<Bucket> emptyBuckets(Granularity granularity, int n, LocalDate today) {
+        LocalDate current;
+        switch (granularity) {
+            case DAY:
+                current = today;
+                break;
+            case WEEK:
+                current = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                break;
+            default:
+                current = today.withDayOfMonth(1);
+                break;
+        }
+
+        List<Bucket> buckets = new ArrayList<>(n);
+        for (int i = n - 1; i >= 0; i--) {
+            LocalDate start;
+            String label;
+            switch (granularity) {
+                case DAY:
+                    start = current.minusDays(i);
+                    label = start.format(DAY_LABEL);
+                    break;
+                case WEEK:
+                    start = current.minusWeeks(i);
+                    label = start.format(DAY_LABEL);
+                    break;
+                default:
+                    start = current.minusMonths(i);
+                    label = start.format(MONTH_LABEL);
+                    break;
+            }
+            buckets.add(new Bucket(start, label));
+        }
+        return buckets;
+    }
+
+    // Recomputes sales_daily for [from, to] from orders; returns the days written
+    public static int rebuild(Connection conn, LocalDate from, LocalDate to) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "DELETE FROM sales_daily WHERE sale_date >= ? AND sale_date <= ?")) {
+                stmt.setDate(1, Date.valueOf(from));
+                stmt.setDate(2, Date.valueOf(to));
+                stmt.executeUpdate();
+            }
+            int days;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO sales_daily (sale_date, order_count, revenue) " +
+                    "SELECT DATE(order_date), COUNT(*), SUM(total_amount) FROM orders " +
+                    "WHERE order_date >= ? AND order_date < ? GROUP BY DATE(order_date)")) {
+                stmt.setDate(1, Date.valueOf(from));
+                stmt.setDate(2, Date.valueOf(to.plusDays(1)));
+                days = stmt.executeUpdate();
+            }
+            conn.commit();
+            return days;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Backfill: every day that has orders, or just the given range
+    public static void main(String[] args) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            LocalDate from;
+            LocalDate to;
+            if (args.length > 0) {
+                from = LocalDate.parse(args[0]);
+                to = args.length > 1 ? LocalDate.parse(args[1]) : LocalDate.now();
+            } else {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT DATE(MIN(order_date)), DATE(MAX(order_date)) FROM orders");
+                     ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    if (rs.getDate(1) == null) {
+                        System.out.println("no orders");
+                        return;
+                    }
+                    from = rs.getDate(1).toLocalDate();
+                    to = rs.getDate(2).toLocalDate();
+                }
+            }
+            long start = System.nanoTime();
+            int days = rebuild(conn, from, to);
+            System.out.printf("rebuilt %s..%s: %d days with sales in %d ms%n",
+                    from, to, days, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+}
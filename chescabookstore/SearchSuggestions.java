@@ -0,0 +1,169 @@
+package chescabookstore;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Drop-down of type-ahead suggestions under a search field. Lookups hit the
+// in-memory SuggestionIndex on every keystroke; picking an entry fills the
+// field and hands the text to onSelect (the page's search).
+public class SearchSuggestions {
+
+    private static final int MAX_SUGGESTIONS = 8;
+    private static final Color KIND_COLOR = new Color(130, 130, 130);
+
+    private final JTextField field;
+    private final Consumer<String> onSelect;
+    private final JPopupMenu popup = new JPopupMenu();
+    private final DefaultListModel<SuggestionIndex.Suggestion> model = new DefaultListModel<>();
+    private final JList<SuggestionIndex.Suggestion> list = new JList<>(model);
+    // Set while we fill the field ourselves so it doesn't trigger another lookup
+    private boolean updatingField;
+
+    public static void install(JTextField field, Consumer<String> onSelect) {
+        new SearchSuggestions(field, onSelect);
+    }
+
+    private SearchSuggestions(JTextField field, Consumer<String> onSelect) {
+        this.field = field;
+        this.onSelect = onSelect;
+
+        list.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        list.setFocusable(false);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setCellRenderer(new SuggestionRenderer());
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = list.locationToIndex(e.getPoint());
+                if (index >= 0) {
+                    choose(model.get(index));
+                }
+            }
+        });
+
+        popup.setFocusable(false);
+        popup.setBorder(BorderFactory.createLineBorder(new Color(220, 220, 220)));
+        popup.add(list);
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                refresh();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                refresh();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                refresh();
+            }
+        });
+
+        field.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) {
+                    return;
+                }
+                int selected = list.getSelectedIndex();
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN:
+                        list.setSelectedIndex(Math.min(model.size() - 1, selected + 1));
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_UP:
+                        list.setSelectedIndex(Math.max(0, selected - 1));
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ENTER:
+                        if (selected >= 0) {
+                            choose(model.get(selected));
+                            e.consume();
+                        } else {
+                            popup.setVisible(false);
+                        }
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        popup.setVisible(false);
+                        e.consume();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+
+        field.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+            }
+        });
+    }
+
+    private void refresh() {
+        if (updatingField) {
+            return;
+        }
+        // Document events can arrive mid-edit; look up once the edit is applied
+        SwingUtilities.invokeLater(() -> {
+            String text = field.getText().trim();
+            List<SuggestionIndex.Suggestion> suggestions = text.isEmpty()
+                    ? List.of()
+                    : SuggestionIndex.getInstance().suggest(text, MAX_SUGGESTIONS);
+
+            model.clear();
+            for (SuggestionIndex.Suggestion suggestion : suggestions) {
+                model.addElement(suggestion);
+            }
+
+            if (model.isEmpty() || !field.isShowing()) {
+                popup.setVisible(false);
+                return;
+            }
+            list.setVisibleRowCount(model.size());
+            popup.setPopupSize(Math.max(field.getWidth(), 280), list.getPreferredScrollableViewportSize().height + 4);
+            popup.show(field, 0, field.getHeight());
+        });
+    }
+
+    private void choose(SuggestionIndex.Suggestion suggestion) {
+        popup.setVisible(false);
+        updatingField = true;
+        try {
+            field.setText(suggestion.getText());
+        } finally {
+            updatingField = false;
+        }
+        onSelect.accept(suggestion.getText());
+    }
+
+    private static class SuggestionRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            JLabel label = (JLabel) super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            SuggestionIndex.Suggestion suggestion = (SuggestionIndex.Suggestion) value;
+            String kind = suggestion.getKind() == SuggestionIndex.KIND_AUTHOR ? "author"
+                    : suggestion.getKind() == SuggestionIndex.KIND_ISBN ? "ISBN" : "title";
+            String hex = String.format("#%06x", KIND_COLOR.getRGB() & 0xFFFFFF);
+            label.setText("<html>" + escape(suggestion.getText())
+                    + " <font color='" + hex + "'>&middot; " + kind + "</font></html>");
+            label.setBorder(new EmptyBorder(4, 8, 4, 8));
+            return label;
+        }
+
+        private static String escape(String text) {
+            return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        }
+    }
+}
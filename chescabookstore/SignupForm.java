@@ -195,47 +195,69 @@ public class SignupForm extends JFrame {
             return;
         }
         
+        // Register off the EDT; the form shows a loading state meanwhile
+        btnSignup.setEnabled(false);
+        lblMessage.setText("Creating your account...");
+        
+        DbExecutor.submit(this, () -> register(username, password, email, firstName, lastName, address, phone), error -> {
+            btnSignup.setEnabled(true);
+            if (error != null) {
+                lblMessage.setText(error);
+                return;
+            }
+            lblMessage.setText("");
+            JOptionPane.showMessageDialog(this, "Registration successful! Please login.");
+            backToLogin();
+        }, ex -> {
+            btnSignup.setEnabled(true);
+            lblMessage.setText("Database error: " + ex.getMessage());
+            ex.printStackTrace();
+        });
+    }
+    
+    // Runs on a database worker thread; returns null on success, otherwise the message to show
+    private String register(String username, String password, String email, String firstName,
+                            String lastName, String address, String phone) throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection()) {
             // Check if username or email already exists
             String checkQuery = "SELECT COUNT(*) FROM users WHERE username = ? OR email = ?";
-            PreparedStatement checkStmt = conn.prepareStatement(checkQuery);
-            checkStmt.setString(1, username);
-            checkStmt.setString(2, email);
-            
-            ResultSet checkResult = checkStmt.executeQuery();
-            checkResult.next();
-            int count = checkResult.getInt(1);
+            int count;
+            try (PreparedStatement checkStmt = conn.prepareStatement(checkQuery)) {
+                checkStmt.setString(1, username);
+                checkStmt.setString(2, email);
+                
+                try (ResultSet checkResult = checkStmt.executeQuery()) {
+                    checkResult.next();
+                    count = checkResult.getInt(1);
+                }
+            }
             
             if (count > 0) {
-                lblMessage.setText("Username or email already exists");
-                return;
+                return "Username or email already exists";
             }
             
             // Insert user data
             String insertQuery = "INSERT INTO users (username, password, email, first_name, last_name, address, phone, role_id) " +
                                 "VALUES (?, ?, ?, ?, ?, ?, ?, 1)";
             
-            PreparedStatement insertStmt = conn.prepareStatement(insertQuery);
-            insertStmt.setString(1, username);
-            insertStmt.setString(2, password); // In a real app, use password hashing!
-            insertStmt.setString(3, email);
-            insertStmt.setString(4, firstName);
-            insertStmt.setString(5, lastName);
-            insertStmt.setString(6, address);
-            insertStmt.setString(7, phone);
-            
-            int rowsAffected = insertStmt.executeUpdate();
-            
-            if (rowsAffected > 0) {
-                JOptionPane.showMessageDialog(this, "Registration successful! Please login.");
-                backToLogin();
-            } else {
-                lblMessage.setText("Registration failed. Please try again.");
+            int rowsAffected;
+            try (PreparedStatement insertStmt = conn.prepareStatement(insertQuery)) {
+                insertStmt.setString(1, username);
+                insertStmt.setString(2, password); // In a real app, use password hashing!
+                insertStmt.setString(3, email);
+                insertStmt.setString(4, firstName);
+                insertStmt.setString(5, lastName);
+                insertStmt.setString(6, address);
+                insertStmt.setString(7, phone);
+                
+                rowsAffected = insertStmt.executeUpdate();
             }
             
-        } catch (SQLException ex) {
-            lblMessage.setText("Database error: " + ex.getMessage());
-            ex.printStackTrace();
+            if (rowsAffected == 0) {
+                return "Registration failed. Please try again.";
+            }
+            StoreStats.customerAdded(conn);
+            return null;
         }
     }
     
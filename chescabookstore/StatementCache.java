@@ -0,0 +1,142 @@
+package chescabookstore;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Per-connection LRU cache of prepared statements keyed by SQL text.
+// Callers get a proxy whose close() only clears parameters and closes the
+// open ResultSet, so the next prepareStatement with the same SQL reuses the
+// already-parsed (server-side) statement.
+public class StatementCache {
+
+    private final Connection physical;
+    private final int capacity;
+    private final Map<String, Entry> entries;
+
+    public StatementCache(Connection physical, int capacity) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= StatementCache.this.capacity) {
+                    return false;
+                }
+                Entry evicted = eldest.getValue();
+                evicted.evicted = true;
+                if (!evicted.inUse) {
+                    evicted.closePhysical();
+                }
+                Instrumentation.counter("db.stmtcache.evictions").increment();
+                return true;
+            }
+        };
+    }
+
+    public synchronized PreparedStatement prepare(String sql) throws SQLException {
+        if (capacity <= 0) {
+            return physical.prepareStatement(sql);
+        }
+
+        Entry entry = entries.get(sql);
+        if (entry != null && !entry.inUse) {
+            Instrumentation.counter("db.stmtcache.hits").increment();
+        } else if (entry != null) {
+            // Same SQL already open on this connection (nested use); don't share it
+            Instrumentation.counter("db.stmtcache.misses").increment();
+            return physical.prepareStatement(sql);
+        } else {
+            Instrumentation.counter("db.stmtcache.misses").increment();
+            entry = new Entry(physical.prepareStatement(sql));
+            entries.put(sql, entry);
+        }
+
+        entry.inUse = true;
+        return entry.newHandle();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void giveBack(Entry entry) {
+        entry.inUse = false;
+        if (entry.evicted) {
+            entry.closePhysical();
+            return;
+        }
+        try {
+            entry.statement.clearParameters();
+        } catch (SQLException e) {
+            // Statement is no longer usable; drop it from the cache
+            entries.values().remove(entry);
+            entry.closePhysical();
+        }
+    }
+
+    private final class Entry {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        private Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private void closePhysical() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // Being discarded anyway
+            }
+        }
+
+        private PreparedStatement newHandle() {
+            // State is per handle, so a stale handle can't touch the next borrower's statement
+            Object[] state = new Object[]{Boolean.FALSE, null};
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        boolean closed = (Boolean) state[0];
+                        switch (method.getName()) {
+                            case "close":
+                                if (!closed) {
+                                    state[0] = Boolean.TRUE;
+                                    if (state[1] != null) {
+                                        ((ResultSet) state[1]).close();
+                                    }
+                                    giveBack(this);
+                                }
+                                return null;
+                            case "isClosed":
+                                return closed || statement.isClosed();
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                if (closed) {
+                                    throw new SQLException("Statement has already been closed");
+                                }
+                                Object result;
+                                try {
+                                    result = method.invoke(statement, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                                if (result instanceof ResultSet) {
+                                    state[1] = result;
+                                }
+                                return result;
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package chescabookstore;
+
+import javax.swing.SwingUtilities;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// In-process notifications of single-row changes, so views can patch the
+// affected rows instead of reloading whole tables. Events can be fired from
+// any thread (the catalog change poller fires from its own); listeners are
+// always called on the EDT.
+public final class StoreEvents {
+
+    public interface Listener {
+        // A checkout committed on some terminal, reported by the CatalogChanges
+        // poller once followOrders() is on; total is what StoreStats.orderPlaced
+        // added to revenue
+        default void orderPlaced(int orderId, BigDecimal total) {
+        }
+
+        default void orderStatusChanged(int orderId, String status) {
+        }
+
+        // Inserted or updated, including stock changes
+        default void bookChanged(int bookId) {
+        }
+
+        default void bookRemoved(int bookId) {
+        }
+    }
+
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private StoreEvents() {
+    }
+
+    public static void addListener(Listener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        if (listener != null) {
+            LISTENERS.remove(listener);
+        }
+    }
+
+    public static void fireOrderPlaced(int orderId, BigDecimal total) {
+        dispatch(listener -> listener.orderPlaced(orderId, total));
+    }
+
+    public static void fireOrderStatusChanged(int orderId, String status) {
+        dispatch(listener -> listener.orderStatusChanged(orderId, status));
+    }
+
+    public static void fireBookChanged(int bookId) {
+        dispatch(listener -> listener.bookChanged(bookId));
+    }
+
+    public static void fireBookRemoved(int bookId) {
+        dispatch(listener -> listener.bookRemoved(bookId));
+    }
+
+    private static void dispatch(Consumer<Listener> delivery) {
+        if (LISTENERS.isEmpty()) {
+            return;
+        }
+        Runnable deliverAll = () -> {
+            for (Listener listener : LISTENERS) {
+                delivery.accept(listener);
+            }
+        };
+        if (SwingUtilities.isEventDispatchThread()) {
+            deliverAll.run();
+        } else {
+            SwingUtilities.invokeLater(deliverAll);
+        }
+    }
+}
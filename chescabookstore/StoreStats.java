@@ -0,0 +1,130 @@
+package chescabookstore;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Dashboard totals kept in the single row of store_stats, so the admin
+// dashboard reads four numbers by primary key instead of counting and summing
+// whole tables. Whatever changes a total adjusts it on the same connection:
+// checkout (orders, revenue), signup (customers), AdminPanel add/delete
+// (books). Anything that bypasses those paths (manual SQL, the checkout
+// stress test) is corrected by rebuild(); run it periodically:
+//   java chescabookstore.StoreStats
+public final class StoreStats {
+
+    private static final int ROW_ID = 1;
+    // MySQL/MariaDB: ER_NO_SUCH_TABLE, for databases created before store_stats
+    private static final int NO_SUCH_TABLE = 1146;
+
+    private static final String TOTALS_QUERY =
+            "SELECT (SELECT COUNT(*) FROM books), " +
+            "(SELECT COUNT(*) FROM users WHERE role_id = 1), " +
+            "(SELECT COUNT(*) FROM orders), " +
+            "(SELECT COALESCE(SUM(total_amount), 0) FROM orders)";
+
+    private StoreStats() {
+    }
+
+    // Books, customers, orders and revenue (BigDecimal), in that order
+    public static Number[] read(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT total_books, total_customers, total_orders, total_revenue FROM store_stats WHERE id = ?")) {
+            stmt.setInt(1, ROW_ID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Number[]{rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getBigDecimal(4)};
+                }
+            }
+        } catch (SQLException e) {
+            if (!isMissingTable(e)) {
+                throw e;
+            }
+        }
+        // No counters yet: one combined query over the tables themselves
+        return count(conn);
+    }
+
+    public static void booksChanged(Connection conn, int delta) throws SQLException {
+        adjust(conn, "total_books = total_books + ?", delta);
+    }
+
+    public static void customerAdded(Connection conn) throws SQLException {
+        adjust(conn, "total_customers = total_customers + ?", 1);
+    }
+
+    // Call inside the checkout transaction, as late as possible: the row lock is held until commit
+    public static void orderPlaced(Connection conn, BigDecimal total) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE store_stats SET total_orders = total_orders + 1, total_revenue = total_revenue + ? WHERE id = ?")) {
+            stmt.setBigDecimal(1, total);
+            stmt.setInt(2, ROW_ID);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            // Without the table there is nothing to keep up to date
+            if (!isMissingTable(e)) {
+                throw e;
+            }
+        }
+    }
+
+    // Recounts every total from the underlying tables. Scans orders, so keep
+    // it to maintenance runs rather than page loads.
+    public static Number[] rebuild(Connection conn) throws SQLException {
+        Number[] totals = count(conn);
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO store_stats (id, total_books, total_customers, total_orders, total_revenue, rebuilt_at) " +
+                "VALUES (?, ?, ?, ?, ?, NOW()) " +
+                "ON DUPLICATE KEY UPDATE total_books = VALUES(total_books), total_customers = VALUES(total_customers), " +
+                "total_orders = VALUES(total_orders), total_revenue = VALUES(total_revenue), rebuilt_at = NOW()")) {
+            stmt.setInt(1, ROW_ID);
+            stmt.setInt(2, totals[0].intValue());
+            stmt.setInt(3, totals[1].intValue());
+            stmt.setInt(4, totals[2].intValue());
+            stmt.setBigDecimal(5, (BigDecimal) totals[3]);
+            stmt.executeUpdate();
+        }
+        return totals;
+    }
+
+    private static Number[] count(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(TOTALS_QUERY);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return new Number[]{rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getBigDecimal(4)};
+        }
+    }
+
+    private static void adjust(Connection conn, String assignment, int delta) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE store_stats SET " + assignment + " WHERE id = ?")) {
+            stmt.setInt(1, delta);
+            stmt.setInt(2, ROW_ID);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            if (!isMissingTable(e)) {
+                throw e;
+            }
+        }
+    }
+
+    private static boolean isMissingTable(SQLException e) {
+        return e.getErrorCode() == NO_SUCH_TABLE;
+    }
+
+    // Reconciliation: prints how far the counters had drifted, then rebuilds them
+    public static void main(String[] args) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Number[] before = read(conn);
+            Number[] after = rebuild(conn);
+            String[] names = {"books", "customers", "orders", "revenue"};
+            for (int i = 0; i < names.length; i++) {
+                System.out.printf("%-10s %12s -> %12s%n", names[i], before[i], after[i]);
+            }
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package chescabookstore;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+// Type-ahead suggestions for the catalog search box. Normalized titles,
+// authors and ISBNs are packed into one sorted UTF-8 byte array (no String
+// per entry), so a prefix maps to a contiguous range found by binary search.
+// A max segment tree over the popularity weights then yields the top-k
+// entries of that range in O(k log n) without touching MySQL.
+public class SuggestionIndex {
+
+    public static final int KIND_TITLE = 0;
+    public static final int KIND_AUTHOR = 1;
+    public static final int KIND_ISBN = 2;
+
+    // Memory budget: entry count and key length are capped
+    private static final int MAX_ENTRIES = Integer.getInteger("bookstore.suggest.maxEntries", 600000);
+    private static final int MAX_KEY_BYTES = 64;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}");
+
+    private static final SuggestionIndex INSTANCE = new SuggestionIndex();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean stale = true;
+
+    public static SuggestionIndex getInstance() {
+        return INSTANCE;
+    }
+
+    // One suggestion: text to show plus what kind of field it came from
+    public static final class Suggestion {
+        private final String text;
+        private final int kind;
+
+        Suggestion(String text, int kind) {
+            this.text = text;
+            this.kind = kind;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getKind() {
+            return kind;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    // Top-k completions for the prefix; never blocks on the database
+    public List<Suggestion> suggest(String prefix, int k) {
+        if (stale) {
+            rebuildInBackground();
+        }
+        long start = System.nanoTime();
+        List<Suggestion> result = snapshot.topK(normalize(prefix), k);
+        Instrumentation.timer("suggest.lookup").record(System.nanoTime() - start);
+        return result;
+    }
+
+    // Catalog changed; the next lookup schedules a rebuild and serves the old data meanwhile
+    public void invalidate() {
+        stale = true;
+    }
+
+    public long memoryBytes() {
+        return snapshot.memoryBytes();
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    private void rebuildInBackground() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (SQLException e) {
+                stale = true;
+                e.printStackTrace();
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "suggest-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Weight is units sold; authors add up over all their books
+    public void rebuild() throws SQLException {
+        long start = System.nanoTime();
+        // Changes arriving while we read mark it stale again
+        stale = false;
+        String query = "SELECT b.title, b.author, b.isbn, COALESCE(SUM(oi.quantity), 0) AS sold " +
+                       "FROM books b LEFT JOIN order_items oi ON oi.book_id = b.id " +
+                       "GROUP BY b.id, b.title, b.author, b.isbn";
+        Builder builder = new Builder();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                int sold = rs.getInt("sold");
+                builder.add(rs.getString("title"), KIND_TITLE, sold);
+                builder.add(rs.getString("author"), KIND_AUTHOR, sold);
+                builder.add(rs.getString("isbn"), KIND_ISBN, sold);
+            }
+        }
+        snapshot = builder.build();
+        Instrumentation.timer("suggest.build").record(System.nanoTime() - start);
+    }
+
+    // Lowercase, accents stripped, punctuation dropped, single spaces
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = text.toLowerCase();
+        if (!isAscii(stripped)) {
+            stripped = MARKS.matcher(Normalizer.normalize(stripped, Normalizer.Form.NFD)).replaceAll("");
+        }
+        StringBuilder sb = new StringBuilder(stripped.length());
+        boolean space = false;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(c);
+                space = false;
+            } else if (c != '-') {
+                // Hyphens vanish so "978-0-14" matches "978014"
+                space = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 128) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] keyBytes(String normalized) {
+        byte[] bytes = normalized.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_KEY_BYTES) {
+            return bytes;
+        }
+        // Cut on a character boundary
+        int end = MAX_KEY_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return Arrays.copyOf(bytes, end);
+    }
+
+    // One suggestion while building: normalized key, display text, kind, weight
+    private static final class Entry {
+        final byte[] key;
+        final String display;
+        final int kind;
+        int weight;
+
+        Entry(byte[] key, String display, int kind, int weight) {
+            this.key = key;
+            this.display = display;
+            this.kind = kind;
+            this.weight = weight;
+        }
+    }
+
+    // Collects and merges entries before packing them
+    static final class Builder {
+        private final Map<String, Entry> entries = new HashMap<>();
+
+        void add(String text, int kind, int weight) {
+            if (text == null || text.trim().isEmpty()) {
+                return;
+            }
+            String key = normalize(text);
+            if (key.isEmpty()) {
+                return;
+            }
+            // Same author (or duplicate title) collapses into one weighted entry
+            Entry entry = entries.get(kind + ":" + key);
+            if (entry == null) {
+                entries.put(kind + ":" + key, new Entry(keyBytes(key), text.trim(), kind, weight));
+            } else {
+                entry.weight += weight;
+            }
+        }
+
+        Snapshot build() {
+            List<Entry> list = new ArrayList<>(entries.values());
+            if (list.size() > MAX_ENTRIES) {
+                // Over budget: keep the most popular entries
+                list.sort((a, b) -> Integer.compare(b.weight, a.weight));
+                list = new ArrayList<>(list.subList(0, MAX_ENTRIES));
+            }
+            list.sort((a, b) -> compareBytes(a.key, b.key));
+            return new Snapshot(list);
+        }
+    }
+
+    static int compareBytes(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    // Immutable packed index; replaced wholesale on rebuild
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new ArrayList<>());
+
+        final int size;
+        private final byte[] keys;
+        private final int[] keyOffsets;
+        private final byte[] displays;
+        private final int[] displayOffsets;
+        private final byte[] kinds;
+        private final int[] weights;
+        // Index of the max-weight entry per node; leaves start at 'leaves'
+        private final int[] tree;
+        private final int leaves;
+
+        Snapshot(List<Entry> sorted) {
+            size = sorted.size();
+            keyOffsets = new int[size + 1];
+            displayOffsets = new int[size + 1];
+            kinds = new byte[size];
+            weights = new int[size];
+
+            int keyTotal = 0;
+            int displayTotal = 0;
+            byte[][] displayBytes = new byte[size][];
+            for (int i = 0; i < size; i++) {
+                keyTotal += sorted.get(i).key.length;
+                displayBytes[i] = sorted.get(i).display.getBytes(StandardCharsets.UTF_8);
+                displayTotal += displayBytes[i].length;
+            }
+            keys = new byte[keyTotal];
+            displays = new byte[displayTotal];
+
+            int keyPos = 0;
+            int displayPos = 0;
+            for (int i = 0; i < size; i++) {
+                Entry entry = sorted.get(i);
+                byte[] key = entry.key;
+                System.arraycopy(key, 0, keys, keyPos, key.length);
+                keyOffsets[i] = keyPos;
+                keyPos += key.length;
+                System.arraycopy(displayBytes[i], 0, displays, displayPos, displayBytes[i].length);
+                displayOffsets[i] = displayPos;
+                displayPos += displayBytes[i].length;
+                kinds[i] = (byte) entry.kind;
+                weights[i] = entry.weight;
+            }
+            keyOffsets[size] = keyPos;
+            displayOffsets[size] = displayPos;
+
+            int n = 1;
+            while (n < Math.max(1, size)) {
+                n <<= 1;
+            }
+            leaves = n;
+            tree = new int[2 * n];
+            Arrays.fill(tree, -1);
+            for (int i = 0; i < size; i++) {
+                tree[n + i] = i;
+            }
+            for (int node = n - 1; node >= 1; node--) {
+                tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        long memoryBytes() {
+            return keys.length + displays.length + kinds.length
+                    + 4L * (keyOffsets.length + displayOffsets.length + weights.length + tree.length);
+        }
+
+        List<Suggestion> topK(String normalizedPrefix, int k) {
+            List<Suggestion> result = new ArrayList<>(k);
+            if (size == 0 || normalizedPrefix.isEmpty() || k <= 0) {
+                return result;
+            }
+            byte[] prefix = normalizedPrefix.getBytes(StandardCharsets.UTF_8);
+            int lo = lowerBound(prefix);
+            int hi = prefixEnd(prefix, lo);
+            if (lo >= hi) {
+                return result;
+            }
+
+            // Best-first expansion over sub-ranges, each keyed by its max entry
+            PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> compareEntries(b[2], a[2]));
+            queue.add(new int[]{lo, hi, rangeMax(lo, hi)});
+            while (!queue.isEmpty() && result.size() < k) {
+                int[] range = queue.poll();
+                int best = range[2];
+                result.add(new Suggestion(display(best), kinds[best]));
+                if (range[0] < best) {
+                    queue.add(new int[]{range[0], best, rangeMax(range[0], best)});
+                }
+                if (best + 1 < range[1]) {
+                    queue.add(new int[]{best + 1, range[1], rangeMax(best + 1, range[1])});
+                }
+            }
+            return result;
+        }
+
+        private String display(int i) {
+            return new String(displays, displayOffsets[i], displayOffsets[i + 1] - displayOffsets[i], StandardCharsets.UTF_8);
+        }
+
+        // First entry whose key is >= prefix
+        private int lowerBound(byte[] prefix) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compareKey(mid, prefix) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // First entry at or after 'from' that does not start with prefix
+        private int prefixEnd(byte[] prefix, int from) {
+            int lo = from;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (startsWith(mid, prefix)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private int compareKey(int i, byte[] other) {
+            int start = keyOffsets[i];
+            int len = keyOffsets[i + 1] - start;
+            int n = Math.min(len, other.length);
+            for (int j = 0; j < n; j++) {
+                int diff = (keys[start + j] & 0xFF) - (other[j] & 0xFF);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return len - other.length;
+        }
+
+        private boolean startsWith(int i, byte[] prefix) {
+            int start = keyOffsets[i];
+            if (keyOffsets[i + 1] - start < prefix.length) {
+                return false;
+            }
+            for (int j = 0; j < prefix.length; j++) {
+                if (keys[start + j] != prefix[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Index of the best entry in [lo, hi)
+        private int rangeMax(int lo, int hi) {
+            int best = -1;
+            for (int l = lo + leaves, r = hi + leaves; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    best = better(best, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    best = better(best, tree[--r]);
+                }
+            }
+            return best;
+        }
+
+        private int better(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (b < 0) {
+                return a;
+            }
+            return compareEntries(a, b) >= 0 ? a : b;
+        }
+
+        // Higher weight wins; ties go to the shorter key, then alphabetical order
+        private int compareEntries(int a, int b) {
+            if (weights[a] != weights[b]) {
+                return Integer.compare(weights[a], weights[b]);
+            }
+            int lenA = keyOffsets[a + 1] - keyOffsets[a];
+            int lenB = keyOffsets[b + 1] - keyOffsets[b];
+            if (lenA != lenB) {
+                return Integer.compare(lenB, lenA);
+            }
+            return Integer.compare(b, a);
+        }
+    }
+
+    // Benchmark: synthetic 250k-title catalog, random 1-6 character prefixes
+    public static void main(String[] args) {
+        int titles = args.length > 0 ? Integer.parseInt(args[0]) : 250000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+        Random random = new Random(42);
+        String[] words = {"the", "shadow", "of", "wind", "river", "house", "night", "garden", "king", "queen",
+                "secret", "history", "war", "peace", "love", "silent", "city", "dragon", "stars", "ocean",
+                "memory", "winter", "summer", "light", "dark", "road", "bridge", "empire", "island", "song"};
+        String[] names = {"Anna", "Boris", "Carmen", "Diego", "Elena", "Fyodor", "Grace", "Hiro", "Ines", "Jun",
+                "Karl", "Leo", "Maria", "Nadia", "Omar", "Paulo", "Rosa", "Sven", "Tomas", "Yuki"};
+
+        long buildStart = System.nanoTime();
+        Builder builder = new Builder();
+        for (int i = 0; i < titles; i++) {
+            StringBuilder title = new StringBuilder();
+            int len = 2 + random.nextInt(4);
+            for (int w = 0; w < len; w++) {
+                title.append(w == 0 ? "" : " ").append(words[random.nextInt(words.length)]);
+            }
+            title.append(' ').append(i);
+            String author = names[random.nextInt(names.length)] + " " + names[random.nextInt(names.length)] + "son";
+            int sold = random.nextInt(1000);
+            builder.add(title.toString(), KIND_TITLE, sold);
+            builder.add(author, KIND_AUTHOR, sold);
+            builder.add("978-" + (1000000000L + i), KIND_ISBN, sold);
+        }
+        Snapshot built = builder.build();
+        long buildMillis = (System.nanoTime() - buildStart) / 1000000;
+
+        String alphabet = "abcdefghijklmnoprstuwy9";
+        String[] prefixes = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            StringBuilder p = new StringBuilder();
+            int len = 1 + random.nextInt(6);
+            for (int c = 0; c < len; c++) {
+                p.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            prefixes[i] = p.toString();
+        }
+
+        // Warm up the JIT, then measure
+        for (int i = 0; i < lookups; i++) {
+            built.topK(prefixes[i], 10);
+        }
+        long[] nanos = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            long start = System.nanoTime();
+            built.topK(prefixes[i], 10);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        System.out.printf("entries=%d build=%dms memory=%.1fMB%n", built.size, buildMillis, built.memoryBytes() / 1048576.0);
+        System.out.printf("top-10 lookups=%d p50=%.1fus p99=%.1fus max=%.1fus%n", lookups,
+                nanos[lookups / 2] / 1000.0, nanos[(int) (lookups * 0.99)] / 1000.0, nanos[lookups - 1] / 1000.0);
+    }
+}
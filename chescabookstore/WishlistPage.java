@@ -4,7 +4,6 @@ import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.image.BufferedImage;
 import java.sql.*;
 import java.util.*;
 import java.text.NumberFormat;
@@ -30,12 +29,11 @@ public class WishlistPage extends JFrame {
     private static final Font TITLE_FONT = new Font("Segoe UI", Font.BOLD, 16);
     private static final Font BODY_FONT = new Font("Segoe UI", Font.PLAIN, 12);
 
-    // Database connection
-    private Connection connection;
+    // Database session, closed when the page is disposed
+    private DbSession session;
 
     // User information
     private int currentUserId;
-    private String currentUsername;
     private int roleId;
 
     // UI Components
@@ -55,35 +53,12 @@ public class WishlistPage extends JFrame {
     private boolean isWishlistEmpty = true;
 
     public WishlistPage(int userId, int roleId) {
-        try {
-            // Get connection from DatabaseConnection class
-            this.connection = DatabaseConnection.getConnection();
-            this.currentUserId = userId;
-            this.roleId = roleId;
-            
-            // Get username from database
-            this.currentUsername = getUsernameById(userId);
-            
-            initializeUI();
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error connecting to database: " + e.getMessage(), 
-                                         "Database Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-            System.exit(1);
-        }
-    }
-    
-    private String getUsernameById(int userId) throws SQLException {
-        String username = "";
-        String query = "SELECT username FROM users WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                username = rs.getString("username");
-            }
-        }
-        return username;
+        // Borrows this page's connection on first use; released when the page is disposed
+        this.session = new DbSession("WishlistPage");
+        this.currentUserId = userId;
+        this.roleId = roleId;
+        
+        initializeUI();
     }
     
     private void initializeUI() {
@@ -315,69 +290,85 @@ public class WishlistPage extends JFrame {
     }
     
     private void loadWishlistItems() {
+        // Show a loading state while the wishlist is fetched in the background
+        wishlistItemsPanel.removeAll();
+        wishlistItemsPanel.add(new LoadingPanel("Loading your wishlist...", MAIN_BG_COLOR), BorderLayout.CENTER);
+        wishlistItemsPanel.revalidate();
+        wishlistItemsPanel.repaint();
+        
+        DbExecutor.submit(this, this::queryWishlistItems, this::showWishlistItems, e -> {
+            JOptionPane.showMessageDialog(this, "Error loading wishlist items: " + e.getMessage(), 
+                                         "Database Error", JOptionPane.ERROR_MESSAGE);
+            e.printStackTrace();
+        });
+    }
+    
+    // Runs on a database worker thread; each entry is {wishlist id, Book}
+    private java.util.List<Object[]> queryWishlistItems() throws SQLException {
+        // Wishlist rows come from MySQL; book details from the shared catalog cache
+        String query = "SELECT id, book_id FROM wishlist WHERE user_id = ?";
+        
+        java.util.List<int[]> wishlistRows = new ArrayList<>();
+        try (PreparedStatement stmt = session.getConnection().prepareStatement(query)) {
+            stmt.setInt(1, currentUserId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    wishlistRows.add(new int[]{rs.getInt("id"), rs.getInt("book_id")});
+                }
+            }
+        }
+        
+        int[] bookIds = new int[wishlistRows.size()];
+        for (int i = 0; i < bookIds.length; i++) {
+            bookIds[i] = wishlistRows.get(i)[1];
+        }
+        Map<Integer, Book> books = BookCatalog.getInstance().getAll(bookIds);
+        
+        java.util.List<Object[]> items = new ArrayList<>();
+        for (int[] wishlistRow : wishlistRows) {
+            Book book = books.get(wishlistRow[1]);
+            if (book != null) {
+                items.add(new Object[]{wishlistRow[0], book});
+            }
+        }
+        return items;
+    }
+    
+    private void showWishlistItems(java.util.List<Object[]> items) {
         // Clear existing table data
         tableModel.setRowCount(0);
         
         // Reset tracking variables
         totalItems = 0;
-        
-        try {
-            // Query to get wishlist items with book details
-            String query = "SELECT w.id, w.book_id, b.title, b.author, b.price, b.cover_image " +
-                           "FROM wishlist w " +
-                           "JOIN books b ON w.book_id = b.id " +
-                           "WHERE w.user_id = ?";
-                           
-            PreparedStatement stmt = connection.prepareStatement(query);
-            stmt.setInt(1, currentUserId);
-            ResultSet rs = stmt.executeQuery();
-            
-            isWishlistEmpty = true;
-            
-            while (rs.next()) {
-                isWishlistEmpty = false;
-                
-                int wishlistId = rs.getInt("id");
-                int bookId = rs.getInt("book_id");
-                String title = rs.getString("title");
-                String author = rs.getString("author");
-                double price = rs.getDouble("price");
-                String coverImage = rs.getString("cover_image");
-                
-                // Format price for display
-                NumberFormat currencyFormat = NumberFormat.getCurrencyInstance();
-                String formattedPrice = currencyFormat.format(price);
-                
-                // Create an ImageIcon for the cover image
-                ImageIcon coverIcon = createCoverImageIcon(coverImage);
-                
-                // Add row to table model
-                tableModel.addRow(new Object[]{
-                    coverIcon,
-                    "<html><b>" + title + "</b><br>by " + author + "</html>",
-                    formattedPrice,
-                    bookId,  // Store book ID in the action button column
-                    wishlistId  // Store wishlist ID in the remove button column
-                });
-                
-                // Update tracking variables
-                totalItems++;
-            }
-            
-            rs.close();
-            stmt.close();
-            
-            // Update header with count
-            updateHeaderWithCount();
-            
-            // Show either the wishlist table or empty wishlist message
-            showAppropriateView();
+        isWishlistEmpty = items.isEmpty();
+        
+        // Format price for display
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance();
+        for (Object[] item : items) {
+            int wishlistId = (int) item[0];
+            Book book = (Book) item[1];
+            int bookId = book.getId();
+            String formattedPrice = currencyFormat.format(book.getPrice());
+            
+            // Add row to table model; the cover starts as a placeholder
+            tableModel.addRow(new Object[]{
+                createDefaultCoverIcon(60, 90),
+                "<html><b>" + book.getTitle() + "</b><br>by " + book.getAuthor() + "</html>",
+                formattedPrice,
+                bookId,  // Store book ID in the action button column
+                wishlistId  // Store wishlist ID in the remove button column
+            });
+            loadCoverCell(book.getCoverImage(), wishlistId);
             
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading wishlist items: " + e.getMessage(), 
-                                         "Database Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+            // Update tracking variables
+            totalItems++;
         }
+        
+        // Update header with count
+        updateHeaderWithCount();
+        
+        // Show either the wishlist table or empty wishlist message
+        showAppropriateView();
     }
     
     private void updateHeaderWithCount() {
@@ -389,69 +380,21 @@ public class WishlistPage extends JFrame {
         }
     }
     
-    private ImageIcon createCoverImageIcon(String coverImagePath) {
-        try {
-            // Default image size for table
-            int maxWidth = 60;
-            int maxHeight = 90;
-            
-            if (coverImagePath != null && !coverImagePath.isEmpty()) {
-                // Load and resize the image
-                ImageIcon originalIcon = new ImageIcon(getClass().getResource("/assets/" + coverImagePath));
-                Image originalImage = originalIcon.getImage();
-                
-                // Calculate scaling to maintain aspect ratio
-                int origWidth = originalImage.getWidth(null);
-                int origHeight = originalImage.getHeight(null);
-                
-                if (origWidth <= 0 || origHeight <= 0) {
-                    // If image failed to load properly, return default icon
-                    return createDefaultCoverIcon(maxWidth, maxHeight);
-                }
-                
-                double widthRatio = (double)maxWidth / origWidth;
-                double heightRatio = (double)maxHeight / origHeight;
-                double ratio = Math.min(widthRatio, heightRatio);
-                
-                int scaledWidth = (int)(origWidth * ratio);
-                int scaledHeight = (int)(origHeight * ratio);
-                
-                // Scale image maintaining aspect ratio
-                Image scaledImage = originalImage.getScaledInstance(scaledWidth, scaledHeight, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaledImage);
+    // Decodes the cover off the EDT, then replaces just that row's placeholder
+    private void loadCoverCell(String coverImagePath, int wishlistId) {
+        CoverLoader.load(this, coverImagePath, 60, 90, icon -> {
+            if (icon == null) {
+                return;
             }
-        } catch (Exception e) {
-            // If any error occurs, return default icon
-            e.printStackTrace();
-        }
-        
-        // Return default icon if image loading fails or path is empty
-        return createDefaultCoverIcon(60, 90);
+            int row = findRow(wishlistId);
+            if (row >= 0) {
+                tableModel.setValueAt(icon, row, 0);
+            }
+        });
     }
     
     private ImageIcon createDefaultCoverIcon(int width, int height) {
-        // Create a default image with a light gray background and "No Image" text
-        BufferedImage defaultImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = defaultImage.createGraphics();
-        
-        // Set background color
-        g2d.setColor(new Color(230, 230, 240));
-        g2d.fillRect(0, 0, width, height);
-        
-        // Set text color and font
-        g2d.setColor(new Color(150, 150, 150));
-        g2d.setFont(new Font("Segoe UI", Font.PLAIN, 10));
-        
-        // Center the text
-        FontMetrics metrics = g2d.getFontMetrics();
-        String text = "No Image";
-        int textWidth = metrics.stringWidth(text);
-        int textHeight = metrics.getHeight();
-        g2d.drawString(text, (width - textWidth) / 2, height / 2);
-        
-        g2d.dispose();
-        
-        return new ImageIcon(defaultImage);
+        return CoverImageCache.placeholder(width, height);
     }
     
     private void showAppropriateView() {
@@ -467,24 +410,41 @@ public class WishlistPage extends JFrame {
         wishlistItemsPanel.repaint();
     }
     
+    // Row of the given wishlist id, or -1; rows can move while a removal runs
+    private int findRow(int wishlistId) {
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            if (Integer.valueOf(wishlistId).equals(tableModel.getValueAt(row, 4))) {
+                return row;
+            }
+        }
+        return -1;
+    }
+    
     private void removeFromWishlist(int row) {
-        try {
-            // Get wishlist id from table model
-            int wishlistId = (int) tableModel.getValueAt(row, 4);
-            
+        // Get wishlist id from table model
+        int wishlistId = (int) tableModel.getValueAt(row, 4);
+        
+        // The table is locked until the delete is written
+        wishlistTable.setEnabled(false);
+        DbExecutor.submit(this, () -> {
             // Delete item from database
             String deleteQuery = "DELETE FROM wishlist WHERE id = ?";
-            PreparedStatement deleteStmt = connection.prepareStatement(deleteQuery);
-            deleteStmt.setInt(1, wishlistId);
-            deleteStmt.executeUpdate();
-            deleteStmt.close();
+            try (PreparedStatement deleteStmt = session.getConnection().prepareStatement(deleteQuery)) {
+                deleteStmt.setInt(1, wishlistId);
+                return deleteStmt.executeUpdate();
+            }
+        }, rowsAffected -> {
+            wishlistTable.setEnabled(true);
             
             // Remove row from table model
-            tableModel.removeRow(row);
-            
-            // Update total items count
-            totalItems--;
-            updateHeaderWithCount();
+            int currentRow = findRow(wishlistId);
+            if (currentRow >= 0) {
+                tableModel.removeRow(currentRow);
+                
+                // Update total items count
+                totalItems--;
+                updateHeaderWithCount();
+            }
             
             // Check if wishlist is now empty
             if (tableModel.getRowCount() == 0) {
@@ -494,59 +454,29 @@ public class WishlistPage extends JFrame {
             
             // Show success message
             showToastMessage("Item removed from wishlist");
-            
-        } catch (SQLException e) {
+        }, e -> {
+            wishlistTable.setEnabled(true);
             JOptionPane.showMessageDialog(this, "Error removing item: " + e.getMessage(),
                                          "Database Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
-        }
+        });
     }
     
     private void addToCart(int row) {
-        try {
-            // Get book id from table model
-            int bookId = (int) tableModel.getValueAt(row, 3);
-            
-            // Check if item already exists in cart
-            String checkQuery = "SELECT id, quantity FROM cart WHERE user_id = ? AND book_id = ?";
-            PreparedStatement checkStmt = connection.prepareStatement(checkQuery);
-            checkStmt.setInt(1, currentUserId);
-            checkStmt.setInt(2, bookId);
-            ResultSet rs = checkStmt.executeQuery();
-            
-            if (rs.next()) {
-                // Item already exists in cart, update quantity
-                int cartId = rs.getInt("id");
-                int currentQty = rs.getInt("quantity");
-                
-                String updateQuery = "UPDATE cart SET quantity = ? WHERE id = ?";
-                PreparedStatement updateStmt = connection.prepareStatement(updateQuery);
-                updateStmt.setInt(1, currentQty + 1);
-                updateStmt.setInt(2, cartId);
-                updateStmt.executeUpdate();
-                updateStmt.close();
-                
-                showToastMessage("Item quantity updated in cart");
-            } else {
-                // Item doesn't exist in cart, add it
-                String insertQuery = "INSERT INTO cart (user_id, book_id, quantity) VALUES (?, ?, 1)";
-                PreparedStatement insertStmt = connection.prepareStatement(insertQuery);
-                insertStmt.setInt(1, currentUserId);
-                insertStmt.setInt(2, bookId);
-                insertStmt.executeUpdate();
-                insertStmt.close();
-                
-                showToastMessage("Item added to cart");
-            }
-            
-            rs.close();
-            checkStmt.close();
-            
-        } catch (SQLException e) {
+        // Get book id from table model
+        int bookId = (int) tableModel.getValueAt(row, 3);
+        
+        // One upsert; a second add of the same book just bumps the quantity
+        wishlistTable.setEnabled(false);
+        DbExecutor.submit(this, () -> CartService.addToCart(session.getConnection(), currentUserId, bookId), quantity -> {
+            wishlistTable.setEnabled(true);
+            showToastMessage(quantity > 1 ? "Item quantity updated in cart" : "Item added to cart");
+        }, e -> {
+            wishlistTable.setEnabled(true);
             JOptionPane.showMessageDialog(this, "Error adding item to cart: " + e.getMessage(),
                                          "Database Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
-        }
+        });
     }
     
     private void showToastMessage(String message) {
@@ -619,6 +549,17 @@ public class WishlistPage extends JFrame {
         }
     }
     
+    @Override
+    public void dispose() {
+        // Stop background queries, then release the page's connection and statements
+        DbExecutor.cancelAll(this);
+        CoverLoader.cancelAll(this);
+        if (session != null) {
+            session.closeWhenIdle(this);
+        }
+        super.dispose();
+    }
+
     private void logout() {
         int response = JOptionPane.showConfirmDialog(this, 
                 "Are you sure you want to logout?", 
@@ -824,6 +765,10 @@ public class WishlistPage extends JFrame {
     private class TableButtonClickListener extends MouseAdapter {
         @Override
         public void mouseClicked(MouseEvent e) {
+            // Disabled while a change is being written
+            if (!wishlistTable.isEnabled()) {
+                return;
+            }
             int column = wishlistTable.getColumnModel().getColumnIndexAtX(e.getX());
             int row = e.getY() / wishlistTable.getRowHeight();
             